@@ -0,0 +1,68 @@
+-- ============================================
+-- Range-partition the live orders table by ordered_at
+-- MySQL 8.0 DDL Script
+-- ============================================
+--
+-- MySQL requires every unique key of a partitioned table to contain the
+-- partitioning column, and partitioned InnoDB tables cannot take part in
+-- foreign keys. The conversion therefore:
+--   * makes ordered_at NOT NULL and part of the primary key,
+--   * drops the order_items -> orders and orders -> users foreign keys
+--     (order ids stay unique through AUTO_INCREMENT; the application never
+--     deletes users that still have orders).
+--
+-- Run with JPA_DDL_AUTO=none (or validate) afterwards so Hibernate does not
+-- try to re-create the dropped constraints.
+--
+-- Monthly partitions ahead of the current month are added by
+-- OrderPartitionMaintenance when app.orders.partitioning.enabled=true;
+-- it splits pmax, so pmax must remain the last partition.
+
+USE vocalocart;
+
+-- Fill any legacy rows without a timestamp so they land in the oldest partition
+UPDATE orders SET ordered_at = '2000-01-01 00:00:00' WHERE ordered_at IS NULL;
+
+-- Drop foreign keys that reference or are declared on orders
+SET @fk_items = (SELECT CONSTRAINT_NAME FROM information_schema.REFERENTIAL_CONSTRAINTS
+                 WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = 'order_items'
+                   AND REFERENCED_TABLE_NAME = 'orders');
+SET @sql = IF(@fk_items IS NULL, 'DO 0', CONCAT('ALTER TABLE order_items DROP FOREIGN KEY ', @fk_items));
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+SET @fk_users = (SELECT CONSTRAINT_NAME FROM information_schema.REFERENTIAL_CONSTRAINTS
+                 WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = 'orders'
+                   AND REFERENCED_TABLE_NAME = 'users');
+SET @sql = IF(@fk_users IS NULL, 'DO 0', CONCAT('ALTER TABLE orders DROP FOREIGN KEY ', @fk_users));
+PREPARE stmt FROM @sql; EXECUTE stmt; DEALLOCATE PREPARE stmt;
+
+ALTER TABLE orders
+    MODIFY ordered_at DATETIME(6) NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, ordered_at);
+
+-- Everything before the archive cutoff normally lives in orders_archive, so a
+-- single historic partition is enough; adjust the monthly list to the current date.
+ALTER TABLE orders
+PARTITION BY RANGE COLUMNS (ordered_at) (
+    PARTITION p_history VALUES LESS THAN ('2025-01-01'),
+    PARTITION p202501 VALUES LESS THAN ('2025-02-01'),
+    PARTITION p202502 VALUES LESS THAN ('2025-03-01'),
+    PARTITION p202503 VALUES LESS THAN ('2025-04-01'),
+    PARTITION p202504 VALUES LESS THAN ('2025-05-01'),
+    PARTITION p202505 VALUES LESS THAN ('2025-06-01'),
+    PARTITION p202506 VALUES LESS THAN ('2025-07-01'),
+    PARTITION p202507 VALUES LESS THAN ('2025-08-01'),
+    PARTITION p202508 VALUES LESS THAN ('2025-09-01'),
+    PARTITION p202509 VALUES LESS THAN ('2025-10-01'),
+    PARTITION p202510 VALUES LESS THAN ('2025-11-01'),
+    PARTITION p202511 VALUES LESS THAN ('2025-12-01'),
+    PARTITION p202512 VALUES LESS THAN ('2026-01-01'),
+    PARTITION pmax VALUES LESS THAN (MAXVALUE)
+);
+
+-- Verify
+SELECT PARTITION_NAME, PARTITION_DESCRIPTION, TABLE_ROWS
+FROM information_schema.PARTITIONS
+WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'orders'
+ORDER BY PARTITION_ORDINAL_POSITION;
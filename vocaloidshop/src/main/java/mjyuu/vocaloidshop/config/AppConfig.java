@@ -1,5 +1,10 @@
 package mjyuu.vocaloidshop.config;
 
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import mjyuu.vocaloidshop.dto.ProductResponseDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -14,8 +19,17 @@ import java.util.Arrays;
 public class AppConfig {
     
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.security.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+    
+    /**
+     * Products are written in full unless a response sets its own filter for {@code fields=}.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer productFieldsFilter() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+                .addFilter(ProductResponseDTO.FIELDS_FILTER, SimpleBeanPropertyFilter.serializeAll()));
     }
     
     @Bean
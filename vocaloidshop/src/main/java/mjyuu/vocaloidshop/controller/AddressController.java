@@ -25,14 +25,14 @@ public class AddressController {
             @PathVariable Long userId,
             @Valid @RequestBody AddressRequestDTO request) {
         Address address = addressService.createAddress(userId, request);
-        return ResponseEntity.ok(toResponseDTO(address));
+        return ResponseEntity.ok(AddressResponseDTO.from(address));
     }
 
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<AddressResponseDTO>> listUserAddresses(@PathVariable Long userId) {
         List<Address> addresses = addressService.listUserAddresses(userId);
         List<AddressResponseDTO> response = addresses.stream()
-                .map(this::toResponseDTO)
+                .map(AddressResponseDTO::from)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(response);
     }
@@ -40,7 +40,7 @@ public class AddressController {
     @GetMapping("/{id}")
     public ResponseEntity<AddressResponseDTO> getAddress(@PathVariable Long id) {
         Address address = addressService.getAddress(id);
-        return ResponseEntity.ok(toResponseDTO(address));
+        return ResponseEntity.ok(AddressResponseDTO.from(address));
     }
 
     @PutMapping("/{id}")
@@ -48,7 +48,7 @@ public class AddressController {
             @PathVariable Long id,
             @Valid @RequestBody AddressRequestDTO request) {
         Address address = addressService.updateAddress(id, request);
-        return ResponseEntity.ok(toResponseDTO(address));
+        return ResponseEntity.ok(AddressResponseDTO.from(address));
     }
 
     @DeleteMapping("/{id}")
@@ -64,19 +64,4 @@ public class AddressController {
         addressService.setDefaultAddress(userId, id);
         return ResponseEntity.ok().build();
     }
-
-    private AddressResponseDTO toResponseDTO(Address address) {
-        return AddressResponseDTO.builder()
-                .id(address.getId())
-                .recipientName(address.getRecipientName())
-                .line1(address.getLine1())
-                .line2(address.getLine2())
-                .city(address.getCity())
-                .state(address.getState())
-                .postalCode(address.getPostalCode())
-                .country(address.getCountry())
-                .phone(address.getPhone())
-                .isDefault(address.isDefault())
-                .build();
-    }
 }
@@ -0,0 +1,106 @@
+package mjyuu.vocaloidshop.controller;
+
+import lombok.RequiredArgsConstructor;
+import mjyuu.vocaloidshop.dto.ProductSalesRollupDTO;
+import mjyuu.vocaloidshop.dto.ProductStatsDTO;
+import mjyuu.vocaloidshop.dto.SalesRollupDTO;
+import mjyuu.vocaloidshop.entity.ProductSalesDailyRollup;
+import mjyuu.vocaloidshop.entity.SalesDailyRollup;
+import mjyuu.vocaloidshop.service.FrequentlyBoughtTogetherService;
+import mjyuu.vocaloidshop.service.ProductStatsService;
+import mjyuu.vocaloidshop.service.SalesRollupService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/admin/dashboard")
+@RequiredArgsConstructor
+@CrossOrigin
+public class AdminDashboardController {
+
+    private static final int DEFAULT_RANGE_DAYS = 30;
+    private static final int MAX_PRODUCT_STATS = 500;
+
+    private final SalesRollupService salesRollupService;
+    private final ProductStatsService productStatsService;
+    private final FrequentlyBoughtTogetherService frequentlyBoughtTogetherService;
+
+    @GetMapping("/sales")
+    public ResponseEntity<List<SalesRollupDTO>> getSales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_RANGE_DAYS);
+        List<SalesRollupDTO> response = salesRollupService.getSalesRollups(start, end).stream()
+                .map(this::toResponseDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/products")
+    public ResponseEntity<List<ProductSalesRollupDTO>> getProductSales(
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_RANGE_DAYS);
+        List<ProductSalesRollupDTO> response = salesRollupService.getProductRollups(productId, start, end).stream()
+                .map(this::toResponseDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/product-stats")
+    public ResponseEntity<List<ProductStatsDTO>> getProductStats(
+            @RequestParam(defaultValue = "views") String sort,
+            @RequestParam(defaultValue = "50") int limit) {
+        if (!sort.equals("views") && !sort.equals("clicks") || limit < 1 || limit > MAX_PRODUCT_STATS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productStatsService.getTopProducts(sort.equals("clicks"), limit));
+    }
+
+    @PostMapping("/rollups/backfill")
+    public ResponseEntity<Map<String, Integer>> backfillRollups(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(salesRollupService.backfill(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/bought-together/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildBoughtTogether() {
+        try {
+            return ResponseEntity.ok(frequentlyBoughtTogetherService.rebuild());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private SalesRollupDTO toResponseDTO(SalesDailyRollup rollup) {
+        return SalesRollupDTO.builder()
+                .salesDate(rollup.getSalesDate())
+                .status(rollup.getStatus())
+                .orderCount(rollup.getOrderCount())
+                .revenue(rollup.getRevenue())
+                .build();
+    }
+
+    private ProductSalesRollupDTO toResponseDTO(ProductSalesDailyRollup rollup) {
+        return ProductSalesRollupDTO.builder()
+                .salesDate(rollup.getSalesDate())
+                .productId(rollup.getProductId())
+                .units(rollup.getUnits())
+                .revenue(rollup.getRevenue())
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+package mjyuu.vocaloidshop.controller;
+
+import lombok.RequiredArgsConstructor;
+import mjyuu.vocaloidshop.entity.InventoryMovement;
+import mjyuu.vocaloidshop.service.InventoryService;
+import mjyuu.vocaloidshop.service.LowStockService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/inventory")
+@RequiredArgsConstructor
+@CrossOrigin
+public class AdminInventoryController {
+
+    private final InventoryService inventoryService;
+    private final LowStockService lowStockService;
+
+    @GetMapping("/{productId}/movements")
+    public ResponseEntity<List<InventoryMovement>> getMovements(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > 500) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(inventoryService.getRecentMovements(productId, limit));
+    }
+
+    /**
+     * Server-sent "low-stock" events whenever a product drops below its threshold.
+     */
+    @GetMapping(value = "/low-stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLowStock() {
+        return lowStockService.subscribe();
+    }
+
+    /**
+     * Sets the product's low-stock threshold; without {@code threshold} it goes back to the default.
+     */
+    @PutMapping("/{productId}/low-stock-threshold")
+    public ResponseEntity<Map<String, Object>> setLowStockThreshold(
+            @PathVariable Long productId,
+            @RequestParam(required = false) Integer threshold) {
+        if (threshold != null && threshold < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        lowStockService.setThreshold(productId, threshold);
+        return ResponseEntity.ok(Map.of("productId", productId, "threshold", lowStockService.thresholdOf(productId)));
+    }
+}
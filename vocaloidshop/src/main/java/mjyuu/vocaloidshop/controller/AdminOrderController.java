@@ -0,0 +1,30 @@
+package mjyuu.vocaloidshop.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import mjyuu.vocaloidshop.dto.BulkOrderStatusRequestDTO;
+import mjyuu.vocaloidshop.dto.BulkOrderStatusResponseDTO;
+import mjyuu.vocaloidshop.service.OrderService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/orders")
+@RequiredArgsConstructor
+@CrossOrigin
+public class AdminOrderController {
+
+    private final OrderService orderService;
+
+    @PatchMapping("/status")
+    public ResponseEntity<BulkOrderStatusResponseDTO> bulkUpdateStatus(@Valid @RequestBody BulkOrderStatusRequestDTO request) {
+        OrderService.BulkStatusResult result = orderService.bulkUpdateOrderStatus(request.getOrderIds(), request.getStatus());
+        BulkOrderStatusResponseDTO response = BulkOrderStatusResponseDTO.builder()
+                .status(request.getStatus())
+                .updatedIds(result.updatedIds())
+                .unchangedIds(result.unchangedIds())
+                .rejectedIds(result.rejectedIds())
+                .build();
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,58 @@
+package mjyuu.vocaloidshop.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import mjyuu.vocaloidshop.dto.UpdateRoleRequestDTO;
+import mjyuu.vocaloidshop.dto.UserInfoDTO;
+import mjyuu.vocaloidshop.entity.User;
+import mjyuu.vocaloidshop.exception.ResourceNotFoundException;
+import mjyuu.vocaloidshop.service.UserService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiredArgsConstructor
+@CrossOrigin
+public class AdminUserController {
+
+    private final UserService userService;
+
+    @PatchMapping("/{id}/role")
+    public ResponseEntity<UserInfoDTO> updateRole(@PathVariable Long id, @Valid @RequestBody UpdateRoleRequestDTO request) {
+        User user = userService.updateRole(id, request.getRole());
+        return ResponseEntity.ok(UserInfoDTO.from(user));
+    }
+
+    @PostMapping("/{id}/ban")
+    public ResponseEntity<UserInfoDTO> banUser(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(UserInfoDTO.from(userService.setBanned(id, true)));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("/{id}/ban")
+    public ResponseEntity<UserInfoDTO> unbanUser(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(UserInfoDTO.from(userService.setBanned(id, false)));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
+        try {
+            userService.deleteUser(id);
+            return ResponseEntity.ok().build();
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
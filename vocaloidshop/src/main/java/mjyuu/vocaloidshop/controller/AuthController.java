@@ -1,16 +1,24 @@
 package mjyuu.vocaloidshop.controller;
 
+import io.jsonwebtoken.Claims;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import mjyuu.vocaloidshop.dto.AuthRequestDTO;
 import mjyuu.vocaloidshop.dto.AuthResponseDTO;
+import mjyuu.vocaloidshop.dto.ChangePasswordRequestDTO;
+import mjyuu.vocaloidshop.entity.RevocationReason;
 import mjyuu.vocaloidshop.entity.User;
 import mjyuu.vocaloidshop.exception.DuplicateResourceException;
 import mjyuu.vocaloidshop.exception.InvalidCredentialsException;
+import mjyuu.vocaloidshop.exception.ServiceUnavailableException;
 import mjyuu.vocaloidshop.repository.UserRepository;
+import mjyuu.vocaloidshop.security.AuthRateLimiter;
+import mjyuu.vocaloidshop.security.AuthenticatedUser;
+import mjyuu.vocaloidshop.service.PasswordHashingService;
+import mjyuu.vocaloidshop.service.TokenRevocationService;
 import mjyuu.vocaloidshop.util.JwtUtil;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -20,18 +28,22 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
     
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
+    private final AuthRateLimiter authRateLimiter;
+    private final TokenRevocationService tokenRevocationService;
     
     @PostMapping("/register")
     public ResponseEntity<AuthResponseDTO> register(@Valid @RequestBody AuthRequestDTO request) {
+        authRateLimiter.checkEmail(request.getEmail());
+        
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new DuplicateResourceException("User", "email", request.getEmail());
         }
         
         User user = User.builder()
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHashingService.encode(request.getPassword()))
                 .name(request.getName())
                 .phone(request.getPhone())
                 .address(request.getAddress())
@@ -40,7 +52,7 @@ public class AuthController {
         
         userRepository.save(user);
         
-        String token = jwtUtil.generateToken(user.getId(), user.getEmail());
+        String token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole());
         
         AuthResponseDTO response = AuthResponseDTO.builder()
                 .token(token)
@@ -54,14 +66,81 @@ public class AuthController {
     
     @PostMapping("/login")
     public ResponseEntity<AuthResponseDTO> login(@Valid @RequestBody AuthRequestDTO request) {
+        authRateLimiter.checkEmail(request.getEmail());
+        
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new InvalidCredentialsException());
         
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
             throw new InvalidCredentialsException();
         }
         
-        String token = jwtUtil.generateToken(user.getId(), user.getEmail());
+        if (user.isBanned()) {
+            throw new InvalidCredentialsException("Account is suspended");
+        }
+        
+        // Progressive rehash: upgrade hashes made with a lower cost while the raw password is at hand
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            try {
+                user.setPassword(passwordHashingService.encode(request.getPassword()));
+                userRepository.save(user);
+            } catch (ServiceUnavailableException e) {
+                // the login itself succeeded; the upgrade is retried on a later login
+            }
+        }
+        
+        String token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole());
+        
+        AuthResponseDTO response = AuthResponseDTO.builder()
+                .token(token)
+                .email(user.getEmail())
+                .name(user.getName())
+                .role(user.getRole().name())
+                .build();
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new InvalidCredentialsException("Authentication required");
+        }
+        
+        // JwtAuthFilter has already rejected invalid and revoked tokens
+        Claims claims = jwtUtil.validateToken(authHeader.substring(7));
+        Long userId = claims.get("userId", Long.class);
+        if (claims.getId() != null) {
+            tokenRevocationService.revokeToken(claims.getId(), userId, claims.getExpiration());
+        } else {
+            // tokens issued before token ids were introduced can only be revoked all together
+            tokenRevocationService.revokeUser(userId, RevocationReason.LOGOUT);
+        }
+        
+        return ResponseEntity.noContent().build();
+    }
+    
+    @PostMapping("/change-password")
+    public ResponseEntity<AuthResponseDTO> changePassword(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                          @Valid @RequestBody ChangePasswordRequestDTO request) {
+        if (principal == null) {
+            throw new InvalidCredentialsException("Authentication required");
+        }
+        authRateLimiter.checkEmail(principal.email());
+        
+        User user = userRepository.findById(principal.id())
+                .orElseThrow(() -> new InvalidCredentialsException());
+        
+        if (!passwordHashingService.matches(request.getCurrentPassword(), user.getPassword())) {
+            throw new InvalidCredentialsException("Current password is incorrect");
+        }
+        
+        user.setPassword(passwordHashingService.encode(request.getNewPassword()));
+        // revoke before saving: if the save fails the user is logged out rather than left with live old tokens
+        tokenRevocationService.revokeUser(user.getId(), RevocationReason.PASSWORD_CHANGE);
+        userRepository.save(user);
+        
+        String token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole());
         
         AuthResponseDTO response = AuthResponseDTO.builder()
                 .token(token)
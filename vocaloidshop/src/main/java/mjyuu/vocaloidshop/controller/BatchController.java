@@ -0,0 +1,29 @@
+package mjyuu.vocaloidshop.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import mjyuu.vocaloidshop.dto.BatchRequestDTO;
+import mjyuu.vocaloidshop.dto.BatchResponseDTO;
+import mjyuu.vocaloidshop.service.BatchDispatchService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/batch")
+@RequiredArgsConstructor
+@CrossOrigin
+public class BatchController {
+
+    private final BatchDispatchService batchDispatchService;
+
+    @PostMapping
+    public ResponseEntity<BatchResponseDTO> batch(@Valid @RequestBody BatchRequestDTO request,
+                                                  HttpServletRequest servletRequest) {
+        try {
+            return ResponseEntity.ok(batchDispatchService.dispatch(servletRequest, request.getRequests()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
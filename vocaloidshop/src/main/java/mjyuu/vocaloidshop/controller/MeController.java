@@ -0,0 +1,43 @@
+package mjyuu.vocaloidshop.controller;
+
+import lombok.RequiredArgsConstructor;
+import mjyuu.vocaloidshop.dto.AccountBootstrapDTO;
+import mjyuu.vocaloidshop.dto.MembershipResponseDTO;
+import mjyuu.vocaloidshop.security.AuthenticatedUser;
+import mjyuu.vocaloidshop.service.AccountBootstrapService;
+import mjyuu.vocaloidshop.service.MembershipService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/me")
+@RequiredArgsConstructor
+@CrossOrigin
+public class MeController {
+
+    private static final int MAX_MEMBERSHIP_IDS = 500;
+
+    private final AccountBootstrapService accountBootstrapService;
+    private final MembershipService membershipService;
+
+    @GetMapping("/bootstrap")
+    public ResponseEntity<AccountBootstrapDTO> bootstrap(@AuthenticationPrincipal AuthenticatedUser principal) {
+        return ResponseEntity.ok(accountBootstrapService.bootstrap(principal.id()));
+    }
+
+    @GetMapping("/membership")
+    public ResponseEntity<MembershipResponseDTO> membership(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                            @RequestParam List<Long> productIds) {
+        if (productIds.size() > MAX_MEMBERSHIP_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        MembershipResponseDTO response = MembershipResponseDTO.builder()
+                .productIds(productIds)
+                .flags(membershipService.getFlags(principal.id(), productIds))
+                .build();
+        return ResponseEntity.ok(response);
+    }
+}
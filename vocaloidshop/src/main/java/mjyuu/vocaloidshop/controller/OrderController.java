@@ -1,10 +1,16 @@
 package mjyuu.vocaloidshop.controller;
 
 import lombok.RequiredArgsConstructor;
+import mjyuu.vocaloidshop.dto.OrderResponseDTO;
 import mjyuu.vocaloidshop.entity.Order;
+import mjyuu.vocaloidshop.security.AuthenticatedUser;
 import mjyuu.vocaloidshop.service.OrderService;
+import mjyuu.vocaloidshop.service.OrderStatusStreamService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -14,12 +20,35 @@ import java.util.List;
 @CrossOrigin
 public class OrderController {
     
+    private static final int MAX_HISTORY_ORDERS = 10_000;
+    
     private final OrderService orderService;
+    private final OrderStatusStreamService orderStatusStreamService;
     
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Order>> getUserOrders(@PathVariable Long userId) {
-        List<Order> orders = orderService.listUserOrders(userId);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<OrderResponseDTO>> getUserOrders(@PathVariable Long userId) {
+        return ResponseEntity.ok(orderService.listUserOrders(userId));
+    }
+    
+    /**
+     * Server-sent "order-status" events for the signed-in user's orders, for the tracking page
+     * instead of polling the order list.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderStatus(@AuthenticationPrincipal AuthenticatedUser principal) {
+        return orderStatusStreamService.subscribe(principal.id());
+    }
+    
+    @GetMapping("/user/{userId}/history")
+    public ResponseEntity<List<OrderResponseDTO>> getUserOrderHistory(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        // each page reads both sources from the newest order, so depth is bounded
+        if (page < 0 || size < 1 || size > 100 || (long) (page + 1) * size > MAX_HISTORY_ORDERS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(orderService.listUserOrderHistory(userId, page, size));
     }
     
     @PostMapping("/user/{userId}")
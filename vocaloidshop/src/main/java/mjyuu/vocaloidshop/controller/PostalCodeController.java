@@ -0,0 +1,46 @@
+package mjyuu.vocaloidshop.controller;
+
+import lombok.RequiredArgsConstructor;
+import mjyuu.vocaloidshop.dto.PostalCodeDTO;
+import mjyuu.vocaloidshop.service.PostalCodeService;
+import mjyuu.vocaloidshop.util.PostalIndex;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/postal-codes")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
+@RequiredArgsConstructor
+public class PostalCodeController {
+
+    private final PostalCodeService postalCodeService;
+
+    @GetMapping("/{country}/{postalCode}")
+    public ResponseEntity<PostalCodeDTO> lookup(@PathVariable String country, @PathVariable String postalCode) {
+        return postalCodeService.lookup(country, postalCode)
+                .map(entry -> ResponseEntity.ok(toDTO(entry)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{country}")
+    public ResponseEntity<List<PostalCodeDTO>> complete(@PathVariable String country,
+                                                        @RequestParam String prefix,
+                                                        @RequestParam(defaultValue = "10") int limit) {
+        List<PostalCodeDTO> response = postalCodeService.complete(country, prefix, limit).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(response);
+    }
+
+    private PostalCodeDTO toDTO(PostalIndex.Entry entry) {
+        return PostalCodeDTO.builder()
+                .country(entry.country())
+                .postalCode(entry.postalCode())
+                .city(entry.city())
+                .state(entry.state())
+                .build();
+    }
+}
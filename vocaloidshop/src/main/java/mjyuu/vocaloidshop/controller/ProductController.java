@@ -1,15 +1,29 @@
 package mjyuu.vocaloidshop.controller;
 
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import mjyuu.vocaloidshop.dto.ProductField;
 import mjyuu.vocaloidshop.dto.ProductRequestDTO;
 import mjyuu.vocaloidshop.dto.ProductResponseDTO;
 import mjyuu.vocaloidshop.entity.Product;
+import mjyuu.vocaloidshop.security.AuthenticatedUser;
+import mjyuu.vocaloidshop.security.ClientAddressResolver;
+import mjyuu.vocaloidshop.service.FrequentlyBoughtTogetherService;
 import mjyuu.vocaloidshop.service.ProductService;
+import mjyuu.vocaloidshop.service.ProductStatsService;
+import mjyuu.vocaloidshop.service.RecentlyViewedService;
+import mjyuu.vocaloidshop.service.TrendingService;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -18,27 +32,125 @@ import java.util.stream.Collectors;
 @CrossOrigin
 public class ProductController {
     
+    private static final int MAX_TRENDING = 100;
+    private static final int MAX_BOUGHT_TOGETHER = 20;
+    private static final int MAX_LOOKUP_IDS = 100;
+    
     private final ProductService productService;
+    private final RecentlyViewedService recentlyViewedService;
+    private final TrendingService trendingService;
+    private final ProductStatsService productStatsService;
+    private final ClientAddressResolver clientAddressResolver;
+    private final FrequentlyBoughtTogetherService frequentlyBoughtTogetherService;
     
     @GetMapping
-    public ResponseEntity<List<ProductResponseDTO>> getAllProducts() {
+    public ResponseEntity<MappingJacksonValue> getAllProducts(@RequestParam(required = false) String fields) {
+        Set<ProductField> selected = parseFields(fields);
+        if (selected == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (fields != null) {
+            return ResponseEntity.ok(withFields(productService.getProductFields(selected), selected));
+        }
         List<Product> products = productService.getAllProducts();
         List<ProductResponseDTO> response = products.stream()
                 .map(this::toResponseDTO)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(withFields(response, selected));
+    }
+    
+    /**
+     * Multi-get for carts, wishlists and recommendation strips: one entry per requested id, in
+     * request order, with {@code found: false} for ids that do not exist.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<MappingJacksonValue> getProductsByIds(@RequestParam List<Long> ids,
+                                                                @RequestParam(required = false) String fields) {
+        Set<ProductField> selected = parseFields(fields);
+        if (selected == null || ids.isEmpty() || ids.size() > MAX_LOOKUP_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(withFields(productService.lookupProducts(ids, selected), selected));
+    }
+    
+    @GetMapping("/trending")
+    public ResponseEntity<MappingJacksonValue> getTrending(@RequestParam(defaultValue = "10") int limit,
+                                                           @RequestParam(required = false) String fields) {
+        Set<ProductField> selected = parseFields(fields);
+        if (selected == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Long> productIds = trendingService.getTrendingProductIds(Math.min(limit, MAX_TRENDING));
+        return ResponseEntity.ok(withFields(getProductsInOrder(productIds, fields, selected), selected));
+    }
+    
+    @GetMapping("/recently-viewed")
+    public ResponseEntity<MappingJacksonValue> getRecentlyViewed(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                                 @RequestParam(required = false) String fields) {
+        Set<ProductField> selected = parseFields(fields);
+        if (selected == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (principal == null) {
+            return ResponseEntity.ok(withFields(List.of(), selected));
+        }
+        List<Long> productIds = recentlyViewedService.getRecentlyViewed(principal.id());
+        return ResponseEntity.ok(withFields(getProductsInOrder(productIds, fields, selected), selected));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponseDTO> getProductById(@PathVariable Long id) {
+    public ResponseEntity<MappingJacksonValue> getProductById(@PathVariable Long id,
+                                                              @RequestParam(required = false) String fields,
+                                                              @AuthenticationPrincipal AuthenticatedUser principal) {
+        Set<ProductField> selected = parseFields(fields);
+        if (selected == null) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            Product product = productService.getProduct(id);
-            return ResponseEntity.ok(toResponseDTO(product));
+            ProductResponseDTO product = fields != null
+                    ? productService.getProductFields(id, selected)
+                    : toResponseDTO(productService.getProduct(id));
+            trendingService.recordView(id);
+            productStatsService.recordView(id);
+            if (principal != null) {
+                recentlyViewedService.recordView(principal.id(), id);
+            }
+            return ResponseEntity.ok(withFields(product, selected));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
     
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<Map<String, Object>> getProductStock(@PathVariable Long id) {
+        try {
+            int stock = productService.getStockLevel(id);
+            return ResponseEntity.ok(Map.of("productId", id, "stockQuantity", stock));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping("/{id}/frequently-bought-together")
+    public ResponseEntity<MappingJacksonValue> getFrequentlyBoughtTogether(@PathVariable Long id,
+                                                                           @RequestParam(defaultValue = "6") int limit,
+                                                                           @RequestParam(required = false) String fields) {
+        Set<ProductField> selected = parseFields(fields);
+        if (selected == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Long> productIds = frequentlyBoughtTogetherService.getFrequentlyBoughtWith(id, Math.min(limit, MAX_BOUGHT_TOGETHER));
+        return ResponseEntity.ok(withFields(getProductsInOrder(productIds, fields, selected), selected));
+    }
+    
+    @PostMapping("/{id}/clicks")
+    public ResponseEntity<Void> recordClick(@PathVariable Long id, HttpServletRequest request) {
+        if (!productStatsService.recordClick(id, clientAddressResolver.resolve(request))) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+    
     @PostMapping
     public ResponseEntity<ProductResponseDTO> createProduct(@Valid @RequestBody ProductRequestDTO request) {
         Product product = productService.createProduct(request);
@@ -65,6 +177,39 @@ public class ProductController {
         }
     }
     
+    private List<ProductResponseDTO> getProductsInOrder(List<Long> productIds, String fields, Set<ProductField> selected) {
+        if (fields != null) {
+            return productService.getProductFieldsInOrder(productIds, selected);
+        }
+        return productService.getProductsInOrder(productIds).stream()
+                .map(this::toResponseDTO)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Product GETs take an optional {@code fields=} list of ProductResponseDTO properties, e.g.
+     * {@code fields=name,price,imageUrl} for a grid. Only those columns are selected and only those
+     * properties are written; without it products are returned in full.
+     *
+     * @return the requested fields, every field when {@code fields} is absent, or null if it names an unknown one
+     */
+    private static Set<ProductField> parseFields(String fields) {
+        try {
+            return ProductField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    private static MappingJacksonValue withFields(Object body, Set<ProductField> fields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider().addFilter(ProductResponseDTO.FIELDS_FILTER,
+                SimpleBeanPropertyFilter.filterOutAllExcept(fields.stream()
+                        .map(ProductField::property)
+                        .collect(Collectors.toSet()))));
+        return value;
+    }
+    
     private ProductResponseDTO toResponseDTO(Product product) {
         return ProductResponseDTO.builder()
                 .id(product.getId())
@@ -1,6 +1,7 @@
 package mjyuu.vocaloidshop.controller;
 
 import lombok.RequiredArgsConstructor;
+import mjyuu.vocaloidshop.dto.UserInfoDTO;
 import mjyuu.vocaloidshop.entity.User;
 import mjyuu.vocaloidshop.repository.UserRepository;
 import org.springframework.http.ResponseEntity;
@@ -15,11 +16,11 @@ public class UserController {
     private final UserRepository userRepository;
     
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    public ResponseEntity<UserInfoDTO> getUserById(@PathVariable Long id) {
         User user = userRepository.findById(id).orElse(null);
         if (user == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(user);
+        return ResponseEntity.ok(UserInfoDTO.from(user));
     }
 }
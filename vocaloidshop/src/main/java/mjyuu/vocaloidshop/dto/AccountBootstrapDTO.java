@@ -0,0 +1,26 @@
+package mjyuu.vocaloidshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Everything the storefront needs to render for a signed-in user.
+ * Parts that failed or missed the deadline are {@code null} and named in {@code incomplete}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBootstrapDTO {
+    private UserInfoDTO profile;
+    private CartSummaryDTO cart;
+    private List<Long> wishlistProductIds;
+    private AddressResponseDTO defaultAddress;
+    private OrderSummaryDTO latestOrder;
+    private List<Long> recentlyViewedProductIds;
+    private List<String> incomplete;
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import mjyuu.vocaloidshop.entity.Address;
 
 @Data
 @Builder
@@ -21,4 +22,19 @@ public class AddressResponseDTO {
     private String country;
     private String phone;
     private Boolean isDefault;
+
+    public static AddressResponseDTO from(Address address) {
+        return AddressResponseDTO.builder()
+                .id(address.getId())
+                .recipientName(address.getRecipientName())
+                .line1(address.getLine1())
+                .line2(address.getLine2())
+                .city(address.getCity())
+                .state(address.getState())
+                .postalCode(address.getPostalCode())
+                .country(address.getCountry())
+                .phone(address.getPhone())
+                .isDefault(address.isDefault())
+                .build();
+    }
 }
@@ -0,0 +1,21 @@
+package mjyuu.vocaloidshop.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRequestDTO {
+
+    @NotEmpty(message = "At least one request is required")
+    @Valid
+    private List<BatchSubRequestDTO> requests;
+}
@@ -0,0 +1,19 @@
+package mjyuu.vocaloidshop.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSubRequestDTO {
+
+    private String id; // echoed back so the caller can match responses; defaults to the index
+
+    @NotBlank(message = "Path is required")
+    private String path; // e.g. /api/cart/1 or /api/products?page=0
+}
@@ -0,0 +1,18 @@
+package mjyuu.vocaloidshop.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSubResponseDTO {
+    private String id;
+    private String path;
+    private Integer status;
+    private JsonNode body; // the sub-response's JSON as is, or its text for other content types
+}
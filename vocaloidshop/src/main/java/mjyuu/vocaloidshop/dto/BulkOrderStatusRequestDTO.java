@@ -0,0 +1,26 @@
+package mjyuu.vocaloidshop.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import mjyuu.vocaloidshop.entity.OrderStatus;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusRequestDTO {
+
+    @NotEmpty(message = "At least one order ID is required")
+    @Size(max = 5000, message = "At most 5000 orders can be updated at once")
+    private List<Long> orderIds;
+
+    @NotNull(message = "Status is required")
+    private OrderStatus status;
+}
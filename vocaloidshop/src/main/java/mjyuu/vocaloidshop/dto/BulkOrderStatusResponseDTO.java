@@ -0,0 +1,21 @@
+package mjyuu.vocaloidshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import mjyuu.vocaloidshop.entity.OrderStatus;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusResponseDTO {
+
+    private OrderStatus status;
+    private List<Long> updatedIds;
+    private List<Long> unchangedIds; // already in the requested status
+    private List<Long> rejectedIds;  // unknown, or the transition is not allowed
+}
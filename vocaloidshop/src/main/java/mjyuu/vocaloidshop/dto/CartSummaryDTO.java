@@ -0,0 +1,16 @@
+package mjyuu.vocaloidshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSummaryDTO {
+    private Long itemCount;
+    private Long totalQuantity;
+    private Long subtotal;
+}
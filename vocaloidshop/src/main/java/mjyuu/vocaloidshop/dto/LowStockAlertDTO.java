@@ -0,0 +1,20 @@
+package mjyuu.vocaloidshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockAlertDTO {
+
+    private Long productId;
+    private Integer stock;
+    private Integer threshold;
+    private LocalDateTime detectedAt;
+}
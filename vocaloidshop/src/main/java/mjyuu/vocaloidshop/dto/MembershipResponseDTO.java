@@ -0,0 +1,17 @@
+package mjyuu.vocaloidshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MembershipResponseDTO {
+    private List<Long> productIds;
+    private int[] flags; // per product id: 1 = in wishlist, 2 = in cart, 3 = both
+}
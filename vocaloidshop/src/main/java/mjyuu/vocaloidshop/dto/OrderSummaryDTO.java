@@ -0,0 +1,20 @@
+package mjyuu.vocaloidshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import mjyuu.vocaloidshop.entity.OrderStatus;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDTO {
+    private Long id;
+    private OrderStatus status;
+    private Integer totalAmount;
+    private LocalDateTime orderedAt;
+}
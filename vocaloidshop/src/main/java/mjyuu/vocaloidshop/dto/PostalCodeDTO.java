@@ -0,0 +1,17 @@
+package mjyuu.vocaloidshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostalCodeDTO {
+    private String country;
+    private String postalCode;
+    private String city;
+    private String state;
+}
@@ -0,0 +1,52 @@
+package mjyuu.vocaloidshop.dto;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Properties of {@link ProductResponseDTO} a client can ask for with {@code fields=}.
+ */
+public enum ProductField {
+    ID("id"),
+    NAME("name"),
+    DESCRIPTION("description"),
+    PRICE("price"),
+    STOCK_QUANTITY("stockQuantity"),
+    IMAGE_URL("imageUrl"),
+    CATEGORY_ID("categoryId"),
+    CATEGORY_NAME("categoryName");
+
+    private final String property;
+
+    ProductField(String property) {
+        this.property = property;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    /**
+     * Parses a comma-separated list of property names; {@code id} is always included.
+     *
+     * @return every field when {@code fields} is null
+     * @throws IllegalArgumentException for an unknown property name
+     */
+    public static Set<ProductField> parse(String fields) {
+        if (fields == null) {
+            return EnumSet.allOf(ProductField.class);
+        }
+        Set<ProductField> parsed = EnumSet.of(ID);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (!trimmed.isEmpty()) {
+                parsed.add(Arrays.stream(values())
+                        .filter(field -> field.property.equals(trimmed))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("Unknown product field: " + trimmed)));
+            }
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,20 @@
+package mjyuu.vocaloidshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One requested id of a multi-get; {@code product} is null when {@code found} is false.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductLookupDTO {
+
+    private Long id;
+    private boolean found;
+    private ProductResponseDTO product;
+}
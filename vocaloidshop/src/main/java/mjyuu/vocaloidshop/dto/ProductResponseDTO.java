@@ -1,5 +1,6 @@
 package mjyuu.vocaloidshop.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,7 +10,14 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@JsonFilter(ProductResponseDTO.FIELDS_FILTER)
 public class ProductResponseDTO {
+    
+    /**
+     * Serializes every property unless a response narrows it to the requested {@link ProductField}s.
+     */
+    public static final String FIELDS_FILTER = "productFields";
+    
     private Long id;
     private String name;
     private String description;
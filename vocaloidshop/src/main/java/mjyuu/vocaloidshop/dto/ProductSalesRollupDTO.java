@@ -0,0 +1,20 @@
+package mjyuu.vocaloidshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesRollupDTO {
+
+    private LocalDate salesDate;
+    private Long productId;
+    private Long units;
+    private Long revenue;
+}
@@ -0,0 +1,18 @@
+package mjyuu.vocaloidshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStatsDTO {
+
+    private Long productId;
+    private String productName;
+    private Long views;
+    private Long clicks;
+}
@@ -0,0 +1,21 @@
+package mjyuu.vocaloidshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import mjyuu.vocaloidshop.entity.OrderStatus;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollupDTO {
+
+    private LocalDate salesDate;
+    private OrderStatus status;
+    private Long orderCount;
+    private Long revenue;
+}
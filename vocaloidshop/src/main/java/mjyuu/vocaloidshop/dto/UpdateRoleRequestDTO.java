@@ -0,0 +1,18 @@
+package mjyuu.vocaloidshop.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import mjyuu.vocaloidshop.entity.User.Role;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpdateRoleRequestDTO {
+
+    @NotNull(message = "Role is required")
+    private Role role;
+}
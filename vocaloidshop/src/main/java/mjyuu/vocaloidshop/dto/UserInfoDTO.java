@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import mjyuu.vocaloidshop.entity.User;
 import mjyuu.vocaloidshop.entity.User.Role;
 
 import java.time.LocalDateTime;
@@ -20,5 +21,19 @@ public class UserInfoDTO {
     private String phone;
     private String address;
     private Role role;
+    private boolean banned;
     private LocalDateTime createdAt;
+
+    public static UserInfoDTO from(User user) {
+        return UserInfoDTO.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .name(user.getName())
+                .phone(user.getPhone())
+                .address(user.getAddress())
+                .role(user.getRole())
+                .banned(user.isBanned())
+                .createdAt(user.getCreatedAt())
+                .build();
+    }
 }
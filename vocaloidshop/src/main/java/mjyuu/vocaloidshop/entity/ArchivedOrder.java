@@ -0,0 +1,53 @@
+package mjyuu.vocaloidshop.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A closed order moved out of {@code orders} by OrderArchiveService.
+ * Rows are copied column for column and keep their original id.
+ */
+@Entity
+@Table(name = "orders_archive", indexes = {
+        @Index(name = "idx_orders_archive_user_ordered_at", columnList = "user_id, ordered_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedOrder {
+
+    @Id
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "total_amount", nullable = false)
+    private Integer totalAmount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private OrderStatus status;
+
+    @Column(name = "ordered_at")
+    private LocalDateTime orderedAt;
+
+    // Shipping address fields
+    private String shipRecipientName;
+    private String shipLine1;
+    private String shipLine2;
+    private String shipCity;
+    private String shipState;
+    private String shipPostalCode;
+    private String shipCountry;
+    private String shipPhone;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,49 @@
+package mjyuu.vocaloidshop.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The stored outcome of a request sent with an {@code Idempotency-Key} header.
+ * {@code id} is a SHA-256 of the caller, method, path and key; {@code requestHash}
+ * fingerprints the body so a reused key with a different payload can be rejected.
+ *
+ * A row with status {@code 0} claims the key while its first execution runs; it gets the
+ * response once that finishes. {@code body} is {@code null} when the response was too large to
+ * keep, in which case only its status is known.
+ */
+@Entity
+@Table(name = "idempotency_records", indexes = {
+        @Index(name = "idx_idempotency_records_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(nullable = false)
+    private Integer status;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Lob
+    @Column(columnDefinition = "MEDIUMBLOB")
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,8 @@
+package mjyuu.vocaloidshop.entity;
+
+public enum InventoryMovementReason {
+    INITIAL,
+    ADJUSTMENT,
+    ORDER_PLACED,
+    ORDER_CANCELED
+}
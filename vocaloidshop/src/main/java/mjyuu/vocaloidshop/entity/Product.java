@@ -32,6 +32,10 @@ public class Product {
     
     private String imageUrl;
     
+    // null uses app.low-stock.threshold
+    @Column(name = "low_stock_threshold")
+    private Integer lowStockThreshold;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
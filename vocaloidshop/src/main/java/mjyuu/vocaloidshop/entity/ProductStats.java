@@ -0,0 +1,35 @@
+package mjyuu.vocaloidshop.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lifetime view and click counts of a product, kept apart from {@code products} so counting
+ * never locks product rows.
+ */
+@Entity
+@Table(name = "product_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductStats {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false)
+    private long views;
+
+    @Column(nullable = false)
+    private long clicks;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
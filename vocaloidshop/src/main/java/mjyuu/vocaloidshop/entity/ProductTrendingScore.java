@@ -0,0 +1,32 @@
+package mjyuu.vocaloidshop.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checkpointed trending score of a product, as it stood at {@code scoredAt}; it keeps decaying
+ * from there when loaded back.
+ */
+@Entity
+@Table(name = "product_trending_scores")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductTrendingScore {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false)
+    private double score;
+
+    @Column(name = "scored_at", nullable = false)
+    private LocalDateTime scoredAt;
+}
@@ -0,0 +1,32 @@
+package mjyuu.vocaloidshop.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last flushed snapshot of a user's recently viewed products: product ids packed as
+ * big-endian 8-byte values, most recent first.
+ */
+@Entity
+@Table(name = "recently_viewed")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecentlyViewed {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "product_ids", nullable = false, columnDefinition = "VARBINARY(800)")
+    private byte[] productIds;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,5 @@
+package mjyuu.vocaloidshop.entity;
+
+public enum RevocationReason {
+    LOGOUT, PASSWORD_CHANGE, BAN, ROLE_CHANGE, ACCOUNT_DELETED
+}
@@ -0,0 +1,6 @@
+package mjyuu.vocaloidshop.entity;
+
+public enum SpooledMailStatus {
+    PENDING,
+    FAILED
+}
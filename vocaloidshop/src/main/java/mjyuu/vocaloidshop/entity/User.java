@@ -42,6 +42,9 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private Role role = Role.USER;
     
+    @Column(nullable = false)
+    private boolean banned;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -76,7 +79,7 @@ public class User implements UserDetails {
     
     @Override
     public boolean isAccountNonLocked() {
-        return true;
+        return !banned;
     }
     
     @Override
@@ -0,0 +1,50 @@
+package mjyuu.vocaloidshop.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A wishlist notification waiting for the user's next digest email. There is at most one per
+ * user, product and kind, so repeated changes fold into a single line; rows are deleted once sent.
+ */
+@Entity
+@Table(name = "wishlist_notifications", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_wishlist_notifications_user_product_kind",
+                columnNames = {"user_id", "product_id", "kind"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WishlistNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private WishlistNotificationKind kind;
+
+    // price before the first drop this notification covers
+    @Column(name = "old_price")
+    private Integer oldPrice;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // set while a digest sender on some instance owns the row; free again once it passes
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+}
@@ -0,0 +1,5 @@
+package mjyuu.vocaloidshop.entity;
+
+public enum WishlistNotificationKind {
+    BACK_IN_STOCK, PRICE_DROP
+}
@@ -0,0 +1,11 @@
+package mjyuu.vocaloidshop.event;
+
+/**
+ * Published by InventoryService once a committed stock change takes a product from no stock to
+ * some, whatever caused it: an admin edit, a canceled order or an adjustment.
+ */
+public record BackInStockEvent(
+        Long productId,
+        int stock
+) {
+}
@@ -0,0 +1,15 @@
+package mjyuu.vocaloidshop.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by LowStockService after a committed stock change takes a product below its low-stock threshold.
+ */
+public record LowStockEvent(
+        Long productId,
+        int previousStock,
+        int stock,
+        int threshold,
+        LocalDateTime detectedAt
+) {
+}
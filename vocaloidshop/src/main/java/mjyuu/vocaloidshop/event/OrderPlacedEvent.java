@@ -0,0 +1,19 @@
+package mjyuu.vocaloidshop.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published by OrderService inside the placing transaction, once the order has an id.
+ */
+public record OrderPlacedEvent(
+        Long orderId,
+        Long userId,
+        LocalDateTime orderedAt,
+        int totalAmount,
+        List<Line> items
+) {
+
+    public record Line(Long productId, int quantity, int price) {
+    }
+}
@@ -0,0 +1,9 @@
+package mjyuu.vocaloidshop.event;
+
+import java.util.List;
+
+/**
+ * Published once per chunk by a bulk status transition, instead of one event per order.
+ */
+public record OrderStatusBatchChangedEvent(List<OrderStatusChangedEvent> changes) {
+}
@@ -0,0 +1,18 @@
+package mjyuu.vocaloidshop.event;
+
+import mjyuu.vocaloidshop.entity.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by OrderService inside the updating transaction when an order actually moves to a new status.
+ */
+public record OrderStatusChangedEvent(
+        Long orderId,
+        Long userId,
+        LocalDateTime orderedAt,
+        int totalAmount,
+        OrderStatus previousStatus,
+        OrderStatus newStatus
+) {
+}
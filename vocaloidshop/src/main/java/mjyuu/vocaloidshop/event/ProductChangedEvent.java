@@ -0,0 +1,17 @@
+package mjyuu.vocaloidshop.event;
+
+/**
+ * Published by ProductService inside the updating transaction when a product is edited.
+ * Stock that comes back is announced separately by {@link BackInStockEvent}.
+ */
+public record ProductChangedEvent(
+        Long productId,
+        int previousPrice,
+        int price,
+        int previousStock,
+        int stock
+) {
+    public boolean isPriceDrop() {
+        return price < previousPrice;
+    }
+}
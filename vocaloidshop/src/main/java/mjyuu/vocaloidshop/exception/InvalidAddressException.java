@@ -0,0 +1,10 @@
+package mjyuu.vocaloidshop.exception;
+
+/**
+ * Custom exception for addresses that fail postal-code validation (400 Bad Request)
+ */
+public class InvalidAddressException extends RuntimeException {
+    public InvalidAddressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package mjyuu.vocaloidshop.exception;
+
+/**
+ * Custom exception for shedding load when a bounded resource is saturated (503 Service Unavailable)
+ */
+public class ServiceUnavailableException extends RuntimeException {
+    private final int retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,17 @@
+package mjyuu.vocaloidshop.exception;
+
+/**
+ * Custom exception for rate-limited requests (429 Too Many Requests)
+ */
+public class TooManyRequestsException extends RuntimeException {
+    private final int retryAfterSeconds;
+
+    public TooManyRequestsException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
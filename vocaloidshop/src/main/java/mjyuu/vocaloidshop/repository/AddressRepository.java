@@ -2,6 +2,9 @@ package mjyuu.vocaloidshop.repository;
 
 import mjyuu.vocaloidshop.entity.Address;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +14,44 @@ import java.util.Optional;
 public interface AddressRepository extends JpaRepository<Address, Long> {
     List<Address> findByUserId(Long userId);
     Optional<Address> findByUserIdAndIsDefaultTrue(Long userId);
+
+    /**
+     * The user's addresses without loading the owning {@code User}, oldest first.
+     */
+    @Query("""
+            SELECT a.id AS id, a.recipientName AS recipientName, a.line1 AS line1, a.line2 AS line2,
+                   a.city AS city, a.state AS state, a.postalCode AS postalCode, a.country AS country,
+                   a.phone AS phone, a.isDefault AS isDefault
+            FROM Address a
+            WHERE a.user.id = :userId
+            ORDER BY a.id
+            """)
+    List<AddressView> findViewsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Makes {@code addressId} the user's only default address in one statement.
+     *
+     * @return 0 if the address does not belong to the user, in which case nothing changes
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            UPDATE addresses a
+            JOIN addresses target ON target.id = :addressId AND target.user_id = a.user_id
+            SET a.is_default = (a.id = :addressId)
+            WHERE a.user_id = :userId
+            """, nativeQuery = true)
+    int switchDefault(@Param("userId") Long userId, @Param("addressId") Long addressId);
+
+    interface AddressView {
+        Long getId();
+        String getRecipientName();
+        String getLine1();
+        String getLine2();
+        String getCity();
+        String getState();
+        String getPostalCode();
+        String getCountry();
+        String getPhone();
+        Boolean getIsDefault();
+    }
 }
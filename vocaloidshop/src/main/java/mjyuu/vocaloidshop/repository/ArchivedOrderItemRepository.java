@@ -0,0 +1,26 @@
+package mjyuu.vocaloidshop.repository;
+
+import mjyuu.vocaloidshop.entity.ArchivedOrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedOrderItemRepository extends JpaRepository<ArchivedOrderItem, Long> {
+
+    List<ArchivedOrderItem> findByOrderIdIn(Collection<Long> orderIds);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO order_items_archive (id, order_id, product_id, quantity, price)
+            SELECT id, order_id, product_id, quantity, price
+            FROM order_items
+            WHERE order_id IN (:orderIds)
+            """, nativeQuery = true)
+    int copyFromLive(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,40 @@
+package mjyuu.vocaloidshop.repository;
+
+import mjyuu.vocaloidshop.entity.ArchivedOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    boolean existsByUserId(Long userId);
+
+    @Query(value = """
+            SELECT * FROM orders_archive
+            WHERE user_id = :userId
+            ORDER BY ordered_at DESC, id DESC
+            LIMIT :limit OFFSET :offset
+            """, nativeQuery = true)
+    List<ArchivedOrder> findUserHistory(@Param("userId") Long userId,
+                                        @Param("offset") long offset,
+                                        @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO orders_archive (id, user_id, total_amount, status, ordered_at,
+                ship_recipient_name, ship_line1, ship_line2, ship_city, ship_state,
+                ship_postal_code, ship_country, ship_phone, archived_at)
+            SELECT id, user_id, total_amount, status, ordered_at,
+                ship_recipient_name, ship_line1, ship_line2, ship_city, ship_state,
+                ship_postal_code, ship_country, ship_phone, NOW()
+            FROM orders
+            WHERE id IN (:orderIds)
+            """, nativeQuery = true)
+    int copyFromLive(@Param("orderIds") Collection<Long> orderIds);
+}
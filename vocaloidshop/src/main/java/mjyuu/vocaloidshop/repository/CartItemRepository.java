@@ -4,6 +4,8 @@ import mjyuu.vocaloidshop.entity.CartItem;
 import mjyuu.vocaloidshop.entity.Product;
 import mjyuu.vocaloidshop.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -17,4 +19,22 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     Optional<CartItem> findByUserAndProduct(User user, Product product);
     void deleteByUserId(Long userId);
     void deleteByUser(User user);
+
+    @Query("SELECT c.product.id FROM CartItem c WHERE c.user.id = :userId")
+    List<Long> findProductIdsByUserId(@Param("userId") Long userId);
+
+    @Query("""
+            SELECT COUNT(c) AS itemCount,
+                   COALESCE(SUM(c.quantity), 0) AS totalQuantity,
+                   COALESCE(SUM(c.price * c.quantity), 0) AS subtotal
+            FROM CartItem c
+            WHERE c.user.id = :userId
+            """)
+    CartSummaryView summarizeByUserId(@Param("userId") Long userId);
+
+    interface CartSummaryView {
+        Long getItemCount();
+        Long getTotalQuantity();
+        Long getSubtotal();
+    }
 }
@@ -0,0 +1,48 @@
+package mjyuu.vocaloidshop.repository;
+
+import mjyuu.vocaloidshop.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * @return 1 if the pending row was inserted, 0 if the key already has a row
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT IGNORE INTO idempotency_records (id, request_hash, status, created_at)
+            VALUES (:id, :requestHash, 0, :now)
+            """, nativeQuery = true)
+    int insertPending(@Param("id") String id,
+                      @Param("requestHash") String requestHash,
+                      @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE IdempotencyRecord r SET r.requestHash = :requestHash, r.createdAt = :now
+            WHERE r.id = :id AND r.status = 0 AND r.createdAt < :staleBefore
+            """)
+    int takeOverPending(@Param("id") String id,
+                        @Param("requestHash") String requestHash,
+                        @Param("now") LocalDateTime now,
+                        @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.status = 0")
+    int deletePending(@Param("id") String id);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,35 @@
+package mjyuu.vocaloidshop.repository;
+
+import mjyuu.vocaloidshop.entity.InventoryMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+
+    List<InventoryMovement> findByProductIdOrderByIdDesc(Long productId, Pageable pageable);
+
+    @Query("SELECT MAX(m.id) FROM InventoryMovement m WHERE m.createdAt < :before")
+    Long findMaxIdCreatedBefore(@Param("before") LocalDateTime before);
+
+    /**
+     * Records the current stock of every product that has no ledger history yet,
+     * so products created before the ledger existed start from their stored value.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO inventory_movements (product_id, delta, reason, order_id, created_at)
+            SELECT p.id, p.stock_quantity, 'INITIAL', NULL, NOW()
+            FROM products p
+            WHERE NOT EXISTS (SELECT 1 FROM inventory_movements m WHERE m.product_id = p.id)
+              AND NOT EXISTS (SELECT 1 FROM inventory_snapshots s WHERE s.product_id = p.id)
+            """, nativeQuery = true)
+    int seedMissingProducts();
+}
@@ -0,0 +1,75 @@
+package mjyuu.vocaloidshop.repository;
+
+import mjyuu.vocaloidshop.entity.InventorySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, Long> {
+
+    /**
+     * Folds every movement with id up to {@code upToId} into the snapshot of its product.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO inventory_snapshots (product_id, quantity, last_movement_id, taken_at)
+            SELECT m.product_id, COALESCE(s.quantity, 0) + SUM(m.delta), MAX(m.id), NOW()
+            FROM inventory_movements m
+            LEFT JOIN inventory_snapshots s ON s.product_id = m.product_id
+            WHERE m.id > COALESCE(s.last_movement_id, 0) AND m.id <= :upToId
+            GROUP BY m.product_id, s.quantity
+            ON DUPLICATE KEY UPDATE
+                quantity = VALUES(quantity),
+                last_movement_id = VALUES(last_movement_id),
+                taken_at = VALUES(taken_at)
+            """, nativeQuery = true)
+    int foldMovements(@Param("upToId") long upToId);
+
+    /**
+     * Stock of every product derived from its snapshot plus the ledger tail after it, with the
+     * id of the last movement that went into it.
+     */
+    @Query(value = """
+            SELECT p.id AS productId,
+                   CAST(COALESCE(s.quantity, 0) + COALESCE((
+                       SELECT SUM(m.delta) FROM inventory_movements m
+                       WHERE m.product_id = p.id AND m.id > COALESCE(s.last_movement_id, 0)
+                   ), 0) AS SIGNED) AS quantity,
+                   COALESCE((
+                       SELECT MAX(m.id) FROM inventory_movements m WHERE m.product_id = p.id
+                   ), s.last_movement_id, 0) AS lastMovementId,
+                   p.stock_quantity AS storedQuantity
+            FROM products p
+            LEFT JOIN inventory_snapshots s ON s.product_id = p.id
+            """, nativeQuery = true)
+    List<StockLevelView> findDerivedStockLevels();
+
+    @Query(value = """
+            SELECT p.id AS productId,
+                   CAST(COALESCE(s.quantity, 0) + COALESCE((
+                       SELECT SUM(m.delta) FROM inventory_movements m
+                       WHERE m.product_id = p.id AND m.id > COALESCE(s.last_movement_id, 0)
+                   ), 0) AS SIGNED) AS quantity,
+                   COALESCE((
+                       SELECT MAX(m.id) FROM inventory_movements m WHERE m.product_id = p.id
+                   ), s.last_movement_id, 0) AS lastMovementId,
+                   p.stock_quantity AS storedQuantity
+            FROM products p
+            LEFT JOIN inventory_snapshots s ON s.product_id = p.id
+            WHERE p.id = :productId
+            """, nativeQuery = true)
+    Optional<StockLevelView> findDerivedStockLevel(@Param("productId") Long productId);
+
+    interface StockLevelView {
+        Long getProductId();
+        Long getQuantity();
+        Long getLastMovementId();
+        Integer getStoredQuantity();
+    }
+}
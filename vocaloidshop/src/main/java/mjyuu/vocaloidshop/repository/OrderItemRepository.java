@@ -2,11 +2,49 @@ package mjyuu.vocaloidshop.repository;
 
 import mjyuu.vocaloidshop.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderId(Long orderId);
+
+    @Query("SELECT oi FROM OrderItem oi JOIN FETCH oi.product WHERE oi.order.id IN :orderIds")
+    List<OrderItem> findWithProductByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM order_items WHERE order_id IN (:orderIds)", nativeQuery = true)
+    int deleteByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Highest order id in live or archived orders, 0 if there are none.
+     */
+    @Query(value = """
+            SELECT GREATEST(COALESCE((SELECT MAX(id) FROM orders), 0),
+                            COALESCE((SELECT MAX(id) FROM orders_archive), 0))
+            """, nativeQuery = true)
+    long findMaxOrderId();
+
+    /**
+     * Order and product ids of the live and archived order lines with {@code after < order_id <= upTo}, by order.
+     */
+    @Query(value = """
+            SELECT order_id AS orderId, product_id AS productId FROM (
+                SELECT order_id, product_id FROM order_items WHERE order_id > :after AND order_id <= :upTo
+                UNION ALL
+                SELECT order_id, product_id FROM order_items_archive WHERE order_id > :after AND order_id <= :upTo
+            ) order_lines
+            ORDER BY order_id
+            """, nativeQuery = true)
+    List<OrderProductView> findOrderProducts(@Param("after") long after, @Param("upTo") long upTo);
+
+    interface OrderProductView {
+        Long getOrderId();
+        Long getProductId();
+    }
 }
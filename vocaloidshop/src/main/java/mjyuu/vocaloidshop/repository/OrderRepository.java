@@ -1,15 +1,77 @@
 package mjyuu.vocaloidshop.repository;
 
+import jakarta.persistence.LockModeType;
 import mjyuu.vocaloidshop.entity.Order;
+import mjyuu.vocaloidshop.entity.OrderStatus;
 import mjyuu.vocaloidshop.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserId(Long userId);
     List<Order> findByUser(User user);
     List<Order> findByUserOrderByOrderedAtDesc(User user);
+    List<Order> findByUserIdOrderByOrderedAtDescIdDesc(Long userId, Pageable pageable);
+    long countByUserId(Long userId);
+    Optional<Order> findFirstByUserIdOrderByOrderedAtDescIdDesc(Long userId);
+
+    /**
+     * Ids of closed orders older than {@code cutoff}, lowest first, locked for the archive job.
+     */
+    @Query(value = """
+            SELECT id FROM orders
+            WHERE status IN ('DELIVERED', 'CANCELED') AND ordered_at < :cutoff
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE
+            """, nativeQuery = true)
+    List<Long> findArchivableIds(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM orders WHERE id IN (:orderIds)", nativeQuery = true)
+    int deleteByIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Locks and returns the orders of {@code ids} whose status is one of {@code statuses},
+     * or not set when {@code includeNull} is true.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT o.id AS id, o.user.id AS userId, o.orderedAt AS orderedAt,
+                   o.totalAmount AS totalAmount, o.status AS status
+            FROM Order o
+            WHERE o.id IN :ids AND (o.status IN :statuses OR (:includeNull = true AND o.status IS NULL))
+            """)
+    List<StatusView> lockByIdInAndStatusIn(@Param("ids") Collection<Long> ids,
+                                           @Param("statuses") Collection<OrderStatus> statuses,
+                                           @Param("includeNull") boolean includeNull);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Order o SET o.status = :next
+            WHERE o.id IN :ids AND (o.status IN :allowed OR (:includeNull = true AND o.status IS NULL))
+            """)
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("allowed") Collection<OrderStatus> allowed,
+                     @Param("includeNull") boolean includeNull,
+                     @Param("next") OrderStatus next);
+
+    interface StatusView {
+        Long getId();
+        Long getUserId();
+        LocalDateTime getOrderedAt();
+        Integer getTotalAmount();
+        OrderStatus getStatus();
+    }
 }
@@ -2,12 +2,36 @@ package mjyuu.vocaloidshop.repository;
 
 import mjyuu.vocaloidshop.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
     List<Product> findByCategoryId(Long categoryId);
     List<Product> findByNameContaining(String name);
+
+    @Query("SELECT p.id AS productId, p.description AS description FROM Product p WHERE p.id IN :ids")
+    List<DescriptionView> findDescriptionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.id AS productId, p.lowStockThreshold AS threshold FROM Product p WHERE p.lowStockThreshold IS NOT NULL")
+    List<ThresholdView> findLowStockThresholds();
+
+    @Modifying
+    @Query("UPDATE Product p SET p.lowStockThreshold = :threshold WHERE p.id = :productId")
+    int updateLowStockThreshold(@Param("productId") Long productId, @Param("threshold") Integer threshold);
+
+    interface DescriptionView {
+        Long getProductId();
+        String getDescription();
+    }
+
+    interface ThresholdView {
+        Long getProductId();
+        Integer getThreshold();
+    }
 }
@@ -0,0 +1,20 @@
+package mjyuu.vocaloidshop.repository;
+
+import mjyuu.vocaloidshop.dto.ProductField;
+import mjyuu.vocaloidshop.dto.ProductResponseDTO;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Selects only the columns behind {@code fields}, joining categories only when a category
+     * field is requested. Unrequested properties are left null.
+     *
+     * @param productIds products to load, or null for all products
+     * @return the products found, by id
+     */
+    List<ProductResponseDTO> findFields(Set<ProductField> fields, Collection<Long> productIds);
+}
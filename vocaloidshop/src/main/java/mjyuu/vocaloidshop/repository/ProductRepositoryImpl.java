@@ -0,0 +1,84 @@
+package mjyuu.vocaloidshop.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import mjyuu.vocaloidshop.dto.ProductField;
+import mjyuu.vocaloidshop.dto.ProductResponseDTO;
+
+import java.util.*;
+
+/**
+ * Builds the {@link ProductRepositoryCustom#findFields} select list from the requested fields,
+ * so wide columns such as {@code description} are only read when asked for.
+ */
+class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductResponseDTO> findFields(Set<ProductField> fields, Collection<Long> productIds) {
+        if (productIds != null && productIds.isEmpty()) {
+            return List.of();
+        }
+        List<ProductField> selected = new ArrayList<>(EnumSet.copyOf(fields));
+        selected.remove(ProductField.ID);
+        boolean withCategory = selected.contains(ProductField.CATEGORY_ID) || selected.contains(ProductField.CATEGORY_NAME);
+
+        StringBuilder jpql = new StringBuilder("SELECT p.id");
+        for (ProductField field : selected) {
+            jpql.append(", ").append(path(field));
+        }
+        jpql.append(" FROM Product p");
+        if (withCategory) {
+            jpql.append(" LEFT JOIN p.category c");
+        }
+        if (productIds != null) {
+            jpql.append(" WHERE p.id IN :ids");
+        }
+        jpql.append(" ORDER BY p.id");
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class);
+        if (productIds != null) {
+            query.setParameter("ids", productIds);
+        }
+        return query.getResultList().stream()
+                .map(row -> {
+                    ProductResponseDTO product = new ProductResponseDTO();
+                    product.setId(row.get(0, Long.class));
+                    for (int i = 0; i < selected.size(); i++) {
+                        set(product, selected.get(i), row.get(i + 1));
+                    }
+                    return product;
+                })
+                .toList();
+    }
+
+    private static String path(ProductField field) {
+        return switch (field) {
+            case ID -> "p.id";
+            case NAME -> "p.name";
+            case DESCRIPTION -> "p.description";
+            case PRICE -> "p.price";
+            case STOCK_QUANTITY -> "p.stockQuantity";
+            case IMAGE_URL -> "p.imageUrl";
+            case CATEGORY_ID -> "c.id";
+            case CATEGORY_NAME -> "c.name";
+        };
+    }
+
+    private static void set(ProductResponseDTO product, ProductField field, Object value) {
+        switch (field) {
+            case ID -> product.setId((Long) value);
+            case NAME -> product.setName((String) value);
+            case DESCRIPTION -> product.setDescription((String) value);
+            case PRICE -> product.setPrice((Integer) value);
+            case STOCK_QUANTITY -> product.setStockQuantity((Integer) value);
+            case IMAGE_URL -> product.setImageUrl((String) value);
+            case CATEGORY_ID -> product.setCategoryId((Long) value);
+            case CATEGORY_NAME -> product.setCategoryName((String) value);
+        }
+    }
+}
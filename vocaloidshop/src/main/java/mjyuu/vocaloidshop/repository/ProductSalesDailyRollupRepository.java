@@ -0,0 +1,68 @@
+package mjyuu.vocaloidshop.repository;
+
+import mjyuu.vocaloidshop.entity.ProductSalesDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductSalesDailyRollupRepository extends JpaRepository<ProductSalesDailyRollup, ProductSalesDailyRollup.Key> {
+
+    List<ProductSalesDailyRollup> findBySalesDateBetweenOrderBySalesDateAsc(LocalDate from, LocalDate to);
+
+    List<ProductSalesDailyRollup> findByProductIdAndSalesDateBetweenOrderBySalesDateAsc(Long productId, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO product_sales_daily_rollups (sales_date, product_id, units, revenue)
+            VALUES (:salesDate, :productId, :units, :revenue)
+            ON DUPLICATE KEY UPDATE
+                units = units + VALUES(units),
+                revenue = revenue + VALUES(revenue)
+            """, nativeQuery = true)
+    void addDelta(@Param("salesDate") LocalDate salesDate,
+                  @Param("productId") Long productId,
+                  @Param("units") long units,
+                  @Param("revenue") long revenue);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO product_sales_daily_rollups (sales_date, product_id, units, revenue)
+            SELECT DATE(o.ordered_at), oi.product_id, -SUM(oi.quantity), -SUM(oi.quantity * oi.price)
+            FROM order_items oi
+            JOIN orders o ON o.id = oi.order_id
+            WHERE oi.order_id IN (:orderIds)
+            GROUP BY DATE(o.ordered_at), oi.product_id
+            ON DUPLICATE KEY UPDATE
+                units = units + VALUES(units),
+                revenue = revenue + VALUES(revenue)
+            """, nativeQuery = true)
+    void subtractOrders(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM product_sales_daily_rollups WHERE sales_date BETWEEN :from AND :to", nativeQuery = true)
+    int deleteRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO product_sales_daily_rollups (sales_date, product_id, units, revenue)
+            SELECT DATE(l.ordered_at), l.product_id, SUM(l.quantity), SUM(l.quantity * l.price)
+            FROM (
+                SELECT o.ordered_at, o.status, oi.product_id, oi.quantity, oi.price
+                FROM order_items oi JOIN orders o ON o.id = oi.order_id
+                UNION ALL
+                SELECT o.ordered_at, o.status, oi.product_id, oi.quantity, oi.price
+                FROM order_items_archive oi JOIN orders_archive o ON o.id = oi.order_id
+            ) l
+            WHERE l.ordered_at >= :from AND l.ordered_at < :toExclusive
+              AND (l.status IS NULL OR l.status <> 'CANCELED')
+            GROUP BY DATE(l.ordered_at), l.product_id
+            """, nativeQuery = true)
+    int rebuildRange(@Param("from") LocalDate from, @Param("toExclusive") LocalDate toExclusive);
+}
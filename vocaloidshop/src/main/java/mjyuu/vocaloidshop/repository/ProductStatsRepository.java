@@ -0,0 +1,36 @@
+package mjyuu.vocaloidshop.repository;
+
+import mjyuu.vocaloidshop.entity.ProductStats;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductStatsRepository extends JpaRepository<ProductStats, Long> {
+
+    @Query("""
+            SELECT s.productId AS productId, p.name AS productName, s.views AS views, s.clicks AS clicks
+            FROM ProductStats s
+            JOIN Product p ON p.id = s.productId
+            ORDER BY s.views DESC, s.productId
+            """)
+    List<StatsView> findMostViewed(Pageable pageable);
+
+    @Query("""
+            SELECT s.productId AS productId, p.name AS productName, s.views AS views, s.clicks AS clicks
+            FROM ProductStats s
+            JOIN Product p ON p.id = s.productId
+            ORDER BY s.clicks DESC, s.productId
+            """)
+    List<StatsView> findMostClicked(Pageable pageable);
+
+    interface StatsView {
+        Long getProductId();
+        String getProductName();
+        Long getViews();
+        Long getClicks();
+    }
+}
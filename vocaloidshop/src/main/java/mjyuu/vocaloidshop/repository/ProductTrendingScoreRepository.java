@@ -0,0 +1,9 @@
+package mjyuu.vocaloidshop.repository;
+
+import mjyuu.vocaloidshop.entity.ProductTrendingScore;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProductTrendingScoreRepository extends JpaRepository<ProductTrendingScore, Long> {
+}
@@ -0,0 +1,32 @@
+package mjyuu.vocaloidshop.repository;
+
+import mjyuu.vocaloidshop.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    @Query("SELECT r.tokenKey FROM RevokedToken r WHERE r.expiresAt > :now")
+    List<String> findActiveKeys(@Param("now") LocalDateTime now);
+
+    @Query("SELECT r.tokenKey FROM RevokedToken r WHERE r.revokedAt >= :since")
+    List<String> findKeysRevokedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Latest unexpired revocation of {@code tokenKey}, empty if it is not revoked.
+     */
+    @Query("SELECT MAX(r.revokedAt) FROM RevokedToken r WHERE r.tokenKey = :tokenKey AND r.expiresAt > :now")
+    Optional<LocalDateTime> findLatestRevocation(@Param("tokenKey") String tokenKey, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,48 @@
+package mjyuu.vocaloidshop.repository;
+
+import mjyuu.vocaloidshop.entity.SalesDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SalesDailyRollupRepository extends JpaRepository<SalesDailyRollup, SalesDailyRollup.Key> {
+
+    List<SalesDailyRollup> findBySalesDateBetweenOrderBySalesDateAsc(LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO sales_daily_rollups (sales_date, status, order_count, revenue)
+            VALUES (:salesDate, :status, :orderCount, :revenue)
+            ON DUPLICATE KEY UPDATE
+                order_count = order_count + VALUES(order_count),
+                revenue = revenue + VALUES(revenue)
+            """, nativeQuery = true)
+    void addDelta(@Param("salesDate") LocalDate salesDate,
+                  @Param("status") String status,
+                  @Param("orderCount") long orderCount,
+                  @Param("revenue") long revenue);
+
+    @Modifying
+    @Query(value = "DELETE FROM sales_daily_rollups WHERE sales_date BETWEEN :from AND :to", nativeQuery = true)
+    int deleteRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO sales_daily_rollups (sales_date, status, order_count, revenue)
+            SELECT DATE(o.ordered_at), COALESCE(o.status, 'PAYMENT_RECEIVED'), COUNT(*), SUM(o.total_amount)
+            FROM (
+                SELECT ordered_at, status, total_amount FROM orders
+                UNION ALL
+                SELECT ordered_at, status, total_amount FROM orders_archive
+            ) o
+            WHERE o.ordered_at >= :from AND o.ordered_at < :toExclusive
+            GROUP BY DATE(o.ordered_at), COALESCE(o.status, 'PAYMENT_RECEIVED')
+            """, nativeQuery = true)
+    int rebuildRange(@Param("from") LocalDate from, @Param("toExclusive") LocalDate toExclusive);
+}
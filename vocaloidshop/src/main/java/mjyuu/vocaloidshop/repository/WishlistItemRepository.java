@@ -2,6 +2,8 @@ package mjyuu.vocaloidshop.repository;
 
 import mjyuu.vocaloidshop.entity.WishlistItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +14,7 @@ public interface WishlistItemRepository extends JpaRepository<WishlistItem, Long
     List<WishlistItem> findByUserId(Long userId);
     Optional<WishlistItem> findByUserIdAndProductId(Long userId, Long productId);
     void deleteByUserId(Long userId);
+
+    @Query("SELECT w.product.id FROM WishlistItem w WHERE w.user.id = :userId ORDER BY w.id DESC")
+    List<Long> findProductIdsByUserId(@Param("userId") Long userId);
 }
@@ -0,0 +1,85 @@
+package mjyuu.vocaloidshop.repository;
+
+import mjyuu.vocaloidshop.entity.WishlistNotification;
+import mjyuu.vocaloidshop.entity.WishlistNotificationKind;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WishlistNotificationRepository extends JpaRepository<WishlistNotification, Long> {
+
+    /**
+     * Queues a notification for everyone who wishlisted {@code productId} in one statement.
+     * A pending notification of the same kind keeps its original price and creation time.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO wishlist_notifications (user_id, product_id, kind, old_price, created_at)
+            SELECT w.user_id, w.product_id, :kind, :oldPrice, NOW()
+            FROM wishlist_items w
+            WHERE w.product_id = :productId
+            ON DUPLICATE KEY UPDATE old_price = old_price
+            """, nativeQuery = true)
+    int fanOut(@Param("productId") Long productId,
+               @Param("kind") String kind,
+               @Param("oldPrice") Integer oldPrice);
+
+    /**
+     * Unclaimed notifications, grouped by user, locked without waiting on rows another sender
+     * is claiming.
+     */
+    @Query(value = """
+            SELECT id AS id, user_id AS userId FROM wishlist_notifications
+            WHERE claimed_until IS NULL OR claimed_until <= :now
+            ORDER BY user_id, id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<DueView> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE WishlistNotification n SET n.claimedUntil = :leaseUntil WHERE n.id IN :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Query("""
+            SELECT n.id AS id, n.userId AS userId, u.email AS email, u.name AS userName, u.banned AS banned,
+                   n.productId AS productId, p.name AS productName, n.kind AS kind,
+                   n.oldPrice AS oldPrice, p.price AS price, p.stockQuantity AS stock
+            FROM WishlistNotification n
+            JOIN User u ON u.id = n.userId
+            JOIN Product p ON p.id = n.productId
+            WHERE n.id IN :ids
+            ORDER BY n.userId, n.id
+            """)
+    List<PendingView> findPendingByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM WishlistNotification n WHERE n.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    interface DueView {
+        Long getId();
+        Long getUserId();
+    }
+
+    interface PendingView {
+        Long getId();
+        Long getUserId();
+        String getEmail();
+        String getUserName();
+        Boolean getBanned();
+        Long getProductId();
+        String getProductName();
+        WishlistNotificationKind getKind();
+        Integer getOldPrice();
+        Integer getPrice();
+        Integer getStock();
+    }
+}
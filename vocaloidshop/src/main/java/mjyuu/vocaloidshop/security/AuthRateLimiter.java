@@ -0,0 +1,48 @@
+package mjyuu.vocaloidshop.security;
+
+import mjyuu.vocaloidshop.exception.TooManyRequestsException;
+import mjyuu.vocaloidshop.util.SketchRateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Token buckets for the login and register endpoints, one keyed by client IP and one by email.
+ * Both are checked before any user lookup or password hashing happens.
+ */
+@Component
+public class AuthRateLimiter {
+
+    private static final int SKETCH_WIDTH = 1 << 14;
+    private static final int SKETCH_DEPTH = 4;
+
+    private final SketchRateLimiter byIp;
+    private final SketchRateLimiter byEmail;
+
+    public AuthRateLimiter(@Value("${app.security.rate-limit.ip.capacity:30}") int ipCapacity,
+                           @Value("${app.security.rate-limit.ip.per-minute:30}") double ipPerMinute,
+                           @Value("${app.security.rate-limit.email.capacity:10}") int emailCapacity,
+                           @Value("${app.security.rate-limit.email.per-minute:5}") double emailPerMinute) {
+        this.byIp = new SketchRateLimiter(ipCapacity, ipPerMinute, SKETCH_WIDTH, SKETCH_DEPTH);
+        this.byEmail = new SketchRateLimiter(emailCapacity, emailPerMinute, SKETCH_WIDTH, SKETCH_DEPTH);
+    }
+
+    public boolean tryAcquireIp(String ip) {
+        return byIp.tryAcquire(ip);
+    }
+
+    public int ipRetryAfterSeconds() {
+        return byIp.retryAfterSeconds();
+    }
+
+    public void checkEmail(String email) {
+        if (email == null) {
+            return;
+        }
+        if (!byEmail.tryAcquire(email.trim().toLowerCase(Locale.ROOT))) {
+            throw new TooManyRequestsException("Too many attempts for this account, please retry later",
+                    byEmail.retryAfterSeconds());
+        }
+    }
+}
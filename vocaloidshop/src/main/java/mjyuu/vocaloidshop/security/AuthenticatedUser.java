@@ -0,0 +1,27 @@
+package mjyuu.vocaloidshop.security;
+
+import mjyuu.vocaloidshop.entity.User;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * The principal placed in the security context by JwtAuthFilter.
+ * {@link #getName()} is the email, as the plain string principal was before.
+ */
+public record AuthenticatedUser(Long id, String email, User.Role role) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public boolean isAdmin() {
+        return role == User.Role.ADMIN;
+    }
+
+    public List<SimpleGrantedAuthority> authorities() {
+        return isAdmin() ? List.of(new SimpleGrantedAuthority("ROLE_ADMIN")) : List.of();
+    }
+}
@@ -0,0 +1,72 @@
+package mjyuu.vocaloidshop.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the address of the client behind a request, for keying per-client limits.
+ *
+ * Behind a load balancer every connection comes from the balancer, so when the peer is one of
+ * {@code app.security.trusted-proxies} (addresses or CIDR ranges) the {@code X-Forwarded-For}
+ * chain is walked from the right past the trusted hops; the first untrusted hop is the client a
+ * trusted proxy saw. Entries left of it were written by the client and are ignored, as is the
+ * header on connections from anyone else.
+ */
+@Component
+public class ClientAddressResolver {
+
+    static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private final List<IpAddressMatcher> trustedProxies;
+
+    public ClientAddressResolver(@Value("${app.security.trusted-proxies:}") String trustedProxies) {
+        this.trustedProxies = StringUtils.commaDelimitedListToSet(trustedProxies).stream()
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .map(IpAddressMatcher::new)
+                .toList();
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (!isTrusted(address)) {
+            return address;
+        }
+        List<String> hops = new ArrayList<>();
+        for (String header : Collections.list(request.getHeaders(FORWARDED_FOR))) {
+            for (String hop : header.split(",")) {
+                if (!hop.isBlank()) {
+                    hops.add(hop.trim());
+                }
+            }
+        }
+        for (int i = hops.size() - 1; i >= 0; i--) {
+            address = hops.get(i);
+            if (!isTrusted(address)) {
+                return address;
+            }
+        }
+        return address;
+    }
+
+    private boolean isTrusted(String address) {
+        for (IpAddressMatcher proxy : trustedProxies) {
+            try {
+                if (proxy.matches(address)) {
+                    return true;
+                }
+            } catch (IllegalArgumentException e) {
+                // not an IP address
+                return false;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,305 @@
+package mjyuu.vocaloidshop.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import mjyuu.vocaloidshop.exception.ErrorResponse;
+import mjyuu.vocaloidshop.service.IdempotencyService;
+import mjyuu.vocaloidshop.service.IdempotencyService.StoredResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes authenticated mutating requests safe to retry. A request carrying an
+ * {@code Idempotency-Key} is executed once per caller, method and path; repeats get
+ * the stored response, and a duplicate arriving while the first is still running,
+ * on this node or another, waits for it instead of executing in parallel.
+ *
+ * The body is hashed, so it is read into memory first; bodies over
+ * {@code app.idempotency.max-request-bytes} are rejected with 413 rather than buffered.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Set<String> METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long WAIT_MILLIS = 30_000;
+    private static final long POLL_MILLIS = 200;
+
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final int maxRequestBytes;
+
+    public IdempotencyFilter(IdempotencyService idempotencyService,
+                             ObjectMapper objectMapper,
+                             @Value("${app.idempotency.max-request-bytes:1048576}") int maxRequestBytes) {
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.maxRequestBytes = maxRequestBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !METHODS.contains(request.getMethod()) || request.getHeader(HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getHeader(HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            writeError(request, response, HttpStatus.BAD_REQUEST, "Invalid Idempotency-Key header");
+            return;
+        }
+
+        // anonymous responses (login, register) carry tokens and must never be replayed to someone else
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (request.getContentLengthLong() > maxRequestBytes) {
+            writeError(request, response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body is too large");
+            return;
+        }
+        // a chunked body has no declared length, so stop reading one byte past the limit
+        byte[] body = request.getInputStream().readNBytes(maxRequestBytes + 1);
+        if (body.length > maxRequestBytes) {
+            writeError(request, response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body is too large");
+            return;
+        }
+        HttpServletRequest cachedRequest = new CachedBodyRequest(request, body);
+        String id = sha256(authentication.getName() + '\n' + request.getMethod() + '\n' + request.getRequestURI() + '\n' + key);
+        String requestHash = sha256(String.valueOf(request.getQueryString()) + '\n' + new String(body, StandardCharsets.UTF_8));
+
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (true) {
+            Optional<StoredResponse> stored = idempotencyService.find(id);
+            if (stored.isPresent()) {
+                replay(request, response, stored.get(), requestHash);
+                return;
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                writeError(request, response, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still being processed");
+                return;
+            }
+
+            CompletableFuture<StoredResponse> execution = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = idempotencyService.claim(id, execution);
+            if (running == null) {
+                if (idempotencyService.reserve(id, requestHash)) {
+                    execute(cachedRequest, response, filterChain, id, requestHash, execution);
+                    return;
+                }
+                // running on another node; local duplicates poll along with us
+                idempotencyService.release(id, execution, null);
+                sleep(Math.min(POLL_MILLIS, remaining));
+                continue;
+            }
+
+            StoredResponse outcome;
+            try {
+                outcome = running.get(remaining, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            } catch (ExecutionException e) {
+                outcome = null;
+            }
+            if (outcome != null) {
+                replay(request, response, outcome, requestHash);
+                return;
+            }
+            // the first attempt kept nothing (server error), so try again ourselves
+        }
+    }
+
+    private void execute(HttpServletRequest request,
+                         HttpServletResponse response,
+                         FilterChain filterChain,
+                         String id,
+                         String requestHash,
+                         CompletableFuture<StoredResponse> execution) throws ServletException, IOException {
+        StoredResponse outcome = null;
+        try {
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(request, wrapper);
+            if (isReplayable(wrapper.getStatus())) {
+                outcome = idempotencyService.store(id, new StoredResponse(
+                        requestHash,
+                        wrapper.getStatus(),
+                        wrapper.getContentType(),
+                        wrapper.getContentAsByteArray(),
+                        LocalDateTime.now()));
+            }
+            wrapper.copyBodyToResponse();
+        } finally {
+            if (outcome == null) {
+                idempotencyService.abandon(id);
+            }
+            idempotencyService.release(id, execution, outcome);
+        }
+    }
+
+    /**
+     * Successful and client-error outcomes are final for a given request; server errors and
+     * auth or throttling responses depend on conditions a retry is expected to change.
+     */
+    private boolean isReplayable(int status) {
+        if (status >= 500) {
+            return false;
+        }
+        return status != 401 && status != 403 && status != 408 && status != 409 && status != 429;
+    }
+
+    private void replay(HttpServletRequest request,
+                        HttpServletResponse response,
+                        StoredResponse stored,
+                        String requestHash) throws IOException {
+        if (!stored.requestHash().equals(requestHash)) {
+            writeError(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different request");
+            return;
+        }
+        if (stored.body() == null) {
+            writeError(request, response, HttpStatus.CONFLICT,
+                    "This request was already processed; its response was too large to keep");
+            return;
+        }
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void writeError(HttpServletRequest request,
+                            HttpServletResponse response,
+                            HttpStatus status,
+                            String message) throws IOException {
+        ErrorResponse error = ErrorResponse.builder()
+                .status(status.value())
+                .message(message)
+                .path(request.getRequestURI())
+                .timestamp(LocalDateTime.now())
+                .build();
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    private static void sleep(long millis) throws ServletException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException(e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Lets the body be read again by the controller after it was hashed here.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // everything is already in memory, so it is available at once
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
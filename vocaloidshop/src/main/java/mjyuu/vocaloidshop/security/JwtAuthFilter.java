@@ -7,25 +7,23 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import mjyuu.vocaloidshop.entity.User;
-import mjyuu.vocaloidshop.repository.UserRepository;
+import mjyuu.vocaloidshop.service.TokenRevocationService;
 import mjyuu.vocaloidshop.util.JwtUtil;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
     
     private final JwtUtil jwtUtil;
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
@@ -40,17 +38,20 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 Claims claims = jwtUtil.validateToken(token);
                 Long userId = claims.get("userId", Long.class);
                 String email = claims.getSubject();
+                String role = claims.get("role", String.class);
                 
-                User user = userRepository.findById(userId)
-                        .orElseThrow(() -> new RuntimeException("User not found"));
+                if (tokenRevocationService.isRevoked(claims.getId(), userId, claims.getIssuedAt())) {
+                    throw new RuntimeException("Token revoked");
+                }
                 
-                List<SimpleGrantedAuthority> authorities = new ArrayList<>();
-                if (user.isAdmin()) {
-                    authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
+                AuthenticatedUser principal = principalCache.resolve(
+                        userId, email, role != null ? User.Role.valueOf(role) : null, claims.getIssuedAt());
+                if (principal == null) {
+                    throw new RuntimeException("User not found");
                 }
                 
                 UsernamePasswordAuthenticationToken authentication = 
-                        new UsernamePasswordAuthenticationToken(email, null, authorities);
+                        new UsernamePasswordAuthenticationToken(principal, null, principal.authorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
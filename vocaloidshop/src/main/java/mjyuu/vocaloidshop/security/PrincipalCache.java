@@ -0,0 +1,74 @@
+package mjyuu.vocaloidshop.security;
+
+import mjyuu.vocaloidshop.entity.User;
+import mjyuu.vocaloidshop.repository.UserRepository;
+import mjyuu.vocaloidshop.util.AfterCommit;
+import mjyuu.vocaloidshop.util.LruCache;
+import mjyuu.vocaloidshop.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the principal of a validated token without touching the database.
+ *
+ * Tokens carry the user's role, so they are trusted as issued unless the user's role changed
+ * or the user was deleted after the token was issued. Those tokens, and legacy tokens without
+ * a role claim, are resolved from the database once and then served from a bounded TTL cache.
+ * Changes are remembered for the lifetime of a token, after which every older token has expired.
+ *
+ * That memory is per node; other nodes learn of role changes and deletions through the token
+ * revocations UserService records with them.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+    private final LruCache<Long, AuthenticatedUser> loaded;
+    private final ConcurrentHashMap<Long, Long> changedAt = new ConcurrentHashMap<>();
+
+    public PrincipalCache(UserRepository userRepository,
+                          @Value("${app.security.principal-cache.size:10000}") int size,
+                          @Value("${app.security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.loaded = new LruCache<>(size, ttlSeconds * 1000);
+    }
+
+    /**
+     * @return the principal, or {@code null} if the user no longer exists
+     */
+    public AuthenticatedUser resolve(Long userId, String email, User.Role role, Date issuedAt) {
+        Long changed = changedAt.get(userId);
+        boolean current = changed == null || (issuedAt != null && issuedAt.getTime() > changed);
+        if (role != null && current) {
+            return new AuthenticatedUser(userId, email, role);
+        }
+
+        AuthenticatedUser cached = loaded.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        AuthenticatedUser fromDb = userRepository.findById(userId)
+                .map(user -> new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole()))
+                .orElse(null);
+        if (fromDb != null) {
+            loaded.put(userId, fromDb);
+        }
+        return fromDb;
+    }
+
+    /**
+     * Call when a user's role changes or the user is deleted. Takes effect once the
+     * surrounding transaction commits, so a concurrent request cannot cache the old row.
+     */
+    public void invalidate(Long userId) {
+        AfterCommit.run(() -> {
+            changedAt.put(userId, System.currentTimeMillis());
+            loaded.invalidate(userId);
+            long expired = System.currentTimeMillis() - JwtUtil.EXPIRATION_MS;
+            changedAt.values().removeIf(time -> time < expired);
+        });
+    }
+}
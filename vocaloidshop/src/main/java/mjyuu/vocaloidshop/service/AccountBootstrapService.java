@@ -0,0 +1,156 @@
+package mjyuu.vocaloidshop.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.vocaloidshop.dto.*;
+import mjyuu.vocaloidshop.exception.ResourceNotFoundException;
+import mjyuu.vocaloidshop.repository.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Assembles {@link AccountBootstrapDTO} in one round trip.
+ *
+ * The parts are independent reads, so each runs on its own virtual thread. The whole response
+ * shares one deadline; parts still running when it passes are cancelled and reported as
+ * incomplete rather than holding up the others.
+ */
+@Slf4j
+@Service
+public class AccountBootstrapService {
+
+    private final UserRepository userRepository;
+    private final CartItemRepository cartItemRepository;
+    private final WishlistItemRepository wishlistItemRepository;
+    private final AddressRepository addressRepository;
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final RecentlyViewedService recentlyViewedService;
+    private final long deadlineMs;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public AccountBootstrapService(UserRepository userRepository,
+                                   CartItemRepository cartItemRepository,
+                                   WishlistItemRepository wishlistItemRepository,
+                                   AddressRepository addressRepository,
+                                   OrderRepository orderRepository,
+                                   ArchivedOrderRepository archivedOrderRepository,
+                                   RecentlyViewedService recentlyViewedService,
+                                   @Value("${app.me.bootstrap.deadline-ms:1500}") long deadlineMs) {
+        this.userRepository = userRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.wishlistItemRepository = wishlistItemRepository;
+        this.addressRepository = addressRepository;
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.recentlyViewedService = recentlyViewedService;
+        this.deadlineMs = deadlineMs;
+    }
+
+    public AccountBootstrapDTO bootstrap(Long userId) {
+        AccountBootstrapDTO.AccountBootstrapDTOBuilder result = AccountBootstrapDTO.builder();
+        List<Part<?>> parts = List.of(
+                new Part<>("profile", () -> loadProfile(userId), result::profile),
+                new Part<>("cart", () -> loadCart(userId), result::cart),
+                new Part<>("wishlist", () -> wishlistItemRepository.findProductIdsByUserId(userId), result::wishlistProductIds),
+                new Part<>("defaultAddress", () -> loadDefaultAddress(userId), result::defaultAddress),
+                new Part<>("latestOrder", () -> loadLatestOrder(userId), result::latestOrder),
+                new Part<>("recentlyViewed", () -> recentlyViewedService.getRecentlyViewed(userId), result::recentlyViewedProductIds));
+
+        List<Callable<Object>> tasks = new ArrayList<>(parts.size());
+        for (Part<?> part : parts) {
+            tasks.add(part.loader()::call);
+        }
+
+        List<Future<Object>> futures;
+        try {
+            // cancels, and interrupts, whatever has not finished by the deadline
+            futures = executor.invokeAll(tasks, deadlineMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading account");
+        }
+
+        List<String> incomplete = new ArrayList<>();
+        for (int i = 0; i < parts.size(); i++) {
+            Part<?> part = parts.get(i);
+            Future<Object> future = futures.get(i);
+            if (future.isCancelled()) {
+                log.warn("Bootstrap part {} for user {} missed the {} ms deadline", part.name(), userId, deadlineMs);
+                incomplete.add(part.name());
+                continue;
+            }
+            try {
+                part.accept(future.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof ResourceNotFoundException notFound) {
+                    throw notFound;
+                }
+                log.warn("Bootstrap part {} for user {} failed", part.name(), userId, e.getCause());
+                incomplete.add(part.name());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                incomplete.add(part.name());
+            }
+        }
+        return result.incomplete(incomplete).build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private UserInfoDTO loadProfile(Long userId) {
+        return userRepository.findById(userId)
+                .map(UserInfoDTO::from)
+                .orElseThrow(() -> new ResourceNotFoundException("User", userId));
+    }
+
+    private CartSummaryDTO loadCart(Long userId) {
+        CartItemRepository.CartSummaryView summary = cartItemRepository.summarizeByUserId(userId);
+        return CartSummaryDTO.builder()
+                .itemCount(summary.getItemCount())
+                .totalQuantity(summary.getTotalQuantity())
+                .subtotal(summary.getSubtotal())
+                .build();
+    }
+
+    private AddressResponseDTO loadDefaultAddress(Long userId) {
+        return addressRepository.findByUserIdAndIsDefaultTrue(userId)
+                .map(AddressResponseDTO::from)
+                .orElse(null);
+    }
+
+    private OrderSummaryDTO loadLatestOrder(Long userId) {
+        return orderRepository.findFirstByUserIdOrderByOrderedAtDescIdDesc(userId)
+                .map(order -> OrderSummaryDTO.builder()
+                        .id(order.getId())
+                        .status(order.getStatus())
+                        .totalAmount(order.getTotalAmount())
+                        .orderedAt(order.getOrderedAt())
+                        .build())
+                // every live order may already have been archived
+                .orElseGet(() -> archivedOrderRepository.findUserHistory(userId, 0, 1).stream()
+                        .findFirst()
+                        .map(order -> OrderSummaryDTO.builder()
+                                .id(order.getId())
+                                .status(order.getStatus())
+                                .totalAmount(order.getTotalAmount())
+                                .orderedAt(order.getOrderedAt())
+                                .build())
+                        .orElse(null));
+    }
+
+    private record Part<T>(String name, Callable<T> loader, Consumer<T> sink) {
+        @SuppressWarnings("unchecked")
+        void accept(Object value) {
+            sink.accept((T) value);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package mjyuu.vocaloidshop.service;
+
+import mjyuu.vocaloidshop.repository.AddressRepository;
+import mjyuu.vocaloidshop.repository.AddressRepository.AddressView;
+import mjyuu.vocaloidshop.util.VersionedLruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Small per-user cache of address books, read by checkout instead of loading the
+ * {@code Address} entity and its owner on every order.
+ *
+ * {@link AddressService} and {@link UserService} call {@link #invalidate} when a user's
+ * addresses change.
+ */
+@Service
+public class AddressBookCache {
+
+    private final AddressRepository addressRepository;
+    private final VersionedLruCache<List<AddressView>> cache;
+
+    public AddressBookCache(AddressRepository addressRepository,
+                            @Value("${app.address-book.cache-size:10000}") int cacheSize,
+                            @Value("${app.address-book.ttl-seconds:300}") long ttlSeconds) {
+        this.addressRepository = addressRepository;
+        this.cache = new VersionedLruCache<>(cacheSize, ttlSeconds * 1000);
+    }
+
+    public List<AddressView> getAddressBook(Long userId) {
+        return cache.load(userId, id -> List.copyOf(addressRepository.findViewsByUserId(id)));
+    }
+
+    /**
+     * @return the address, if it exists and belongs to the user
+     */
+    public Optional<AddressView> findAddress(Long userId, Long addressId) {
+        return getAddressBook(userId).stream()
+                .filter(address -> address.getId().equals(addressId))
+                .findFirst();
+    }
+
+    /**
+     * Call from any method that changes a user's addresses. Takes effect once the surrounding
+     * transaction commits.
+     */
+    public void invalidate(Long userId) {
+        cache.invalidateAfterCommit(userId);
+    }
+}
@@ -17,23 +17,15 @@ public class AddressService {
 
     private final AddressRepository addressRepository;
     private final UserRepository userRepository;
+    private final AddressBookCache addressBookCache;
+    private final PostalCodeService postalCodeService;
 
     @Transactional
     public Address createAddress(Long userId, AddressRequestDTO request) {
+        postalCodeService.validate(request);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // If this address is set as default, unset other default addresses
-        if (Boolean.TRUE.equals(request.getIsDefault())) {
-            List<Address> existingAddresses = addressRepository.findByUserId(userId);
-            existingAddresses.forEach(addr -> {
-                if (addr.isDefault()) {
-                    addr.setDefault(false);
-                }
-            });
-            addressRepository.saveAll(existingAddresses);
-        }
-
         Address address = Address.builder()
                 .user(user)
                 .recipientName(request.getRecipientName())
@@ -47,7 +39,13 @@ public class AddressService {
                 .isDefault(request.getIsDefault() != null ? request.getIsDefault() : false)
                 .build();
 
-        return addressRepository.save(address);
+        Address saved = addressRepository.save(address);
+        // If this address is set as default, unset other default addresses
+        if (saved.isDefault()) {
+            addressRepository.switchDefault(userId, saved.getId());
+        }
+        addressBookCache.invalidate(userId);
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -63,19 +61,12 @@ public class AddressService {
 
     @Transactional
     public Address updateAddress(Long addressId, AddressRequestDTO request) {
+        postalCodeService.validate(request);
         Address address = addressRepository.findById(addressId)
                 .orElseThrow(() -> new RuntimeException("Address not found"));
 
-        // If setting as default, unset other default addresses for this user
-        if (Boolean.TRUE.equals(request.getIsDefault()) && !address.isDefault()) {
-            List<Address> existingAddresses = addressRepository.findByUserId(address.getUser().getId());
-            existingAddresses.forEach(addr -> {
-                if (!addr.getId().equals(addressId) && addr.isDefault()) {
-                    addr.setDefault(false);
-                }
-            });
-            addressRepository.saveAll(existingAddresses);
-        }
+        Long userId = address.getUser().getId();
+        boolean becomesDefault = Boolean.TRUE.equals(request.getIsDefault()) && !address.isDefault();
 
         address.setRecipientName(request.getRecipientName());
         address.setLine1(request.getLine1());
@@ -87,7 +78,13 @@ public class AddressService {
         address.setPhone(request.getPhone());
         address.setDefault(request.getIsDefault() != null ? request.getIsDefault() : false);
 
-        return addressRepository.save(address);
+        Address saved = addressRepository.save(address);
+        // If setting as default, unset other default addresses for this user
+        if (becomesDefault) {
+            addressRepository.switchDefault(userId, addressId);
+        }
+        addressBookCache.invalidate(userId);
+        return saved;
     }
 
     @Transactional
@@ -95,28 +92,18 @@ public class AddressService {
         Address address = addressRepository.findById(addressId)
                 .orElseThrow(() -> new RuntimeException("Address not found"));
         addressRepository.delete(address);
+        addressBookCache.invalidate(address.getUser().getId());
     }
 
     @Transactional
     public void setDefaultAddress(Long userId, Long addressId) {
-        // Unset all default addresses for this user
-        List<Address> addresses = addressRepository.findByUserId(userId);
-        addresses.forEach(addr -> {
-            if (addr.isDefault()) {
-                addr.setDefault(false);
+        // Set the specified address as default and unset all others in one statement
+        if (addressRepository.switchDefault(userId, addressId) == 0) {
+            if (!addressRepository.existsById(addressId)) {
+                throw new RuntimeException("Address not found");
             }
-        });
-        addressRepository.saveAll(addresses);
-
-        // Set the specified address as default
-        Address address = addressRepository.findById(addressId)
-                .orElseThrow(() -> new RuntimeException("Address not found"));
-        
-        if (!address.getUser().getId().equals(userId)) {
             throw new RuntimeException("Address does not belong to this user");
         }
-        
-        address.setDefault(true);
-        addressRepository.save(address);
+        addressBookCache.invalidate(userId);
     }
 }
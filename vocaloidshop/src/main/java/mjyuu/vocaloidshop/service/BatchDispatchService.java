@@ -0,0 +1,685 @@
+package mjyuu.vocaloidshop.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletMapping;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import jakarta.servlet.http.HttpSession;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.vocaloidshop.dto.BatchResponseDTO;
+import mjyuu.vocaloidshop.dto.BatchSubRequestDTO;
+import mjyuu.vocaloidshop.dto.BatchSubResponseDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.WebInvocationPrivilegeEvaluator;
+import org.springframework.stereotype.Service;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.io.*;
+import java.lang.reflect.Proxy;
+import java.security.Principal;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Serves a batch of GET sub-requests in-process.
+ *
+ * The batch request went through the security filter chain once; each sub-request is then
+ * checked against the same URL authorization rules and handed straight to the
+ * {@link DispatcherServlet} on a virtual thread, with the caller's security context, a private
+ * request built from a snapshot of the batch request and a buffered response. Neither touches
+ * the container's request or response, which are not safe to share between threads. At most
+ * {@code max-concurrency} sub-requests of a batch run at a time, so one batch cannot claim the
+ * whole connection pool, and parts still running after {@code timeout-ms} are reported as 504.
+ */
+@Slf4j
+@Service
+public class BatchDispatchService {
+
+    private static final String API_PREFIX = "/api/";
+    private static final String BATCH_PATH = "/api/batch";
+
+    private final DispatcherServlet dispatcherServlet;
+    private final WebInvocationPrivilegeEvaluator privilegeEvaluator;
+    private final ObjectMapper objectMapper;
+    private final int maxRequests;
+    private final int maxConcurrency;
+    private final long timeoutMillis;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public BatchDispatchService(DispatcherServlet dispatcherServlet,
+                                WebInvocationPrivilegeEvaluator privilegeEvaluator,
+                                ObjectMapper objectMapper,
+                                @Value("${app.batch.max-requests:20}") int maxRequests,
+                                @Value("${app.batch.max-concurrency:4}") int maxConcurrency,
+                                @Value("${app.batch.timeout-ms:10000}") long timeoutMillis) {
+        this.dispatcherServlet = dispatcherServlet;
+        this.privilegeEvaluator = privilegeEvaluator;
+        this.objectMapper = objectMapper;
+        this.maxRequests = maxRequests;
+        this.maxConcurrency = maxConcurrency;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public BatchResponseDTO dispatch(HttpServletRequest request, List<BatchSubRequestDTO> subRequests) {
+        if (subRequests.size() > maxRequests) {
+            throw new IllegalArgumentException("At most " + maxRequests + " requests can be batched");
+        }
+
+        SecurityContext context = SecurityContextHolder.getContext();
+        Authentication authentication = context.getAuthentication();
+        Semaphore permits = new Semaphore(maxConcurrency);
+
+        BatchSubResponseDTO[] results = new BatchSubResponseDTO[subRequests.size()];
+        List<Integer> dispatched = new ArrayList<>();
+        List<Callable<BatchSubResponseDTO>> tasks = new ArrayList<>();
+        for (int i = 0; i < subRequests.size(); i++) {
+            BatchSubRequestDTO subRequest = subRequests.get(i);
+            String id = subRequest.getId() != null ? subRequest.getId() : String.valueOf(i);
+            String path = subRequest.getPath();
+
+            SubRequest copy;
+            try {
+                copy = new SubRequest(request, path);
+            } catch (IllegalArgumentException e) {
+                results[i] = part(id, path, HttpServletResponse.SC_BAD_REQUEST, TextNode.valueOf(e.getMessage()));
+                continue;
+            }
+            if (!privilegeEvaluator.isAllowed(request.getContextPath(), path, "GET", authentication)) {
+                results[i] = part(id, path, authentication == null
+                        ? HttpServletResponse.SC_UNAUTHORIZED : HttpServletResponse.SC_FORBIDDEN, null);
+                continue;
+            }
+            dispatched.add(i);
+            tasks.add(new DelegatingSecurityContextCallable<>(() -> execute(id, path, copy, permits), context));
+        }
+
+        List<Future<BatchSubResponseDTO>> futures;
+        try {
+            // unfinished parts are cancelled at the deadline
+            futures = executor.invokeAll(tasks, timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while serving batch");
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            int index = dispatched.get(i);
+            Future<BatchSubResponseDTO> future = futures.get(i);
+            results[index] = future.isCancelled()
+                    ? part(idOf(subRequests.get(index), index), subRequests.get(index).getPath(),
+                            HttpServletResponse.SC_GATEWAY_TIMEOUT, null)
+                    : future.resultNow();
+        }
+        return BatchResponseDTO.builder()
+                .responses(Arrays.asList(results))
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private BatchSubResponseDTO execute(String id, String path, SubRequest request, Semaphore permits) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return part(id, path, HttpServletResponse.SC_GATEWAY_TIMEOUT, null);
+        }
+        try {
+            BufferedResponse response = new BufferedResponse();
+            dispatcherServlet.service(request, response);
+            return part(id, path, response.getStatus(), body(response));
+        } catch (Exception e) {
+            log.warn("Batched request {} failed", path, e);
+            return part(id, path, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, null);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private JsonNode body(BufferedResponse response) throws IOException {
+        byte[] bytes = response.getBody();
+        if (bytes.length == 0) {
+            return null;
+        }
+        String contentType = response.getContentType();
+        if (contentType != null && MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_JSON)) {
+            return objectMapper.readTree(bytes);
+        }
+        return TextNode.valueOf(new String(bytes, response.charset()));
+    }
+
+    private static String idOf(BatchSubRequestDTO subRequest, int index) {
+        return subRequest.getId() != null ? subRequest.getId() : String.valueOf(index);
+    }
+
+    private static BatchSubResponseDTO part(String id, String path, int status, JsonNode body) {
+        return BatchSubResponseDTO.builder()
+                .id(id)
+                .path(path)
+                .status(status)
+                .body(body)
+                .build();
+    }
+
+    /**
+     * Stands in for the container's request or response beneath the wrappers below, so that a
+     * method they do not override fails loudly instead of reaching a shared container object.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T detached(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "detached " + type.getSimpleName();
+            default -> throw new IllegalStateException(method.getName() + " is not available to a batched request");
+        });
+    }
+
+    /**
+     * A GET for {@code path} carrying the batch request's headers and connection details, all
+     * copied when it is created; attributes and parameters are private to the sub-request.
+     */
+    static class SubRequest extends HttpServletRequestWrapper {
+
+        private final String contextPath;
+        private final String path;
+        private final String queryString;
+        private final String requestUrl;
+        private final Map<String, String[]> parameters;
+        private final HttpHeaders headers = new HttpHeaders();
+        private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+        private final List<Locale> locales;
+        private final ServletContext servletContext;
+        private final HttpServletMapping mapping;
+        private final String scheme;
+        private final String serverName;
+        private final int serverPort;
+        private final String remoteAddr;
+
+        SubRequest(HttpServletRequest parent, String path) {
+            super(detached(HttpServletRequest.class));
+            URI uri = parse(path);
+            this.contextPath = parent.getContextPath();
+            this.path = uri.getRawPath();
+            this.queryString = uri.getRawQuery();
+            this.parameters = parseQuery(queryString);
+
+            String parentUrl = parent.getRequestURL().toString();
+            String base = parentUrl.substring(0, parentUrl.length() - parent.getRequestURI().length());
+            this.requestUrl = base + contextPath + this.path;
+
+            for (String name : Collections.list(parent.getHeaderNames())) {
+                if (!name.equalsIgnoreCase(HttpHeaders.CONTENT_TYPE) && !name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)) {
+                    headers.put(name, Collections.list(parent.getHeaders(name)));
+                }
+            }
+            this.locales = Collections.list(parent.getLocales());
+            this.servletContext = parent.getServletContext();
+            this.mapping = parent.getHttpServletMapping();
+            this.scheme = parent.getScheme();
+            this.serverName = parent.getServerName();
+            this.serverPort = parent.getServerPort();
+            this.remoteAddr = parent.getRemoteAddr();
+        }
+
+        private static URI parse(String path) {
+            URI uri;
+            try {
+                uri = new URI(path);
+            } catch (URISyntaxException e) {
+                throw new IllegalArgumentException("Invalid path: " + path);
+            }
+            String rawPath = uri.getRawPath();
+            if (uri.getScheme() != null || uri.getRawAuthority() != null || uri.getRawFragment() != null
+                    || rawPath == null || !rawPath.startsWith(API_PREFIX) || rawPath.startsWith(BATCH_PATH)
+                    || rawPath.contains("..") || rawPath.contains("//") || rawPath.contains("%")) {
+                throw new IllegalArgumentException("Only plain /api/ paths can be batched: " + path);
+            }
+            return uri;
+        }
+
+        private static Map<String, String[]> parseQuery(String query) {
+            Map<String, List<String>> values = new LinkedHashMap<>();
+            if (query != null && !query.isEmpty()) {
+                for (String pair : query.split("&")) {
+                    if (pair.isEmpty()) {
+                        continue;
+                    }
+                    int eq = pair.indexOf('=');
+                    String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+                    String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+                    values.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+                }
+            }
+            Map<String, String[]> parameters = new LinkedHashMap<>();
+            values.forEach((name, list) -> parameters.put(name, list.toArray(String[]::new)));
+            return Collections.unmodifiableMap(parameters);
+        }
+
+        @Override
+        public String getMethod() {
+            return "GET";
+        }
+
+        @Override
+        public DispatcherType getDispatcherType() {
+            return DispatcherType.REQUEST;
+        }
+
+        @Override
+        public ServletContext getServletContext() {
+            return servletContext;
+        }
+
+        @Override
+        public HttpServletMapping getHttpServletMapping() {
+            return mapping;
+        }
+
+        @Override
+        public String getContextPath() {
+            return contextPath;
+        }
+
+        @Override
+        public String getRequestURI() {
+            return contextPath + path;
+        }
+
+        @Override
+        public StringBuffer getRequestURL() {
+            return new StringBuffer(requestUrl);
+        }
+
+        @Override
+        public String getServletPath() {
+            return URLDecoder.decode(path, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String getPathInfo() {
+            return null;
+        }
+
+        @Override
+        public String getQueryString() {
+            return queryString;
+        }
+
+        @Override
+        public String getParameter(String name) {
+            String[] values = parameters.get(name);
+            return values != null ? values[0] : null;
+        }
+
+        @Override
+        public Map<String, String[]> getParameterMap() {
+            return parameters;
+        }
+
+        @Override
+        public Enumeration<String> getParameterNames() {
+            return Collections.enumeration(parameters.keySet());
+        }
+
+        @Override
+        public String[] getParameterValues(String name) {
+            String[] values = parameters.get(name);
+            return values != null ? values.clone() : null;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return headers.getFirst(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return Collections.enumeration(headers.getOrEmpty(name));
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(headers.keySet());
+        }
+
+        @Override
+        public long getDateHeader(String name) {
+            return headers.getFirstDate(name);
+        }
+
+        @Override
+        public String getCharacterEncoding() {
+            return null;
+        }
+
+        @Override
+        public String getContentType() {
+            return null;
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return true;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // a GET has no body, so all of it has been read already
+                    try {
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return -1;
+                }
+            };
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return attributes.get(name);
+        }
+
+        @Override
+        public Enumeration<String> getAttributeNames() {
+            return Collections.enumeration(attributes.keySet());
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+            if (value == null) {
+                attributes.remove(name);
+            } else {
+                attributes.put(name, value);
+            }
+        }
+
+        @Override
+        public void removeAttribute(String name) {
+            attributes.remove(name);
+        }
+
+        @Override
+        public Locale getLocale() {
+            return locales.isEmpty() ? Locale.getDefault() : locales.get(0);
+        }
+
+        @Override
+        public Enumeration<Locale> getLocales() {
+            return Collections.enumeration(locales.isEmpty() ? List.of(Locale.getDefault()) : locales);
+        }
+
+        @Override
+        public Principal getUserPrincipal() {
+            return SecurityContextHolder.getContext().getAuthentication();
+        }
+
+        @Override
+        public HttpSession getSession(boolean create) {
+            // the API is stateless
+            if (create) {
+                throw new IllegalStateException("Batched requests cannot create a session");
+            }
+            return null;
+        }
+
+        @Override
+        public String getScheme() {
+            return scheme;
+        }
+
+        @Override
+        public String getServerName() {
+            return serverName;
+        }
+
+        @Override
+        public int getServerPort() {
+            return serverPort;
+        }
+
+        @Override
+        public boolean isSecure() {
+            return "https".equals(scheme);
+        }
+
+        @Override
+        public String getRemoteAddr() {
+            return remoteAddr;
+        }
+
+        @Override
+        public boolean isAsyncSupported() {
+            return false;
+        }
+
+        @Override
+        public boolean isAsyncStarted() {
+            return false;
+        }
+    }
+
+    /**
+     * Collects status, headers and body in memory; the batch response carries them later.
+     */
+    static class BufferedResponse extends HttpServletResponseWrapper {
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final HttpHeaders headers = new HttpHeaders();
+        private int status = HttpServletResponse.SC_OK;
+        private String characterEncoding;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        BufferedResponse() {
+            super(detached(HttpServletResponse.class));
+        }
+
+        byte[] getBody() {
+            flushBuffer();
+            return body.toByteArray();
+        }
+
+        Charset charset() {
+            return characterEncoding != null ? Charset.forName(characterEncoding) : StandardCharsets.UTF_8;
+        }
+
+        @Override
+        public int getStatus() {
+            return status;
+        }
+
+        @Override
+        public void setStatus(int status) {
+            this.status = status;
+        }
+
+        @Override
+        public void sendError(int status) {
+            this.status = status;
+        }
+
+        @Override
+        public void sendError(int status, String message) {
+            this.status = status;
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (name.equalsIgnoreCase(HttpHeaders.CONTENT_TYPE)) {
+                setContentType(value);
+            } else if (value == null) {
+                headers.remove(name);
+            } else {
+                headers.set(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (name.equalsIgnoreCase(HttpHeaders.CONTENT_TYPE)) {
+                setContentType(value);
+            } else {
+                headers.add(name, value);
+            }
+        }
+
+        @Override
+        public boolean containsHeader(String name) {
+            return headers.containsKey(name);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return headers.getFirst(name);
+        }
+
+        @Override
+        public Collection<String> getHeaders(String name) {
+            return headers.getOrEmpty(name);
+        }
+
+        @Override
+        public Collection<String> getHeaderNames() {
+            return headers.keySet();
+        }
+
+        @Override
+        public String getContentType() {
+            return headers.getFirst(HttpHeaders.CONTENT_TYPE);
+        }
+
+        @Override
+        public void setContentType(String type) {
+            if (type == null) {
+                headers.remove(HttpHeaders.CONTENT_TYPE);
+                return;
+            }
+            headers.set(HttpHeaders.CONTENT_TYPE, type);
+            MediaType mediaType = MediaType.parseMediaType(type);
+            if (mediaType.getCharset() != null) {
+                this.characterEncoding = mediaType.getCharset().name();
+            }
+        }
+
+        @Override
+        public String getCharacterEncoding() {
+            return charset().name();
+        }
+
+        @Override
+        public void setCharacterEncoding(String charset) {
+            this.characterEncoding = charset;
+        }
+
+        @Override
+        public void setContentLength(int length) {
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (outputStream == null) {
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        // writes go to memory and never block
+                        try {
+                            listener.onWritePossible();
+                        } catch (IOException e) {
+                            listener.onError(e);
+                        }
+                    }
+
+                    @Override
+                    public void write(int b) {
+                        body.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) {
+                        body.write(b, off, len);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(body, charset()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+
+        @Override
+        public boolean isCommitted() {
+            return false;
+        }
+
+        @Override
+        public void resetBuffer() {
+            flushBuffer();
+            body.reset();
+        }
+    }
+}
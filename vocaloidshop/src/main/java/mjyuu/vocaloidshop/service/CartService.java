@@ -22,6 +22,8 @@ public class CartService {
     private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final MembershipService membershipService;
+    private final TrendingService trendingService;
 
     @Transactional
     public CartItem addToCart(Long userId, AddToCartRequestDTO request) {
@@ -31,6 +33,8 @@ public class CartService {
         Product product = productRepository.findById(request.getProductId())
                 .orElseThrow(() -> new ResourceNotFoundException("Product", request.getProductId()));
 
+        trendingService.recordCartAdd(product.getId(), request.getQuantity());
+
         // Check if product already in cart
         Optional<CartItem> existingItem = cartItemRepository.findByUserAndProduct(user, product);
 
@@ -47,7 +51,9 @@ public class CartService {
                     .quantity(request.getQuantity())
                     .price(product.getPrice())
                     .build();
-            return cartItemRepository.save(newItem);
+            CartItem saved = cartItemRepository.save(newItem);
+            membershipService.invalidate(userId);
+            return saved;
         }
     }
 
@@ -65,6 +71,7 @@ public class CartService {
         
         if (quantity <= 0) {
             cartItemRepository.delete(cartItem);
+            membershipService.invalidate(cartItem.getUser().getId());
         } else {
             cartItem.setQuantity(quantity);
             cartItemRepository.save(cartItem);
@@ -76,6 +83,7 @@ public class CartService {
         CartItem cartItem = cartItemRepository.findById(cartItemId)
                 .orElseThrow(() -> new ResourceNotFoundException("CartItem", cartItemId));
         cartItemRepository.delete(cartItem);
+        membershipService.invalidate(cartItem.getUser().getId());
     }
 
     @Transactional
@@ -83,6 +91,7 @@ public class CartService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         cartItemRepository.deleteByUser(user);
+        membershipService.invalidate(userId);
     }
 
     @Transactional(readOnly = true)
@@ -14,6 +14,7 @@ import java.util.List;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ProductCache productCache;
 
     @Transactional
     public Category createCategory(CategoryRequestDTO request) {
@@ -56,6 +57,7 @@ public class CategoryService {
 
         category.setName(request.getName());
         category.setDescription(request.getDescription());
+        productCache.invalidateCategory(categoryId);
 
         return categoryRepository.save(category);
     }
@@ -2,45 +2,41 @@ package mjyuu.vocaloidshop.service;
 
 import lombok.RequiredArgsConstructor;
 import mjyuu.vocaloidshop.dto.ContactRequestDTO;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 public class ContactService {
 
-    private final JavaMailSender mailSender;
+    private final MailSpoolService mailSpoolService;
 
+    /**
+     * Spools the message to support and a confirmation to the sender; both go out in the background.
+     */
+    @Transactional
     public void sendContactEmail(ContactRequestDTO request) {
-        try {
-            // Send email to admin/support
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(request.getEmail());
-            message.setTo("support@vocalocart.com"); // Change to your support email
-            message.setSubject("Contact Form: " + request.getSubject());
-            message.setText(String.format(
-                    "Name: %s\nEmail: %s\n\nMessage:\n%s",
-                    request.getName(),
-                    request.getEmail(),
-                    request.getMessage()
-            ));
-
-            mailSender.send(message);
-
-            // Send confirmation email to user
-            SimpleMailMessage confirmation = new SimpleMailMessage();
-            confirmation.setTo(request.getEmail());
-            confirmation.setSubject("We received your message - VocaloCart");
-            confirmation.setText(String.format(
-                    "Dear %s,\n\nThank you for contacting us. We have received your message and will get back to you soon.\n\nBest regards,\nVocaloCart Team",
-                    request.getName()
-            ));
-
-            mailSender.send(confirmation);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to send email: " + e.getMessage());
-        }
+        // Send email to admin/support
+        mailSpoolService.enqueue(
+                request.getEmail(),
+                "support@vocalocart.com", // Change to your support email
+                "Contact Form: " + request.getSubject(),
+                String.format(
+                        "Name: %s\nEmail: %s\n\nMessage:\n%s",
+                        request.getName(),
+                        request.getEmail(),
+                        request.getMessage()
+                ));
+
+        // Send confirmation email to user
+        mailSpoolService.enqueue(
+                null,
+                request.getEmail(),
+                "We received your message - VocaloCart",
+                String.format(
+                        "Dear %s,\n\nThank you for contacting us. We have received your message and will get back to you soon.\n\nBest regards,\nVocaloCart Team",
+                        request.getName()
+                ));
     }
 
     public void validateContactRequest(ContactRequestDTO request) {
@@ -0,0 +1,155 @@
+package mjyuu.vocaloidshop.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.vocaloidshop.exception.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process fan-out of server-sent events to the connections subscribed to a topic.
+ *
+ * Every connection gets a bounded buffer and its own writer on a virtual thread, so publishing
+ * only offers to buffers and never waits on a client's socket, and an idle connection costs a
+ * parked virtual thread rather than a platform one. A connection whose buffer is full has fallen
+ * too far behind and is closed; clients reconnect and reload current state. Heartbeat comments
+ * keep proxies from timing out idle connections and find dead ones.
+ *
+ * Only connections to this instance are reached; events published on another instance are not.
+ */
+@Slf4j
+@Service
+public class EventStreamHub {
+
+    private static final int RETRY_AFTER_SECONDS = 5;
+    private static final Message CLOSE = new Message(null, null);
+    private static final Message HEARTBEAT = new Message(null, null);
+
+    private final ConcurrentHashMap<String, Set<Connection>> topics = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final int bufferSize;
+    private final int maxConnections;
+    private final long timeoutMillis;
+
+    public EventStreamHub(@Value("${app.sse.buffer-size:32}") int bufferSize,
+                          @Value("${app.sse.max-connections:20000}") int maxConnections,
+                          @Value("${app.sse.timeout-ms:1800000}") long timeoutMillis) {
+        this.bufferSize = bufferSize;
+        this.maxConnections = maxConnections;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Opens a connection to {@code topic}; the returned emitter is the response body.
+     *
+     * @throws ServiceUnavailableException if this instance already holds the maximum number of connections
+     */
+    public SseEmitter subscribe(String topic) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new ServiceUnavailableException("Too many open event streams, please retry", RETRY_AFTER_SECONDS);
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Connection connection = new Connection(topic, emitter, new ArrayBlockingQueue<>(bufferSize));
+        topics.compute(topic, (key, subscribers) -> {
+            Set<Connection> current = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            current.add(connection);
+            return current;
+        });
+        // sends the response headers right away rather than with the first event
+        connection.buffer().offer(HEARTBEAT);
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(e -> remove(connection));
+        Thread.ofVirtual().name("sse-" + topic).start(() -> write(connection));
+        return emitter;
+    }
+
+    /**
+     * Queues an event for every connection subscribed to {@code topic}.
+     */
+    public void publish(String topic, String name, Object data) {
+        Set<Connection> subscribers = topics.get(topic);
+        if (subscribers == null) {
+            return;
+        }
+        Message message = new Message(name, data);
+        for (Connection connection : subscribers) {
+            if (!connection.buffer().offer(message)) {
+                log.debug("Event stream on {} fell behind; closing it", topic);
+                remove(connection);
+            }
+        }
+    }
+
+    public int connectionCount() {
+        return connections.get();
+    }
+
+    @Scheduled(fixedDelayString = "${app.sse.heartbeat-ms:15000}")
+    public void heartbeat() {
+        topics.values().forEach(subscribers -> subscribers.forEach(connection -> {
+            // a full buffer already has events on the way
+            connection.buffer().offer(HEARTBEAT);
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        topics.values().forEach(subscribers -> subscribers.forEach(this::remove));
+    }
+
+    private void write(Connection connection) {
+        try {
+            while (true) {
+                Message message = connection.buffer().take();
+                if (message == CLOSE) {
+                    connection.emitter().complete();
+                    return;
+                }
+                if (message == HEARTBEAT) {
+                    connection.emitter().send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    connection.emitter().send(SseEmitter.event().name(message.name()).data(message.data()));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // the client went away or the emitter already completed
+            remove(connection);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            remove(connection);
+        }
+    }
+
+    private void remove(Connection connection) {
+        boolean[] removed = new boolean[1];
+        topics.computeIfPresent(connection.topic(), (topic, subscribers) -> {
+            removed[0] = subscribers.remove(connection);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+        if (!removed[0]) {
+            return;
+        }
+        connections.decrementAndGet();
+        // drop what is still buffered and stop the writer, waking it if it is parked on an empty buffer
+        do {
+            connection.buffer().clear();
+        } while (!connection.buffer().offer(CLOSE));
+    }
+
+    private record Message(String name, Object data) {
+    }
+
+    private record Connection(String topic, SseEmitter emitter, BlockingQueue<Message> buffer) {
+    }
+}
@@ -0,0 +1,159 @@
+package mjyuu.vocaloidshop.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.vocaloidshop.event.OrderPlacedEvent;
+import mjyuu.vocaloidshop.repository.OrderItemRepository;
+import mjyuu.vocaloidshop.repository.OrderItemRepository.OrderProductView;
+import mjyuu.vocaloidshop.util.CoOccurrenceMatrix;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * "Frequently bought together" from a {@link CoOccurrenceMatrix} of past orders.
+ *
+ * Each placed order adds its products to the matrix once it commits. The matrix only lives in
+ * memory, so it is rebuilt from live and archived order history at startup (in the background)
+ * and on demand. A rebuild reads orders up to the highest id at its start into a fresh matrix
+ * while placed orders queue up, then swaps the fresh matrix in and replays the queued orders it
+ * did not read. Order ids are taken before the order commits, so a queued order can have a lower
+ * id than one already read; the rebuild therefore remembers which ids it read rather than
+ * comparing against the highest.
+ */
+@Slf4j
+@Service
+public class FrequentlyBoughtTogetherService {
+
+    private final OrderItemRepository orderItemRepository;
+    private final int topSize;
+    private final int maxBasketSize;
+    private final int backfillOrderIdSpan;
+    private final ExecutorService startupExecutor = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "bought-together-backfill"));
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Object lock = new Object();
+    private final List<OrderPlacedEvent> queued = new ArrayList<>();
+    private volatile CoOccurrenceMatrix matrix;
+
+    public FrequentlyBoughtTogetherService(OrderItemRepository orderItemRepository,
+                                           @Value("${app.bought-together.top-size:20}") int topSize,
+                                           @Value("${app.bought-together.max-basket-size:50}") int maxBasketSize,
+                                           @Value("${app.bought-together.backfill-order-id-span:5000}") int backfillOrderIdSpan) {
+        this.orderItemRepository = orderItemRepository;
+        this.topSize = topSize;
+        this.maxBasketSize = maxBasketSize;
+        this.backfillOrderIdSpan = backfillOrderIdSpan;
+        this.matrix = new CoOccurrenceMatrix(topSize);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        CoOccurrenceMatrix target;
+        synchronized (lock) {
+            if (rebuilding.get()) {
+                queued.add(event);
+                return;
+            }
+            target = matrix;
+        }
+        addBasket(target, event.items().stream().mapToLong(OrderPlacedEvent.Line::productId).toArray());
+    }
+
+    /**
+     * @return up to {@code limit} product ids most often ordered together with {@code productId}
+     */
+    public List<Long> getFrequentlyBoughtWith(Long productId, int limit) {
+        return Arrays.stream(matrix.topNeighbours(productId, limit)).boxed().toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        startupExecutor.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Could not build the frequently-bought-together matrix", e);
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the matrix from all live and archived orders.
+     *
+     * @return number of orders and of products with neighbours in the new matrix
+     * @throws IllegalStateException if a rebuild is already running
+     */
+    public Map<String, Integer> rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("A rebuild is already running");
+        }
+        try {
+            CoOccurrenceMatrix fresh = new CoOccurrenceMatrix(topSize);
+            long maxOrderId = orderItemRepository.findMaxOrderId();
+            BitSet read = new BitSet();
+            int orders = 0;
+            for (long after = 0; after < maxOrderId; after += backfillOrderIdSpan) {
+                orders += addOrders(fresh, orderItemRepository.findOrderProducts(after, Math.min(after + backfillOrderIdSpan, maxOrderId)), read);
+            }
+            synchronized (lock) {
+                for (OrderPlacedEvent event : queued) {
+                    if (!read.get(Math.toIntExact(event.orderId()))) {
+                        addBasket(fresh, event.items().stream().mapToLong(OrderPlacedEvent.Line::productId).toArray());
+                        orders++;
+                    }
+                }
+                queued.clear();
+                matrix = fresh;
+                rebuilding.set(false);
+            }
+            log.info("Built the frequently-bought-together matrix from {} orders", orders);
+            return Map.of("orders", orders, "products", fresh.productCount());
+        } finally {
+            synchronized (lock) {
+                if (rebuilding.get()) {
+                    // failed part-way: keep the old matrix and apply what queued up meanwhile
+                    queued.forEach(event -> addBasket(matrix,
+                            event.items().stream().mapToLong(OrderPlacedEvent.Line::productId).toArray()));
+                    queued.clear();
+                    rebuilding.set(false);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        startupExecutor.shutdownNow();
+    }
+
+    // rows arrive sorted by order id
+    private int addOrders(CoOccurrenceMatrix target, List<OrderProductView> rows, BitSet read) {
+        int orders = 0;
+        int start = 0;
+        for (int i = 1; i <= rows.size(); i++) {
+            if (i == rows.size() || !rows.get(i).getOrderId().equals(rows.get(start).getOrderId())) {
+                addBasket(target, rows.subList(start, i).stream().mapToLong(OrderProductView::getProductId).toArray());
+                read.set(Math.toIntExact(rows.get(start).getOrderId()));
+                orders++;
+                start = i;
+            }
+        }
+        return orders;
+    }
+
+    private void addBasket(CoOccurrenceMatrix target, long[] productIds) {
+        // pairs grow with the square of the basket; very large orders say little about affinity anyway
+        if (productIds.length <= maxBasketSize) {
+            target.addBasket(productIds);
+        }
+    }
+}
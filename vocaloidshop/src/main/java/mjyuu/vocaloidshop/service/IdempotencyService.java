@@ -0,0 +1,161 @@
+package mjyuu.vocaloidshop.service;
+
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.vocaloidshop.entity.IdempotencyRecord;
+import mjyuu.vocaloidshop.repository.IdempotencyRecordRepository;
+import mjyuu.vocaloidshop.util.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers responses to requests carrying an {@code Idempotency-Key}.
+ * Recent responses live in a bounded LRU cache in front of {@code idempotency_records}.
+ *
+ * A key is claimed by inserting a pending row, so duplicates on any node see that an execution
+ * is running and wait for its response rather than racing it. A pending row left by a node that
+ * died is taken over once it is older than the pending timeout. Executions on this node are also
+ * tracked in memory, so local duplicates are woken as soon as the response is stored instead of
+ * polling the table.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    static final int PENDING = 0;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final LruCache<String, StoredResponse> cache;
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final Duration pendingTimeout;
+    private final int maxBodyBytes;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              @Value("${app.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${app.idempotency.max-body-bytes:65536}") int maxBodyBytes,
+                              @Value("${app.idempotency.pending-timeout-seconds:60}") long pendingTimeoutSeconds) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.pendingTimeout = Duration.ofSeconds(pendingTimeoutSeconds);
+        this.cache = new LruCache<>(cacheSize, ttl.toMillis());
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    /**
+     * @return the stored response, if the key's first execution has finished
+     */
+    public Optional<StoredResponse> find(String id) {
+        StoredResponse cached = cache.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        Optional<StoredResponse> stored = idempotencyRecordRepository.findById(id)
+                .filter(record -> record.getStatus() != PENDING && record.getCreatedAt().isAfter(cutoff))
+                .map(record -> new StoredResponse(
+                        record.getRequestHash(),
+                        record.getStatus(),
+                        record.getContentType(),
+                        record.getBody(),
+                        record.getCreatedAt()));
+        stored.ifPresent(response -> cache(id, response));
+        return stored;
+    }
+
+    /**
+     * Registers {@code execution} as the in-flight execution for {@code id} on this node.
+     *
+     * @return {@code null} if the caller now owns the key here, otherwise the execution already running
+     */
+    public CompletableFuture<StoredResponse> claim(String id, CompletableFuture<StoredResponse> execution) {
+        return inFlight.putIfAbsent(id, execution);
+    }
+
+    /**
+     * Claims {@code id} for every node by inserting its pending row, or by taking over a pending
+     * row whose owner has not finished within the pending timeout.
+     *
+     * @return {@code false} if another execution holds the key or already finished
+     */
+    public boolean reserve(String id, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        return idempotencyRecordRepository.insertPending(id, requestHash, now) == 1
+                || idempotencyRecordRepository.takeOverPending(id, requestHash, now, now.minus(pendingTimeout)) == 1;
+    }
+
+    /**
+     * Gives up a key reserved with {@link #reserve} without a response, so the next attempt
+     * executes again.
+     */
+    public void abandon(String id) {
+        try {
+            idempotencyRecordRepository.deletePending(id);
+        } catch (DataAccessException e) {
+            // the row is taken over once it is older than the pending timeout
+            log.warn("Could not release idempotency key {}", id, e);
+        }
+    }
+
+    /**
+     * Ends an execution claimed with {@link #claim}. Waiters receive {@code outcome};
+     * {@code null} tells them nothing was stored and they should try again themselves.
+     */
+    public void release(String id, CompletableFuture<StoredResponse> execution, StoredResponse outcome) {
+        inFlight.remove(id, execution);
+        execution.complete(outcome);
+    }
+
+    /**
+     * Persists a response in place of the key's pending row. A body over the size limit is not
+     * kept; the returned response then has a {@code null} body, and replays only learn that the
+     * request was already processed.
+     */
+    public StoredResponse store(String id, StoredResponse response) {
+        StoredResponse kept = response.body().length > maxBodyBytes
+                ? new StoredResponse(response.requestHash(), response.status(), null, null, response.createdAt())
+                : response;
+        cache(id, kept);
+        try {
+            idempotencyRecordRepository.save(IdempotencyRecord.builder()
+                    .id(id)
+                    .requestHash(kept.requestHash())
+                    .status(kept.status())
+                    .contentType(kept.contentType())
+                    .body(kept.body())
+                    .createdAt(kept.createdAt())
+                    .build());
+        } catch (DataAccessException e) {
+            // the cached copy still covers retries reaching this instance
+            log.warn("Could not persist idempotency record {}", id, e);
+        }
+        return kept;
+    }
+
+    @Scheduled(cron = "${app.idempotency.purge-cron:0 15 * * * *}")
+    @Transactional
+    public void purgeExpired() {
+        idempotencyRecordRepository.deleteOlderThan(LocalDateTime.now().minus(ttl));
+    }
+
+    private void cache(String id, StoredResponse response) {
+        long expiresAt = response.createdAt().plus(ttl).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        cache.put(id, response, expiresAt);
+    }
+
+    /**
+     * @param body {@code null} if the response was too large to keep
+     */
+    public record StoredResponse(String requestHash, int status, String contentType, byte[] body, LocalDateTime createdAt) {
+    }
+}
@@ -0,0 +1,287 @@
+package mjyuu.vocaloidshop.service;
+
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.vocaloidshop.entity.InventoryMovement;
+import mjyuu.vocaloidshop.entity.InventoryMovementReason;
+import mjyuu.vocaloidshop.event.BackInStockEvent;
+import mjyuu.vocaloidshop.exception.ResourceNotFoundException;
+import mjyuu.vocaloidshop.repository.InventoryMovementRepository;
+import mjyuu.vocaloidshop.repository.InventorySnapshotRepository;
+import mjyuu.vocaloidshop.util.AfterCommit;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Owns every stock change. Each change is appended to {@code inventory_movements} in the
+ * caller's transaction together with the denormalized {@code products.stock_quantity}, which
+ * stays the row the database locks and checks when stock is reserved.
+ *
+ * Stock levels are read from an in-memory projection built from the latest snapshot plus the
+ * ledger tail and moved forward after each commit. A periodic job folds the tail into
+ * {@code inventory_snapshots}, rebuilds the projection and reports any product whose stored
+ * quantity no longer matches its ledger.
+ *
+ * Each projected level remembers the highest movement id it was loaded from and the highest
+ * it has applied since, so a rebuild and the after-commit updates can run in either order:
+ * an update the rebuild already read is skipped, and a rebuild that missed an applied update
+ * keeps the current level. This relies on a product's movements committing in id order, which
+ * holds because every writer holds the product's row lock until commit.
+ */
+@Slf4j
+@Service
+public class InventoryService {
+
+    // movements younger than this may still belong to open transactions and are left in the tail
+    private static final Duration SNAPSHOT_LAG = Duration.ofMinutes(5);
+
+    private static final String INSERT_MOVEMENT =
+            "INSERT INTO inventory_movements (product_id, delta, reason, order_id, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final InventorySnapshotRepository inventorySnapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final LowStockService lowStockService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConcurrentHashMap<Long, Level> levels = new ConcurrentHashMap<>();
+
+    public InventoryService(JdbcTemplate jdbcTemplate,
+                            InventoryMovementRepository inventoryMovementRepository,
+                            InventorySnapshotRepository inventorySnapshotRepository,
+                            PlatformTransactionManager transactionManager,
+                            LowStockService lowStockService,
+                            ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.inventoryMovementRepository = inventoryMovementRepository;
+        this.inventorySnapshotRepository = inventorySnapshotRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lowStockService = lowStockService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Takes {@code quantity} units off the stored stock if that many are available.
+     * The ledger entry is written by {@link #append} once the order id is known.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryReserve(Long productId, int quantity) {
+        return jdbcTemplate.update(
+                "UPDATE products SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?",
+                quantity, productId, quantity) == 1;
+    }
+
+    /**
+     * Sets a product's stock to {@code quantity}, recording the difference as an adjustment.
+     *
+     * @return the stock before the change
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int setStock(Long productId, int quantity) {
+        List<Integer> current = jdbcTemplate.queryForList(
+                "SELECT stock_quantity FROM products WHERE id = ? FOR UPDATE", Integer.class, productId);
+        if (current.isEmpty()) {
+            throw new ResourceNotFoundException("Product", productId);
+        }
+        int previous = current.get(0);
+        int delta = quantity - previous;
+        if (delta == 0) {
+            return previous;
+        }
+        jdbcTemplate.update("UPDATE products SET stock_quantity = ? WHERE id = ?", quantity, productId);
+        append(List.of(new Movement(productId, delta, InventoryMovementReason.ADJUSTMENT, null)));
+        return previous;
+    }
+
+    /**
+     * Puts the items of newly canceled orders back in stock with one batched ledger append.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void restockCanceledOrders(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        List<Movement> movements = namedJdbcTemplate.query("""
+                        SELECT order_id, product_id, SUM(quantity) AS quantity
+                        FROM order_items
+                        WHERE order_id IN (:orderIds)
+                        GROUP BY order_id, product_id
+                        """,
+                Map.of("orderIds", orderIds),
+                (rs, rowNum) -> new Movement(
+                        rs.getLong("product_id"),
+                        rs.getInt("quantity"),
+                        InventoryMovementReason.ORDER_CANCELED,
+                        rs.getLong("order_id")));
+        if (movements.isEmpty()) {
+            return;
+        }
+
+        // ascending product ids keep the row lock order identical to placeOrder's
+        Map<Long, Integer> perProduct = new TreeMap<>();
+        movements.forEach(movement -> perProduct.merge(movement.productId(), movement.delta(), Integer::sum));
+        List<Map.Entry<Long, Integer>> increments = new ArrayList<>(perProduct.entrySet());
+        jdbcTemplate.batchUpdate("UPDATE products SET stock_quantity = stock_quantity + ? WHERE id = ?",
+                increments, increments.size(), (ps, entry) -> {
+                    ps.setInt(1, entry.getValue());
+                    ps.setLong(2, entry.getKey());
+                });
+
+        append(movements);
+    }
+
+    /**
+     * Appends movements whose effect on {@code products.stock_quantity} the caller has already applied.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(List<Movement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_MOVEMENT, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Movement movement = movements.get(i);
+                        ps.setLong(1, movement.productId());
+                        ps.setInt(2, movement.delta());
+                        ps.setString(3, movement.reason().name());
+                        if (movement.orderId() != null) {
+                            ps.setLong(4, movement.orderId());
+                        } else {
+                            ps.setNull(4, Types.BIGINT);
+                        }
+                        ps.setTimestamp(5, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return movements.size();
+                    }
+                }, keys);
+
+        Map<Long, Integer> deltas = new HashMap<>();
+        Map<Long, Long> lastMovementIds = new HashMap<>();
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < movements.size(); i++) {
+            Movement movement = movements.get(i);
+            long movementId = ((Number) generated.get(i).values().iterator().next()).longValue();
+            deltas.merge(movement.productId(), movement.delta(), Integer::sum);
+            lastMovementIds.merge(movement.productId(), movementId, Math::max);
+        }
+        // products not projected yet are loaded from the committed ledger on first read
+        AfterCommit.run(() -> deltas.forEach((productId, delta) -> apply(productId, delta, lastMovementIds.get(productId))));
+    }
+
+    private void apply(Long productId, int delta, long movementId) {
+        Level[] previous = new Level[1];
+        Level level = levels.computeIfPresent(productId, (id, current) -> {
+            previous[0] = current;
+            // a reload that read these movements has counted them already
+            return movementId <= current.loadedUpTo() ? current : current.plus(delta, movementId);
+        });
+        if (level != null && level != previous[0]) {
+            lowStockService.onStockChanged(productId, previous[0].quantity(), level.quantity());
+            if (previous[0].quantity() <= 0 && level.quantity() > 0) {
+                eventPublisher.publishEvent(new BackInStockEvent(productId, level.quantity()));
+            }
+        }
+    }
+
+    public int getStockLevel(Long productId) {
+        Level level = levels.get(productId);
+        if (level != null) {
+            return level.quantity();
+        }
+        Level derived = inventorySnapshotRepository.findDerivedStockLevel(productId)
+                .map(Level::loaded)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", productId));
+        Level raced = levels.putIfAbsent(productId, derived);
+        return raced != null ? raced.quantity() : derived.quantity();
+    }
+
+    public List<InventoryMovement> getRecentMovements(Long productId, int limit) {
+        return inventoryMovementRepository.findByProductIdOrderByIdDesc(productId, PageRequest.of(0, limit));
+    }
+
+    public void forget(Long productId) {
+        AfterCommit.run(() -> levels.remove(productId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        Integer seeded = transactionTemplate.execute(status -> inventoryMovementRepository.seedMissingProducts());
+        if (seeded != null && seeded > 0) {
+            log.info("Recorded initial stock movements for {} products", seeded);
+        }
+        reloadProjection();
+    }
+
+    @Scheduled(cron = "${app.inventory.snapshot-cron:0 */15 * * * *}")
+    public void snapshotAndReconcile() {
+        Long upToId = inventoryMovementRepository.findMaxIdCreatedBefore(LocalDateTime.now().minus(SNAPSHOT_LAG));
+        if (upToId != null) {
+            transactionTemplate.executeWithoutResult(status -> inventorySnapshotRepository.foldMovements(upToId));
+        }
+        reloadProjection();
+    }
+
+    private void reloadProjection() {
+        Set<Long> productIds = new HashSet<>();
+        for (InventorySnapshotRepository.StockLevelView view : inventorySnapshotRepository.findDerivedStockLevels()) {
+            Level derived = Level.loaded(view);
+            if (view.getStoredQuantity() != null && view.getStoredQuantity() != derived.quantity()) {
+                log.warn("Stock of product {} is {} but its ledger adds up to {}",
+                        view.getProductId(), view.getStoredQuantity(), derived.quantity());
+            }
+            // keep a level that has applied movements committed after this read
+            levels.compute(view.getProductId(), (id, current) ->
+                    current != null && current.appliedUpTo() > derived.loadedUpTo() ? current : derived);
+            productIds.add(view.getProductId());
+        }
+        levels.keySet().retainAll(productIds);
+    }
+
+    public record Movement(Long productId, int delta, InventoryMovementReason reason, Long orderId) {
+    }
+
+    /**
+     * A projected stock level with the highest movement id it was loaded from and has applied.
+     */
+    private record Level(int quantity, long loadedUpTo, long appliedUpTo) {
+
+        static Level loaded(InventorySnapshotRepository.StockLevelView view) {
+            return new Level(Math.toIntExact(view.getQuantity()), view.getLastMovementId(), view.getLastMovementId());
+        }
+
+        Level plus(int delta, long movementId) {
+            return new Level(quantity + delta, loadedUpTo, Math.max(appliedUpTo, movementId));
+        }
+    }
+}
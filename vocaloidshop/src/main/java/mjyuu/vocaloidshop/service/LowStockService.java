@@ -0,0 +1,170 @@
+package mjyuu.vocaloidshop.service;
+
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.vocaloidshop.dto.LowStockAlertDTO;
+import mjyuu.vocaloidshop.event.LowStockEvent;
+import mjyuu.vocaloidshop.exception.ResourceNotFoundException;
+import mjyuu.vocaloidshop.repository.ProductRepository;
+import mjyuu.vocaloidshop.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Raises a {@link LowStockEvent} when a committed stock change takes a product below its
+ * low-stock threshold, and streams those events to admin clients.
+ *
+ * InventoryService reports every change of its stock projection here, so orders, cancellations
+ * and manual adjustments are all covered. Thresholds are the configured default unless a product
+ * overrides it; overrides live in a pair of arrays sorted by product id, so the check on each
+ * stock change is a binary search over the few overridden products. The arrays are replaced on
+ * every override change, which is rare, and read without locking. An override set on another
+ * instance is picked up by the periodic reload.
+ */
+@Slf4j
+@Service
+public class LowStockService {
+
+    static final String TOPIC = "admin:low-stock";
+    static final String EVENT_NAME = "low-stock";
+
+    private final ProductRepository productRepository;
+    private final EventStreamHub eventStreamHub;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int defaultThreshold;
+    private volatile Overrides overrides = Overrides.EMPTY;
+
+    public LowStockService(ProductRepository productRepository,
+                           EventStreamHub eventStreamHub,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${app.low-stock.threshold:5}") int defaultThreshold) {
+        this.productRepository = productRepository;
+        this.eventStreamHub = eventStreamHub;
+        this.eventPublisher = eventPublisher;
+        this.defaultThreshold = defaultThreshold;
+    }
+
+    /**
+     * Called with a product's stock before and after a committed change.
+     */
+    public void onStockChanged(Long productId, int previousStock, int stock) {
+        int threshold = thresholdOf(productId);
+        if (previousStock >= threshold && stock < threshold) {
+            eventPublisher.publishEvent(new LowStockEvent(productId, previousStock, stock, threshold, LocalDateTime.now()));
+        }
+    }
+
+    public int thresholdOf(Long productId) {
+        Overrides current = overrides;
+        int index = Arrays.binarySearch(current.productIds, productId);
+        return index >= 0 ? current.thresholds[index] : defaultThreshold;
+    }
+
+    /**
+     * Sets a product's own threshold, or goes back to the default when {@code threshold} is null.
+     */
+    @Transactional
+    public void setThreshold(Long productId, Integer threshold) {
+        if (threshold != null && threshold < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative");
+        }
+        if (productRepository.updateLowStockThreshold(productId, threshold) == 0) {
+            throw new ResourceNotFoundException("Product", productId);
+        }
+        AfterCommit.run(() -> putOverride(productId, threshold));
+    }
+
+    public SseEmitter subscribe() {
+        return eventStreamHub.subscribe(TOPIC);
+    }
+
+    @EventListener
+    public void onLowStock(LowStockEvent event) {
+        log.info("Product {} is low on stock: {} left, threshold {}", event.productId(), event.stock(), event.threshold());
+        eventStreamHub.publish(TOPIC, EVENT_NAME, LowStockAlertDTO.builder()
+                .productId(event.productId())
+                .stock(event.stock())
+                .threshold(event.threshold())
+                .detectedAt(event.detectedAt())
+                .build());
+    }
+
+    /**
+     * Loads every override at startup and reloads them periodically, which is how changes made
+     * on other instances arrive. Holding the lock through the query keeps a reload that read
+     * before a local change committed from overwriting it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.low-stock.refresh-ms:60000}", initialDelayString = "${app.low-stock.refresh-ms:60000}")
+    public synchronized void initialize() {
+        List<ProductRepository.ThresholdView> views = new ArrayList<>(productRepository.findLowStockThresholds());
+        views.sort(Comparator.comparing(ProductRepository.ThresholdView::getProductId));
+        long[] productIds = new long[views.size()];
+        int[] thresholds = new int[views.size()];
+        for (int i = 0; i < views.size(); i++) {
+            productIds[i] = views.get(i).getProductId();
+            thresholds[i] = views.get(i).getThreshold();
+        }
+        overrides = new Overrides(productIds, thresholds);
+    }
+
+    private synchronized void putOverride(Long productId, Integer threshold) {
+        Overrides current = overrides;
+        int index = Arrays.binarySearch(current.productIds, productId);
+        if (index >= 0 && threshold != null) {
+            int[] thresholds = current.thresholds.clone();
+            thresholds[index] = threshold;
+            overrides = new Overrides(current.productIds, thresholds);
+        } else if (index >= 0) {
+            overrides = new Overrides(remove(current.productIds, index), remove(current.thresholds, index));
+        } else if (threshold != null) {
+            int at = -index - 1;
+            overrides = new Overrides(insert(current.productIds, at, productId), insert(current.thresholds, at, threshold));
+        }
+    }
+
+    private static long[] insert(long[] values, int at, long value) {
+        long[] next = new long[values.length + 1];
+        System.arraycopy(values, 0, next, 0, at);
+        next[at] = value;
+        System.arraycopy(values, at, next, at + 1, values.length - at);
+        return next;
+    }
+
+    private static int[] insert(int[] values, int at, int value) {
+        int[] next = new int[values.length + 1];
+        System.arraycopy(values, 0, next, 0, at);
+        next[at] = value;
+        System.arraycopy(values, at, next, at + 1, values.length - at);
+        return next;
+    }
+
+    private static long[] remove(long[] values, int at) {
+        long[] next = new long[values.length - 1];
+        System.arraycopy(values, 0, next, 0, at);
+        System.arraycopy(values, at + 1, next, at, next.length - at);
+        return next;
+    }
+
+    private static int[] remove(int[] values, int at) {
+        int[] next = new int[values.length - 1];
+        System.arraycopy(values, 0, next, 0, at);
+        System.arraycopy(values, at + 1, next, at, next.length - at);
+        return next;
+    }
+
+    private record Overrides(long[] productIds, int[] thresholds) {
+        static final Overrides EMPTY = new Overrides(new long[0], new int[0]);
+    }
+}
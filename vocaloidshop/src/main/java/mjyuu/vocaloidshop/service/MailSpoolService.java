@@ -0,0 +1,237 @@
+package mjyuu.vocaloidshop.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.vocaloidshop.entity.SpooledMail;
+import mjyuu.vocaloidshop.entity.SpooledMailStatus;
+import mjyuu.vocaloidshop.repository.SpooledMailRepository;
+import mjyuu.vocaloidshop.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Durable outgoing mail. Callers only insert a {@code mail_spool} row, so a slow or failing SMTP
+ * server never holds up a request.
+ *
+ * A small pool of workers drains the spool. Each worker claims a batch of due rows with
+ * {@code FOR UPDATE SKIP LOCKED} and leases them by pushing their next attempt forward, so
+ * workers on this and other instances never send the same message twice. The whole batch goes
+ * out over one SMTP connection. Sent rows are deleted. Failed rows are retried with exponential
+ * backoff and given up on after the configured number of attempts.
+ */
+@Slf4j
+@Service
+public class MailSpoolService {
+
+    private final SpooledMailRepository spooledMailRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final long leaseMs;
+    private final Semaphore idleWorkers;
+    private final ExecutorService workers;
+
+    public MailSpoolService(SpooledMailRepository spooledMailRepository,
+                            JavaMailSender mailSender,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.mail.spool.enabled:true}") boolean enabled,
+                            @Value("${app.mail.spool.workers:2}") int workerCount,
+                            @Value("${app.mail.spool.batch-size:20}") int batchSize,
+                            @Value("${app.mail.spool.max-attempts:8}") int maxAttempts,
+                            @Value("${app.mail.spool.initial-backoff-ms:10000}") long initialBackoffMs,
+                            @Value("${app.mail.spool.max-backoff-ms:3600000}") long maxBackoffMs,
+                            @Value("${app.mail.spool.lease-ms:300000}") long leaseMs) {
+        this.spooledMailRepository = spooledMailRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.leaseMs = leaseMs;
+        this.idleWorkers = new Semaphore(workerCount);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount,
+                runnable -> new Thread(runnable, "mail-spool-" + threadNumber.incrementAndGet()));
+    }
+
+    /**
+     * Spools a plain-text email; it is sent shortly after the surrounding transaction commits.
+     *
+     * @param from sender address, or {@code null} for the mail server's default
+     */
+    public void enqueue(String from, String to, String subject, String text) {
+        LocalDateTime now = LocalDateTime.now();
+        spooledMailRepository.save(SpooledMail.builder()
+                .fromAddress(from)
+                .toAddress(to)
+                .subject(subject)
+                .body(text)
+                .status(SpooledMailStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+        AfterCommit.run(this::wake);
+    }
+
+    /**
+     * Picks up retries and mail spooled by other instances.
+     */
+    @Scheduled(fixedDelayString = "${app.mail.spool.poll-ms:5000}")
+    public void poll() {
+        wake();
+    }
+
+    /**
+     * Starts a worker unless all of them are already busy.
+     */
+    public void wake() {
+        if (!enabled || !idleWorkers.tryAcquire()) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    // keep going while full batches go out; a failure waits for its backoff
+                    while (sendBatch() == batchSize) {
+                        // next batch
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Mail spool worker failed", e);
+                } finally {
+                    idleWorkers.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            idleWorkers.release();
+        }
+    }
+
+    /**
+     * Claims up to one batch of due mail and sends it over a single connection.
+     *
+     * @return number of messages sent
+     */
+    public int sendBatch() {
+        List<SpooledMail> batch = claim();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        Map<SimpleMailMessage, SpooledMail> byMessage = new IdentityHashMap<>();
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = toMessage(batch.get(i));
+            byMessage.put(messages[i], batch.get(i));
+        }
+        Map<SpooledMail, Exception> failed = new IdentityHashMap<>();
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            e.getFailedMessages().forEach((message, cause) -> {
+                SpooledMail mail = byMessage.get(message);
+                if (mail != null) {
+                    failed.put(mail, cause);
+                }
+            });
+            if (failed.isEmpty()) {
+                batch.forEach(mail -> failed.put(mail, e));
+            }
+        } catch (MailException e) {
+            batch.forEach(mail -> failed.put(mail, e));
+        }
+
+        List<Long> sentIds = batch.stream()
+                .filter(mail -> !failed.containsKey(mail))
+                .map(SpooledMail::getId)
+                .toList();
+        LocalDateTime now = LocalDateTime.now();
+        failed.forEach((mail, cause) -> reschedule(mail, cause, now));
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                spooledMailRepository.deleteByIdIn(sentIds);
+            }
+            if (!failed.isEmpty()) {
+                spooledMailRepository.saveAll(failed.keySet());
+            }
+        });
+        if (!failed.isEmpty()) {
+            log.warn("Could not send {} of {} spooled emails", failed.size(), batch.size(),
+                    failed.values().iterator().next());
+        }
+        return sentIds.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private List<SpooledMail> claim() {
+        List<SpooledMail> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = spooledMailRepository.lockDueIds(now, batchSize);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            spooledMailRepository.lease(ids, now.plusNanos(leaseMs * 1_000_000));
+            // send in claim order, oldest first
+            List<SpooledMail> claimed = new ArrayList<>(spooledMailRepository.findAllById(ids));
+            claimed.sort(Comparator.comparingInt(mail -> ids.indexOf(mail.getId())));
+            return claimed;
+        });
+        return batch != null ? batch : List.of();
+    }
+
+    private void reschedule(SpooledMail mail, Exception cause, LocalDateTime now) {
+        int attempts = mail.getAttempts() + 1;
+        mail.setAttempts(attempts);
+        mail.setLastError(truncate(String.valueOf(cause.getMessage()), 500));
+        if (attempts >= maxAttempts) {
+            mail.setStatus(SpooledMailStatus.FAILED);
+            log.error("Giving up on spooled email {} to {} after {} attempts", mail.getId(), mail.getToAddress(), attempts);
+            return;
+        }
+        long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempts - 1, 30));
+        // jitter keeps retries from many messages from arriving in lockstep
+        backoff += ThreadLocalRandom.current().nextLong(backoff / 5 + 1);
+        mail.setNextAttemptAt(now.plusNanos(backoff * 1_000_000));
+    }
+
+    private static SimpleMailMessage toMessage(SpooledMail mail) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        if (mail.getFromAddress() != null) {
+            message.setFrom(mail.getFromAddress());
+        }
+        message.setTo(mail.getToAddress());
+        message.setSubject(mail.getSubject());
+        message.setText(mail.getBody());
+        return message;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
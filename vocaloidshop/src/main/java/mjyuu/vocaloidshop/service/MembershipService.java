@@ -0,0 +1,81 @@
+package mjyuu.vocaloidshop.service;
+
+import mjyuu.vocaloidshop.repository.CartItemRepository;
+import mjyuu.vocaloidshop.repository.WishlistItemRepository;
+import mjyuu.vocaloidshop.util.VersionedLruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Answers "is this product in the user's wishlist / cart" for many products at once.
+ *
+ * Each user's wishlist and cart product ids are cached as sorted {@code long[]}s, so a lookup is
+ * a binary search and a cached user costs a few bytes per product. The cart and wishlist
+ * mutators call {@link #invalidate}, which takes effect when their transaction commits.
+ */
+@Service
+public class MembershipService {
+
+    public static final int IN_WISHLIST = 1;
+    public static final int IN_CART = 2;
+
+    private final WishlistItemRepository wishlistItemRepository;
+    private final CartItemRepository cartItemRepository;
+    private final VersionedLruCache<Membership> cache;
+
+    public MembershipService(WishlistItemRepository wishlistItemRepository,
+                             CartItemRepository cartItemRepository,
+                             @Value("${app.membership.cache-size:10000}") int cacheSize,
+                             @Value("${app.membership.ttl-seconds:60}") long ttlSeconds) {
+        this.wishlistItemRepository = wishlistItemRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.cache = new VersionedLruCache<>(cacheSize, ttlSeconds * 1000);
+    }
+
+    /**
+     * @return for each of {@code productIds}, in order, {@link #IN_WISHLIST} and {@link #IN_CART} or-ed together
+     */
+    public int[] getFlags(Long userId, List<Long> productIds) {
+        Membership membership = load(userId);
+        int[] flags = new int[productIds.size()];
+        for (int i = 0; i < flags.length; i++) {
+            Long productId = productIds.get(i);
+            if (productId == null) {
+                continue;
+            }
+            if (Arrays.binarySearch(membership.wishlist(), productId) >= 0) {
+                flags[i] |= IN_WISHLIST;
+            }
+            if (Arrays.binarySearch(membership.cart(), productId) >= 0) {
+                flags[i] |= IN_CART;
+            }
+        }
+        return flags;
+    }
+
+    /**
+     * Call from any method that changes a user's wishlist or cart. Takes effect once the
+     * surrounding transaction commits.
+     */
+    public void invalidate(Long userId) {
+        cache.invalidateAfterCommit(userId);
+    }
+
+    private Membership load(Long userId) {
+        return cache.load(userId, id -> new Membership(
+                sorted(wishlistItemRepository.findProductIdsByUserId(id)),
+                sorted(cartItemRepository.findProductIdsByUserId(id))));
+    }
+
+    private static long[] sorted(List<Long> ids) {
+        long[] values = ids.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(values);
+        return values;
+    }
+
+    private record Membership(long[] wishlist, long[] cart) {
+    }
+}
@@ -0,0 +1,90 @@
+package mjyuu.vocaloidshop.service;
+
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.vocaloidshop.repository.ArchivedOrderItemRepository;
+import mjyuu.vocaloidshop.repository.ArchivedOrderRepository;
+import mjyuu.vocaloidshop.repository.OrderItemRepository;
+import mjyuu.vocaloidshop.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves DELIVERED and CANCELED orders older than {@code app.orders.archive.after-days}
+ * into {@code orders_archive} / {@code order_items_archive}.
+ * Each chunk is copied and deleted in its own transaction so row locks stay short
+ * and an interrupted run simply resumes from the next lowest id.
+ */
+@Slf4j
+@Service
+public class OrderArchiveService {
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ArchivedOrderItemRepository archivedOrderItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int afterDays;
+    private final int chunkSize;
+
+    public OrderArchiveService(OrderRepository orderRepository,
+                               OrderItemRepository orderItemRepository,
+                               ArchivedOrderRepository archivedOrderRepository,
+                               ArchivedOrderItemRepository archivedOrderItemRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.orders.archive.enabled:true}") boolean enabled,
+                               @Value("${app.orders.archive.after-days:365}") int afterDays,
+                               @Value("${app.orders.archive.chunk-size:500}") int chunkSize) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.archivedOrderItemRepository = archivedOrderItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.afterDays = afterDays;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(cron = "${app.orders.archive.cron:0 30 3 * * *}")
+    public void archiveScheduled() {
+        if (!enabled) {
+            return;
+        }
+        int archived = archiveOlderThan(LocalDateTime.now().minusDays(afterDays));
+        if (archived > 0) {
+            log.info("Archived {} closed orders older than {} days", archived, afterDays);
+        }
+    }
+
+    /**
+     * Archives every closed order placed before {@code cutoff} and returns how many were moved.
+     */
+    public int archiveOlderThan(LocalDateTime cutoff) {
+        int total = 0;
+        while (true) {
+            Integer moved = transactionTemplate.execute(status -> archiveChunk(cutoff));
+            if (moved == null || moved == 0) {
+                return total;
+            }
+            total += moved;
+        }
+    }
+
+    private int archiveChunk(LocalDateTime cutoff) {
+        List<Long> ids = orderRepository.findArchivableIds(cutoff, chunkSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedOrderRepository.copyFromLive(ids);
+        archivedOrderItemRepository.copyFromLive(ids);
+        orderItemRepository.deleteByOrderIdIn(ids);
+        orderRepository.deleteByIdIn(ids);
+        return ids.size();
+    }
+}
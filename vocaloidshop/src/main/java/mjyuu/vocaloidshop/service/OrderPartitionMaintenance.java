@@ -0,0 +1,69 @@
+package mjyuu.vocaloidshop.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Keeps monthly RANGE partitions of {@code orders} ahead of the calendar by splitting
+ * the catch-all {@code pmax} partition. Only meaningful once the table has been converted
+ * with docs/reference/orders_partitioning.sql, so it is disabled by default.
+ */
+@Slf4j
+@Service
+public class OrderPartitionMaintenance {
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int monthsAhead;
+
+    public OrderPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                     @Value("${app.orders.partitioning.enabled:false}") boolean enabled,
+                                     @Value("${app.orders.partitioning.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @Scheduled(cron = "${app.orders.partitioning.cron:0 0 4 * * *}")
+    public void ensureUpcomingPartitions() {
+        if (!enabled) {
+            return;
+        }
+        List<String> existing = jdbcTemplate.queryForList("""
+                SELECT PARTITION_NAME FROM information_schema.PARTITIONS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'orders' AND PARTITION_NAME IS NOT NULL
+                """, String.class);
+        if (!existing.contains("pmax")) {
+            log.warn("orders is not partitioned; skipping partition maintenance");
+            return;
+        }
+
+        // RANGE partitions must stay ascending, so only months after the newest one can be split off pmax
+        String newest = existing.stream()
+                .filter(name -> name.matches("p\\d{6}"))
+                .max(Comparator.naturalOrder())
+                .orElse("");
+        YearMonth last = YearMonth.now().plusMonths(monthsAhead);
+        for (YearMonth month = YearMonth.now(); !month.isAfter(last); month = month.plusMonths(1)) {
+            String name = month.format(PARTITION_NAME);
+            if (name.compareTo(newest) <= 0) {
+                continue;
+            }
+            // p<yyyyMM> holds rows ordered before the first day of the following month
+            jdbcTemplate.execute("ALTER TABLE orders REORGANIZE PARTITION pmax INTO ("
+                    + "PARTITION " + name + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "'), "
+                    + "PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+            log.info("Added orders partition {}", name);
+        }
+    }
+}
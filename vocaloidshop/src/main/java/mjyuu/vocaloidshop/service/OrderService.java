@@ -2,25 +2,45 @@ package mjyuu.vocaloidshop.service;
 
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import mjyuu.vocaloidshop.dto.OrderItemResponseDTO;
+import mjyuu.vocaloidshop.dto.OrderResponseDTO;
 import mjyuu.vocaloidshop.entity.*;
-import mjyuu.vocaloidshop.repository.AddressRepository;
-import mjyuu.vocaloidshop.repository.CartItemRepository;
-import mjyuu.vocaloidshop.repository.OrderRepository;
-import mjyuu.vocaloidshop.repository.UserRepository;
+import mjyuu.vocaloidshop.event.OrderPlacedEvent;
+import mjyuu.vocaloidshop.event.OrderStatusBatchChangedEvent;
+import mjyuu.vocaloidshop.event.OrderStatusChangedEvent;
+import mjyuu.vocaloidshop.exception.ResourceNotFoundException;
+import mjyuu.vocaloidshop.repository.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
+
+    /**
+     * Orders returned by {@link #listUserOrders}; the rest are paged through the history.
+     */
+    static final int LIVE_WINDOW = 50;
+    
+    private static final int BULK_STATUS_CHUNK_SIZE = 500;
     
     private final UserRepository userRepository;
     private final CartItemRepository cartItemRepository;
     private final OrderRepository orderRepository;
-    private final AddressRepository addressRepository;
+    private final AddressBookCache addressBookCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderItemRepository orderItemRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ArchivedOrderItemRepository archivedOrderItemRepository;
+    private final ProductRepository productRepository;
+    private final InventoryService inventoryService;
+    private final MembershipService membershipService;
 
     @Transactional
     public Order placeOrder(Long userId, Long addressId) {
@@ -35,14 +55,17 @@ public class OrderService {
         List<OrderItem> orderItems = new ArrayList<>();
         int totalAmount = 0;
         
-        for (CartItem cart : cartItems) {
+        // reserve in product id order so concurrent orders lock rows in the same sequence
+        List<CartItem> byProduct = cartItems.stream()
+                .sorted(Comparator.comparing(cart -> cart.getProduct().getId()))
+                .toList();
+        
+        for (CartItem cart : byProduct) {
             Product product = cart.getProduct();
-            if (product.getStockQuantity() < cart.getQuantity()) {
+            if (!inventoryService.tryReserve(product.getId(), cart.getQuantity())) {
                 throw new RuntimeException("Insufficient stock: " + product.getName());
             }
             
-            product.setStockQuantity(product.getStockQuantity() - cart.getQuantity());
-            
             OrderItem item = OrderItem.builder()
                     .product(product)
                     .price(product.getPrice())
@@ -61,13 +84,10 @@ public class OrderService {
                 .status(OrderStatus.PAYMENT_RECEIVED);
         
         if (addressId != null) {
-            Address address = addressRepository.findById(addressId)
+            // only the user's own addresses are in their address book
+            AddressRepository.AddressView address = addressBookCache.findAddress(userId, addressId)
                     .orElseThrow(() -> new RuntimeException("Address not found"));
             
-            if (!address.getUser().getId().equals(user.getId())) {
-                throw new RuntimeException("Unauthorized access to address");
-            }
-            
             orderBuilder
                     .shipRecipientName(address.getRecipientName())
                     .shipLine1(address.getLine1())
@@ -84,14 +104,179 @@ public class OrderService {
         
         orderRepository.save(order);
         cartItemRepository.deleteAll(cartItems);
+        membershipService.invalidate(userId);
+        
+        inventoryService.append(orderItems.stream()
+                .map(item -> new InventoryService.Movement(
+                        item.getProduct().getId(), -item.getQuantity(), InventoryMovementReason.ORDER_PLACED, order.getId()))
+                .toList());
+        
+        eventPublisher.publishEvent(new OrderPlacedEvent(
+                order.getId(),
+                user.getId(),
+                order.getOrderedAt(),
+                order.getTotalAmount(),
+                orderItems.stream()
+                        .map(item -> new OrderPlacedEvent.Line(item.getProduct().getId(), item.getQuantity(), item.getPrice()))
+                        .toList()));
         
         return order;
     }
 
-    public List<Order> listUserOrders(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return orderRepository.findByUserOrderByOrderedAtDesc(user);
+    /**
+     * A user's most recent live orders, newest first, up to {@link #LIVE_WINDOW}. This is what the
+     * tracking page polls, so it never reads the archive; older orders are paged through
+     * {@link #listUserOrderHistory}.
+     */
+    public List<OrderResponseDTO> listUserOrders(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", userId);
+        }
+        return toLiveResponses(orderRepository.findByUserIdOrderByOrderedAtDescIdDesc(userId, PageRequest.of(0, LIVE_WINDOW)));
+    }
+
+    /**
+     * One page of a user's orders, live and archived, newest first. Archiving goes by status as
+     * well as age, so an old order that never completed can still be live; the two sources are
+     * merged by order date. Each is read up to the end of the requested page, and items are
+     * only loaded for the orders on it. The archive is only read once the page reaches past the
+     * live orders, that is, when they do not fill it or the newest archived order is newer than
+     * the last live one it would show.
+     */
+    public List<OrderResponseDTO> listUserOrderHistory(Long userId, int page, int size) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", userId);
+        }
+        
+        int window = Math.toIntExact((long) page * size + size);
+        List<Order> live = orderRepository.findByUserIdOrderByOrderedAtDescIdDesc(userId, PageRequest.of(0, window));
+        List<ArchivedOrder> archived = live.size() < window || reachesArchive(userId, live.get(live.size() - 1))
+                ? archivedOrderRepository.findUserHistory(userId, 0, window)
+                : List.of();
+        return merge(live, archived, (long) page * size, size);
+    }
+
+    private boolean reachesArchive(Long userId, Order oldestLive) {
+        return archivedOrderRepository.findUserHistory(userId, 0, 1).stream()
+                .anyMatch(newest -> compareNewestFirst(newest.getOrderedAt(), newest.getId(),
+                        oldestLive.getOrderedAt(), oldestLive.getId()) < 0);
+    }
+
+    /**
+     * Merges two lists sorted newest first and converts the {@code limit} orders after the
+     * first {@code skip}.
+     */
+    private List<OrderResponseDTO> merge(List<Order> live, List<ArchivedOrder> archived, long skip, int limit) {
+        List<Order> pickedLive = new ArrayList<>();
+        List<ArchivedOrder> pickedArchived = new ArrayList<>();
+        int l = 0;
+        int a = 0;
+        for (long n = 0; n < skip + limit && (l < live.size() || a < archived.size()); n++) {
+            boolean takeLive = a == archived.size() || (l < live.size() && compareNewestFirst(
+                    live.get(l).getOrderedAt(), live.get(l).getId(),
+                    archived.get(a).getOrderedAt(), archived.get(a).getId()) <= 0);
+            if (takeLive) {
+                if (n >= skip) {
+                    pickedLive.add(live.get(l));
+                }
+                l++;
+            } else {
+                if (n >= skip) {
+                    pickedArchived.add(archived.get(a));
+                }
+                a++;
+            }
+        }
+        
+        List<OrderResponseDTO> result = new ArrayList<>(toLiveResponses(pickedLive));
+        result.addAll(toArchivedResponses(pickedArchived));
+        result.sort((x, y) -> compareNewestFirst(x.getOrderedAt(), x.getId(), y.getOrderedAt(), y.getId()));
+        return result;
+    }
+
+    // ORDER BY ordered_at DESC, id DESC, with null dates last as in MySQL
+    private static int compareNewestFirst(LocalDateTime orderedAt1, Long id1, LocalDateTime orderedAt2, Long id2) {
+        int byDate = Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()).compare(orderedAt2, orderedAt1);
+        return byDate != 0 ? byDate : id2.compareTo(id1);
+    }
+
+    private List<OrderResponseDTO> toLiveResponses(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<OrderItemResponseDTO>> itemsByOrder = orderItemRepository
+                .findWithProductByOrderIdIn(orders.stream().map(Order::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(item -> item.getOrder().getId(),
+                        Collectors.mapping(item -> toItemResponse(item.getId(), item.getProduct().getId(),
+                                item.getProduct(), item.getQuantity(), item.getPrice()), Collectors.toList())));
+        
+        return orders.stream()
+                .map(order -> OrderResponseDTO.builder()
+                        .id(order.getId())
+                        .userId(order.getUser().getId())
+                        .totalAmount(order.getTotalAmount())
+                        .status(order.getStatus())
+                        .orderedAt(order.getOrderedAt())
+                        .shipRecipientName(order.getShipRecipientName())
+                        .shipLine1(order.getShipLine1())
+                        .shipLine2(order.getShipLine2())
+                        .shipCity(order.getShipCity())
+                        .shipState(order.getShipState())
+                        .shipPostalCode(order.getShipPostalCode())
+                        .shipCountry(order.getShipCountry())
+                        .shipPhone(order.getShipPhone())
+                        .items(itemsByOrder.getOrDefault(order.getId(), List.of()))
+                        .build())
+                .toList();
+    }
+
+    private List<OrderResponseDTO> toArchivedResponses(List<ArchivedOrder> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        List<ArchivedOrderItem> items = archivedOrderItemRepository
+                .findByOrderIdIn(orders.stream().map(ArchivedOrder::getId).toList());
+        Map<Long, Product> products = productRepository
+                .findAllById(items.stream().map(ArchivedOrderItem::getProductId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<Long, List<OrderItemResponseDTO>> itemsByOrder = items.stream()
+                .collect(Collectors.groupingBy(ArchivedOrderItem::getOrderId,
+                        Collectors.mapping(item -> toItemResponse(item.getId(), item.getProductId(),
+                                products.get(item.getProductId()), item.getQuantity(), item.getPrice()), Collectors.toList())));
+        
+        return orders.stream()
+                .map(order -> OrderResponseDTO.builder()
+                        .id(order.getId())
+                        .userId(order.getUserId())
+                        .totalAmount(order.getTotalAmount())
+                        .status(order.getStatus())
+                        .orderedAt(order.getOrderedAt())
+                        .shipRecipientName(order.getShipRecipientName())
+                        .shipLine1(order.getShipLine1())
+                        .shipLine2(order.getShipLine2())
+                        .shipCity(order.getShipCity())
+                        .shipState(order.getShipState())
+                        .shipPostalCode(order.getShipPostalCode())
+                        .shipCountry(order.getShipCountry())
+                        .shipPhone(order.getShipPhone())
+                        .items(itemsByOrder.getOrDefault(order.getId(), List.of()))
+                        .build())
+                .toList();
+    }
+
+    // product may be null for archived lines whose product has since been deleted
+    private OrderItemResponseDTO toItemResponse(Long id, Long productId, Product product, int quantity, int price) {
+        return OrderItemResponseDTO.builder()
+                .id(id)
+                .productId(productId)
+                .productName(product != null ? product.getName() : null)
+                .productImageUrl(product != null ? product.getImageUrl() : null)
+                .quantity(quantity)
+                .price(price)
+                .subtotal(price * quantity)
+                .build();
     }
 
     @Transactional
@@ -99,8 +284,14 @@ public class OrderService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
         
+        OrderStatus previousStatus = order.getStatus();
+        
         if (nextStatus == OrderStatus.CANCELED) {
             order.setStatus(OrderStatus.CANCELED);
+            if (previousStatus != OrderStatus.CANCELED) {
+                inventoryService.restockCanceledOrders(List.of(order.getId()));
+            }
+            publishStatusChange(order, previousStatus);
             return order;
         }
         
@@ -118,9 +309,83 @@ public class OrderService {
         }
         
         order.setStatus(nextStatus);
+        publishStatusChange(order, previousStatus);
         return order;
     }
 
+    private void publishStatusChange(Order order, OrderStatus previousStatus) {
+        if (previousStatus == order.getStatus()) {
+            return;
+        }
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(
+                order.getId(),
+                order.getUser().getId(),
+                order.getOrderedAt(),
+                order.getTotalAmount(),
+                previousStatus,
+                order.getStatus()));
+    }
+
+    /**
+     * Moves many orders to {@code nextStatus} with one locking read and one UPDATE per chunk.
+     * The transition rules of {@link #updateOrderStatus} are expressed as the set of statuses an
+     * order may currently be in, so the database filters out disallowed transitions.
+     */
+    @Transactional
+    public BulkStatusResult bulkUpdateOrderStatus(Collection<Long> orderIds, OrderStatus nextStatus) {
+        List<OrderStatus> allowed = allowedSourceStatuses(nextStatus);
+        List<OrderStatus> lockable = new ArrayList<>(allowed);
+        lockable.add(nextStatus);
+        // orders without a status count as PAYMENT_RECEIVED, as in updateOrderStatus
+        boolean includeNull = lockable.contains(OrderStatus.PAYMENT_RECEIVED);
+        
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        List<Long> updated = new ArrayList<>();
+        List<Long> unchanged = new ArrayList<>();
+        
+        for (int from = 0; from < ids.size(); from += BULK_STATUS_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BULK_STATUS_CHUNK_SIZE, ids.size()));
+            
+            List<OrderStatusChangedEvent> changes = new ArrayList<>();
+            for (OrderRepository.StatusView row : orderRepository.lockByIdInAndStatusIn(chunk, lockable, includeNull)) {
+                if (row.getStatus() == nextStatus) {
+                    unchanged.add(row.getId());
+                } else {
+                    changes.add(new OrderStatusChangedEvent(
+                            row.getId(),
+                            row.getUserId(),
+                            row.getOrderedAt(),
+                            row.getTotalAmount(),
+                            row.getStatus(),
+                            nextStatus));
+                }
+            }
+            
+            if (!changes.isEmpty()) {
+                List<Long> changedIds = changes.stream().map(OrderStatusChangedEvent::orderId).toList();
+                orderRepository.updateStatus(changedIds, allowed, includeNull, nextStatus);
+                if (nextStatus == OrderStatus.CANCELED) {
+                    inventoryService.restockCanceledOrders(changedIds);
+                }
+                updated.addAll(changedIds);
+                eventPublisher.publishEvent(new OrderStatusBatchChangedEvent(changes));
+            }
+        }
+        
+        Set<Long> accepted = new HashSet<>(updated);
+        accepted.addAll(unchanged);
+        List<Long> rejected = ids.stream().filter(id -> !accepted.contains(id)).toList();
+        
+        return new BulkStatusResult(updated, unchanged, rejected);
+    }
+
+    private List<OrderStatus> allowedSourceStatuses(OrderStatus nextStatus) {
+        return Arrays.stream(OrderStatus.values())
+                .filter(status -> status != nextStatus)
+                .filter(status -> nextStatus == OrderStatus.CANCELED || indexOf(status) <= indexOf(nextStatus))
+                .toList();
+    }
+
     private int indexOf(OrderStatus status) {
         return switch (status) {
             case PAYMENT_RECEIVED -> 0;
@@ -136,4 +401,7 @@ public class OrderService {
     public List<Order> listAllOrders() {
         return orderRepository.findAll();
     }
+
+    public record BulkStatusResult(List<Long> updatedIds, List<Long> unchangedIds, List<Long> rejectedIds) {
+    }
 }
@@ -0,0 +1,55 @@
+package mjyuu.vocaloidshop.service;
+
+import lombok.RequiredArgsConstructor;
+import mjyuu.vocaloidshop.dto.OrderStatusUpdateDTO;
+import mjyuu.vocaloidshop.event.OrderStatusBatchChangedEvent;
+import mjyuu.vocaloidshop.event.OrderStatusChangedEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Live order-status updates for the order tracking page, one event stream per user.
+ *
+ * Status changes from OrderService are pushed through the {@link EventStreamHub} once they
+ * commit, replacing polling of the user's whole order list.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderStatusStreamService {
+
+    static final String EVENT_NAME = "order-status";
+
+    private final EventStreamHub eventStreamHub;
+
+    public SseEmitter subscribe(Long userId) {
+        return eventStreamHub.subscribe(topic(userId));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        publish(event, LocalDateTime.now());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusBatchChanged(OrderStatusBatchChangedEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        event.changes().forEach(change -> publish(change, now));
+    }
+
+    private void publish(OrderStatusChangedEvent change, LocalDateTime changedAt) {
+        eventStreamHub.publish(topic(change.userId()), EVENT_NAME, OrderStatusUpdateDTO.builder()
+                .orderId(change.orderId())
+                .previousStatus(change.previousStatus())
+                .status(change.newStatus())
+                .changedAt(changedAt)
+                .build());
+    }
+
+    private static String topic(Long userId) {
+        return "orders:" + userId;
+    }
+}
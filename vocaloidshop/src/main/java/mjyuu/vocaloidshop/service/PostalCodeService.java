@@ -0,0 +1,180 @@
+package mjyuu.vocaloidshop.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.vocaloidshop.dto.AddressRequestDTO;
+import mjyuu.vocaloidshop.exception.InvalidAddressException;
+import mjyuu.vocaloidshop.util.PostalIndex;
+import mjyuu.vocaloidshop.util.PostalIndexBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Postal-code lookup, autocompletion and address validation from a memory-mapped
+ * {@link PostalIndex}; no remote service is involved.
+ *
+ * The index is built offline with {@link PostalIndexBuilder}. If it is missing, it can be built
+ * at startup from the sample dataset bundled on the classpath; such an index is stamped with the
+ * dataset's hash in a file beside it and rebuilt when a new release bundles a different dataset,
+ * while an index built offline carries no stamp and is left alone. Without an index, lookups
+ * find nothing and validation is skipped.
+ *
+ * States are compared ignoring case, spaces and punctuation, and through a bundled list of
+ * other spellings, so "Seoul-si" or "서울특별시" match a code indexed under "Seoul".
+ */
+@Slf4j
+@Service
+public class PostalCodeService {
+
+    static final String BUNDLED_DATASET = "postal/postal-codes.csv";
+    static final String BUNDLED_STATE_ALIASES = "postal/state-aliases.csv";
+    static final String STAMP_SUFFIX = ".source";
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private final Path indexPath;
+    private final Path stampPath;
+    private final boolean buildIfMissing;
+    private final boolean strict;
+    private volatile PostalIndex index;
+    // "country:alias" -> state, both normalized
+    private volatile Map<String, String> stateAliases = Map.of();
+
+    public PostalCodeService(@Value("${app.postal.index-path:data/postal-codes.idx}") String indexPath,
+                             @Value("${app.postal.build-if-missing:true}") boolean buildIfMissing,
+                             @Value("${app.postal.strict:false}") boolean strict) {
+        this.indexPath = Path.of(indexPath);
+        this.stampPath = Path.of(indexPath + STAMP_SUFFIX);
+        this.buildIfMissing = buildIfMissing;
+        this.strict = strict;
+    }
+
+    @PostConstruct
+    public void open() {
+        try {
+            stateAliases = loadStateAliases();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not load {}; states must match the postal index exactly", BUNDLED_STATE_ALIASES, e);
+        }
+        try {
+            if (buildIfMissing) {
+                buildFromBundledDataset();
+            }
+            index = PostalIndex.open(indexPath);
+            log.info("Opened postal index {} with {} codes", indexPath, index.size());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Postal index {} is unavailable; postal codes will not be validated", indexPath, e);
+        }
+    }
+
+    public Optional<PostalIndex.Entry> lookup(String country, String postalCode) {
+        PostalIndex current = index;
+        return current != null ? current.find(country, postalCode) : Optional.empty();
+    }
+
+    public List<PostalIndex.Entry> complete(String country, String prefix, int limit) {
+        PostalIndex current = index;
+        return current != null ? current.complete(country, prefix, Math.min(limit, MAX_SUGGESTIONS)) : List.of();
+    }
+
+    /**
+     * Rejects an address whose postal code is in the index under a different state. Codes the
+     * index does not know are only rejected in strict mode, and countries it has no data for are
+     * never checked.
+     */
+    public void validate(AddressRequestDTO request) {
+        PostalIndex current = index;
+        if (current == null || !current.covers(request.getCountry())) {
+            return;
+        }
+        Optional<PostalIndex.Entry> entry = current.find(request.getCountry(), request.getPostalCode());
+        if (entry.isEmpty()) {
+            if (strict) {
+                throw new InvalidAddressException("Unknown postal code: " + request.getPostalCode());
+            }
+            return;
+        }
+        PostalIndex.Entry known = entry.get();
+        if (request.getState() == null || !sameState(known.country(), known.state(), request.getState())) {
+            throw new InvalidAddressException(String.format("Postal code %s is in %s, %s",
+                    request.getPostalCode(), known.city(), known.state()));
+        }
+    }
+
+    private boolean sameState(String country, String indexed, String given) {
+        String expected = normalizeState(indexed);
+        String actual = normalizeState(given);
+        return expected.equals(actual) || expected.equals(stateAliases.get(country + ":" + actual));
+    }
+
+    static String normalizeState(String state) {
+        return state.replaceAll("[^\\p{L}\\p{Nd}]", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Builds the index from the bundled dataset when there is none, or when the one there was
+     * built from a different bundled dataset.
+     */
+    private void buildFromBundledDataset() throws IOException {
+        boolean exists = Files.exists(indexPath);
+        if (exists && !Files.exists(stampPath)) {
+            return;
+        }
+        byte[] dataset;
+        try (InputStream in = new ClassPathResource(BUNDLED_DATASET).getInputStream()) {
+            dataset = in.readAllBytes();
+        }
+        String hash;
+        try {
+            hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(dataset));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        if (exists && hash.equals(Files.readString(stampPath).trim())) {
+            return;
+        }
+        try (Reader csv = new InputStreamReader(new ByteArrayInputStream(dataset), StandardCharsets.UTF_8)) {
+            int count = PostalIndexBuilder.build(csv, indexPath);
+            log.info("Built postal index {} with {} codes from the bundled dataset", indexPath, count);
+        }
+        Files.writeString(stampPath, hash);
+    }
+
+    private static Map<String, String> loadStateAliases() throws IOException {
+        Map<String, String> aliases = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(BUNDLED_STATE_ALIASES).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#") || trimmed.toLowerCase(Locale.ROOT).startsWith("country,")) {
+                    continue;
+                }
+                String[] fields = trimmed.split(",", -1);
+                if (fields.length == 3) {
+                    aliases.put(fields[0].trim().toUpperCase(Locale.ROOT) + ":" + normalizeState(fields[1]),
+                            normalizeState(fields[2]));
+                }
+            }
+        }
+        return Map.copyOf(aliases);
+    }
+}
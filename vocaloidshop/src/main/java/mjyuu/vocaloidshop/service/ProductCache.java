@@ -0,0 +1,90 @@
+package mjyuu.vocaloidshop.service;
+
+import mjyuu.vocaloidshop.dto.ProductField;
+import mjyuu.vocaloidshop.dto.ProductResponseDTO;
+import mjyuu.vocaloidshop.event.ProductChangedEvent;
+import mjyuu.vocaloidshop.repository.ProductRepository;
+import mjyuu.vocaloidshop.util.VersionedLruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of product details with their category, for pages that show many products by id.
+ *
+ * Misses of a lookup are loaded together with one {@code IN} query. Stock is not cached, since
+ * every order changes it; callers add the current level from InventoryService. Neither is the
+ * description, which is by far the widest column and not needed by grids and carts. Entries are
+ * dropped when a product is edited or deleted, or its category renamed.
+ */
+@Service
+public class ProductCache {
+
+    private static final Set<ProductField> CACHED_FIELDS = EnumSet.of(ProductField.ID, ProductField.NAME,
+            ProductField.PRICE, ProductField.IMAGE_URL, ProductField.CATEGORY_ID, ProductField.CATEGORY_NAME);
+
+    private final ProductRepository productRepository;
+    private final VersionedLruCache<CachedProduct> cache;
+
+    public ProductCache(ProductRepository productRepository,
+                        @Value("${app.product-cache.size:10000}") int cacheSize,
+                        @Value("${app.product-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.productRepository = productRepository;
+        this.cache = new VersionedLruCache<>(cacheSize, ttlSeconds * 1000);
+    }
+
+    /**
+     * @return the products among {@code productIds} that exist, by id
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, CachedProduct> getAll(Collection<Long> productIds) {
+        return cache.loadAll(productIds, misses -> productRepository.findFields(CACHED_FIELDS, misses).stream()
+                .collect(Collectors.toMap(ProductResponseDTO::getId, CachedProduct::from)));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        cache.invalidate(event.productId());
+    }
+
+    /**
+     * Call when a product is deleted. Takes effect once the surrounding transaction commits.
+     */
+    public void invalidate(Long productId) {
+        cache.invalidateAfterCommit(productId);
+    }
+
+    /**
+     * Call when a category is renamed. Takes effect once the surrounding transaction commits.
+     */
+    public void invalidateCategory(Long categoryId) {
+        cache.invalidateIfAfterCommit(product -> categoryId.equals(product.categoryId()));
+    }
+
+    public record CachedProduct(Long id, String name, Integer price, String imageUrl,
+                                Long categoryId, String categoryName) {
+
+        static CachedProduct from(ProductResponseDTO product) {
+            return new CachedProduct(product.getId(), product.getName(), product.getPrice(), product.getImageUrl(),
+                    product.getCategoryId(), product.getCategoryName());
+        }
+
+        public ProductResponseDTO toResponseDTO(String description, Integer stockQuantity) {
+            return ProductResponseDTO.builder()
+                    .id(id)
+                    .name(name)
+                    .description(description)
+                    .price(price)
+                    .stockQuantity(stockQuantity)
+                    .imageUrl(imageUrl)
+                    .categoryId(categoryId)
+                    .categoryName(categoryName)
+                    .build();
+        }
+    }
+}
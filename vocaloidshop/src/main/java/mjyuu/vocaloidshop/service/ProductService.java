@@ -1,16 +1,28 @@
 package mjyuu.vocaloidshop.service;
 
 import lombok.RequiredArgsConstructor;
+import mjyuu.vocaloidshop.dto.ProductField;
+import mjyuu.vocaloidshop.dto.ProductLookupDTO;
 import mjyuu.vocaloidshop.dto.ProductRequestDTO;
+import mjyuu.vocaloidshop.dto.ProductResponseDTO;
 import mjyuu.vocaloidshop.entity.Category;
+import mjyuu.vocaloidshop.entity.InventoryMovementReason;
 import mjyuu.vocaloidshop.entity.Product;
+import mjyuu.vocaloidshop.event.ProductChangedEvent;
 import mjyuu.vocaloidshop.exception.ResourceNotFoundException;
 import mjyuu.vocaloidshop.repository.CategoryRepository;
 import mjyuu.vocaloidshop.repository.ProductRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -18,6 +30,9 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final InventoryService inventoryService;
+    private final ProductCache productCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public Product createProduct(ProductRequestDTO request) {
@@ -33,7 +48,10 @@ public class ProductService {
                 .category(category)
                 .build();
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        inventoryService.append(List.of(new InventoryService.Movement(
+                saved.getId(), saved.getStockQuantity(), InventoryMovementReason.INITIAL, null)));
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -47,6 +65,81 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product", productId));
     }
 
+    /**
+     * Loads {@code productIds} in one query, in the given order, skipping ids that no longer exist.
+     */
+    @Transactional(readOnly = true)
+    public List<Product> getProductsInOrder(List<Long> productIds) {
+        Map<Long, Product> byId = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return productIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Loads only {@code fields} of all products, by id.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductResponseDTO> getProductFields(Set<ProductField> fields) {
+        return productRepository.findFields(fields, null);
+    }
+
+    /**
+     * Loads only {@code fields} of one product.
+     */
+    @Transactional(readOnly = true)
+    public ProductResponseDTO getProductFields(Long productId, Set<ProductField> fields) {
+        return productRepository.findFields(fields, List.of(productId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Product", productId));
+    }
+
+    /**
+     * Like {@link #getProductsInOrder}, loading only {@code fields}.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductResponseDTO> getProductFieldsInOrder(List<Long> productIds, Set<ProductField> fields) {
+        Map<Long, ProductResponseDTO> byId = productRepository.findFields(fields, productIds).stream()
+                .collect(Collectors.toMap(ProductResponseDTO::getId, Function.identity()));
+        return productIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Looks up {@code productIds} through the product cache, loading misses with one query.
+     * Descriptions, which the cache does not hold, are only read when {@code fields} asks for them.
+     *
+     * @return one entry per requested id, in request order, marking ids that do not exist
+     */
+    public List<ProductLookupDTO> lookupProducts(List<Long> productIds, Set<ProductField> fields) {
+        Map<Long, ProductCache.CachedProduct> found = productCache.getAll(new LinkedHashSet<>(productIds));
+        Map<Long, String> descriptions = fields.contains(ProductField.DESCRIPTION) && !found.isEmpty()
+                ? productRepository.findDescriptionsByIdIn(found.keySet()).stream()
+                        .filter(view -> view.getDescription() != null)
+                        .collect(Collectors.toMap(ProductRepository.DescriptionView::getProductId,
+                                ProductRepository.DescriptionView::getDescription))
+                : Map.of();
+        boolean withStock = fields.contains(ProductField.STOCK_QUANTITY);
+        return productIds.stream()
+                .map(productId -> {
+                    ProductCache.CachedProduct product = found.get(productId);
+                    if (product == null) {
+                        return ProductLookupDTO.builder().id(productId).found(false).build();
+                    }
+                    return ProductLookupDTO.builder()
+                            .id(productId)
+                            .found(true)
+                            .product(product.toResponseDTO(descriptions.get(productId),
+                                    withStock ? inventoryService.getStockLevel(productId) : null))
+                            .build();
+                })
+                .toList();
+    }
+
     @Transactional(readOnly = true)
     public List<Product> getProductsByCategory(Long categoryId) {
         return productRepository.findByCategoryId(categoryId);
@@ -65,14 +158,19 @@ public class ProductService {
         Category category = categoryRepository.findById(request.getCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Category", request.getCategoryId()));
 
+        int previousPrice = product.getPrice();
         product.setName(request.getName());
         product.setDescription(request.getDescription());
         product.setPrice(request.getPrice());
+        int previousStock = inventoryService.setStock(productId, request.getStockQuantity());
         product.setStockQuantity(request.getStockQuantity());
         product.setImageUrl(request.getImageUrl());
         product.setCategory(category);
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(
+                productId, previousPrice, saved.getPrice(), previousStock, saved.getStockQuantity()));
+        return saved;
     }
 
     @Transactional
@@ -80,12 +178,15 @@ public class ProductService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", productId));
         productRepository.delete(product);
+        inventoryService.forget(productId);
+        productCache.invalidate(productId);
+    }
+
+    public int getStockLevel(Long productId) {
+        return inventoryService.getStockLevel(productId);
     }
 
-    @Transactional(readOnly = true)
     public boolean checkStockAvailability(Long productId, Integer quantity) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", productId));
-        return product.getStockQuantity() >= quantity;
+        return inventoryService.getStockLevel(productId) >= quantity;
     }
 }
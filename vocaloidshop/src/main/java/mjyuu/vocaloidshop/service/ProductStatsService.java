@@ -0,0 +1,177 @@
+package mjyuu.vocaloidshop.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.vocaloidshop.dto.ProductStatsDTO;
+import mjyuu.vocaloidshop.exception.TooManyRequestsException;
+import mjyuu.vocaloidshop.repository.ProductRepository;
+import mjyuu.vocaloidshop.repository.ProductStatsRepository;
+import mjyuu.vocaloidshop.repository.ProductStatsRepository.StatsView;
+import mjyuu.vocaloidshop.util.SketchRateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-product view and click counters for merchandising.
+ *
+ * Counting is a {@link LongAdder} increment, striped across cells so busy products do not
+ * contend. A scheduled flusher writes what was counted since the last flush to
+ * {@code product_stats} with one multi-row upsert per chunk. Counters are never reset: each
+ * remembers how much it has flushed, so increments racing with a flush are simply picked up by
+ * the next one, and a failed flush is retried in full.
+ */
+@Slf4j
+@Service
+public class ProductStatsService {
+
+    private static final int UPSERT_CHUNK_SIZE = 500;
+    private static final int CLICK_SKETCH_WIDTH = 1 << 14;
+    private static final int CLICK_SKETCH_DEPTH = 4;
+
+    private final ProductStatsRepository productStatsRepository;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final SketchRateLimiter clickLimiter;
+    private final ConcurrentHashMap<Long, Counters> counters = new ConcurrentHashMap<>();
+
+    public ProductStatsService(ProductStatsRepository productStatsRepository,
+                               ProductRepository productRepository,
+                               JdbcTemplate jdbcTemplate,
+                               @Value("${app.product-stats.clicks.capacity:10}") int clickCapacity,
+                               @Value("${app.product-stats.clicks.per-minute:5}") double clicksPerMinute) {
+        this.productStatsRepository = productStatsRepository;
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.clickLimiter = new SketchRateLimiter(clickCapacity, clicksPerMinute, CLICK_SKETCH_WIDTH, CLICK_SKETCH_DEPTH);
+    }
+
+    /**
+     * Call only for products known to exist, such as one just loaded for display.
+     */
+    public void recordView(Long productId) {
+        counters(productId).views.increment();
+    }
+
+    /**
+     * Clicks are reported by anonymous clients, so each client address gets a small bucket per
+     * product; a client cannot push one product up the rankings, nor make us look up unknown ids
+     * faster than it could click.
+     *
+     * @return {@code false} if the product does not exist; unknown ids are checked once rather
+     *         than given a counter
+     * @throws TooManyRequestsException if {@code client} has used up its clicks on this product
+     */
+    public boolean recordClick(Long productId, String client) {
+        if (!clickLimiter.tryAcquire(client + "|" + productId)) {
+            throw new TooManyRequestsException("Too many clicks from this address, please retry later",
+                    clickLimiter.retryAfterSeconds());
+        }
+        Counters counter = counters.get(productId);
+        if (counter == null) {
+            if (!productRepository.existsById(productId)) {
+                return false;
+            }
+            counter = counters(productId);
+        }
+        counter.clicks.increment();
+        return true;
+    }
+
+    /**
+     * @return the top {@code limit} products by views, or by clicks, including counts not yet flushed
+     */
+    public List<ProductStatsDTO> getTopProducts(boolean byClicks, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        List<StatsView> rows = byClicks
+                ? productStatsRepository.findMostClicked(page)
+                : productStatsRepository.findMostViewed(page);
+        return rows.stream()
+                .map(row -> {
+                    Counters pending = counters.get(row.getProductId());
+                    return ProductStatsDTO.builder()
+                            .productId(row.getProductId())
+                            .productName(row.getProductName())
+                            .views(row.getViews() + (pending != null ? pending.pendingViews() : 0))
+                            .clicks(row.getClicks() + (pending != null ? pending.pendingClicks() : 0))
+                            .build();
+                })
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${app.product-stats.flush-ms:10000}")
+    public synchronized void flush() {
+        List<Long> productIds = new ArrayList<>();
+        List<long[]> deltas = new ArrayList<>();
+        counters.forEach((productId, counter) -> {
+            long views = counter.pendingViews();
+            long clicks = counter.pendingClicks();
+            if (views != 0 || clicks != 0) {
+                productIds.add(productId);
+                deltas.add(new long[]{views, clicks});
+            }
+        });
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int from = 0; from < productIds.size(); from += UPSERT_CHUNK_SIZE) {
+            int to = Math.min(from + UPSERT_CHUNK_SIZE, productIds.size());
+            StringBuilder sql = new StringBuilder("INSERT INTO product_stats (product_id, views, clicks, updated_at) VALUES ");
+            Object[] args = new Object[(to - from) * 4];
+            for (int i = from; i < to; i++) {
+                sql.append(i > from ? ", (?, ?, ?, ?)" : "(?, ?, ?, ?)");
+                int arg = (i - from) * 4;
+                args[arg] = productIds.get(i);
+                args[arg + 1] = deltas.get(i)[0];
+                args[arg + 2] = deltas.get(i)[1];
+                args[arg + 3] = now;
+            }
+            sql.append(" ON DUPLICATE KEY UPDATE views = views + VALUES(views), clicks = clicks + VALUES(clicks),"
+                    + " updated_at = VALUES(updated_at)");
+            try {
+                jdbcTemplate.update(sql.toString(), args);
+            } catch (RuntimeException e) {
+                log.warn("Could not flush product stats for {} products; retrying next run", to - from, e);
+                continue;
+            }
+            for (int i = from; i < to; i++) {
+                Counters counter = counters.get(productIds.get(i));
+                counter.flushedViews += deltas.get(i)[0];
+                counter.flushedClicks += deltas.get(i)[1];
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private Counters counters(Long productId) {
+        return counters.computeIfAbsent(productId, id -> new Counters());
+    }
+
+    private static final class Counters {
+        final LongAdder views = new LongAdder();
+        final LongAdder clicks = new LongAdder();
+        // written by flush only, which is synchronized
+        volatile long flushedViews;
+        volatile long flushedClicks;
+
+        long pendingViews() {
+            return views.sum() - flushedViews;
+        }
+
+        long pendingClicks() {
+            return clicks.sum() - flushedClicks;
+        }
+    }
+}
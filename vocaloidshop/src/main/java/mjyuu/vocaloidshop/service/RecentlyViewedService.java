@@ -0,0 +1,151 @@
+package mjyuu.vocaloidshop.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.vocaloidshop.entity.RecentlyViewed;
+import mjyuu.vocaloidshop.repository.RecentlyViewedRepository;
+import mjyuu.vocaloidshop.util.LruCache;
+import mjyuu.vocaloidshop.util.RecentlyViewedBuffer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user "recently viewed" product strip without a database write per view.
+ *
+ * Each active user has a small ring buffer in an LRU cache shared by all users. Views only touch
+ * the buffer and mark it dirty; dirty buffers are flushed as packed rows of {@code recently_viewed}
+ * in one batched upsert on a schedule. A buffer evicted before its flush stays reachable
+ * through the dirty set, so neither its views nor a later view by the same user are lost.
+ */
+@Slf4j
+@Service
+public class RecentlyViewedService {
+
+    static final int MAX_CAPACITY = 100; // product_ids holds 100 packed ids
+
+    private final RecentlyViewedRepository recentlyViewedRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int capacity;
+    private final LruCache<Long, RecentlyViewedBuffer> buffers;
+    private final ConcurrentHashMap<Long, RecentlyViewedBuffer> dirty = new ConcurrentHashMap<>();
+
+    public RecentlyViewedService(RecentlyViewedRepository recentlyViewedRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 @Value("${app.recently-viewed.capacity:20}") int capacity,
+                                 @Value("${app.recently-viewed.cached-users:50000}") int cachedUsers) {
+        this.recentlyViewedRepository = recentlyViewedRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.capacity = Math.min(capacity, MAX_CAPACITY);
+        this.buffers = new LruCache<>(cachedUsers, 0);
+    }
+
+    public void recordView(Long userId, Long productId) {
+        RecentlyViewedBuffer buffer = buffer(userId);
+        if (buffer.add(productId)) {
+            dirty.put(userId, buffer);
+        }
+    }
+
+    public List<Long> getRecentlyViewed(Long userId) {
+        return getRecentlyViewed(List.of(userId)).getOrDefault(userId, List.of());
+    }
+
+    /**
+     * Recently viewed product ids, most recent first, for each of {@code userIds};
+     * users not in memory are read together in one query and not cached.
+     */
+    public Map<Long, List<Long>> getRecentlyViewed(Collection<Long> userIds) {
+        Map<Long, List<Long>> result = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long userId : userIds) {
+            RecentlyViewedBuffer buffer = cached(userId);
+            if (buffer != null) {
+                result.put(userId, toList(buffer.snapshot()));
+            } else {
+                misses.add(userId);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (RecentlyViewed row : recentlyViewedRepository.findAllById(misses)) {
+                result.put(row.getUserId(), toList(unpack(row.getProductIds())));
+            }
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${app.recently-viewed.flush-ms:30000}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        Map<Long, RecentlyViewedBuffer> flushing = new HashMap<>();
+        List<Object[]> rows = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Long userId : List.copyOf(dirty.keySet())) {
+            RecentlyViewedBuffer buffer = dirty.remove(userId);
+            if (buffer != null) {
+                // taken after the removal, so a concurrent view is either included or re-marks the user
+                flushing.put(userId, buffer);
+                rows.add(new Object[]{userId, pack(buffer.snapshot()), now});
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate("""
+                    INSERT INTO recently_viewed (user_id, product_ids, updated_at) VALUES (?, ?, ?)
+                    ON DUPLICATE KEY UPDATE product_ids = VALUES(product_ids), updated_at = VALUES(updated_at)
+                    """, rows);
+        } catch (RuntimeException e) {
+            log.warn("Could not flush recently viewed products for {} users; retrying next run", rows.size(), e);
+            flushing.forEach(dirty::putIfAbsent);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private RecentlyViewedBuffer cached(Long userId) {
+        RecentlyViewedBuffer buffer = buffers.get(userId);
+        return buffer != null ? buffer : dirty.get(userId);
+    }
+
+    private RecentlyViewedBuffer buffer(Long userId) {
+        RecentlyViewedBuffer buffer = cached(userId);
+        if (buffer == null) {
+            buffer = RecentlyViewedBuffer.of(capacity, recentlyViewedRepository.findById(userId)
+                    .map(row -> unpack(row.getProductIds()))
+                    .orElse(new long[0]));
+        }
+        return buffers.putIfAbsent(userId, buffer);
+    }
+
+    static byte[] pack(long[] ids) {
+        ByteBuffer bytes = ByteBuffer.allocate(ids.length * Long.BYTES);
+        for (long id : ids) {
+            bytes.putLong(id);
+        }
+        return bytes.array();
+    }
+
+    static long[] unpack(byte[] packed) {
+        ByteBuffer bytes = ByteBuffer.wrap(packed);
+        long[] ids = new long[packed.length / Long.BYTES];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = bytes.getLong();
+        }
+        return ids;
+    }
+
+    private static List<Long> toList(long[] ids) {
+        return Arrays.stream(ids).boxed().toList();
+    }
+}
@@ -0,0 +1,215 @@
+package mjyuu.vocaloidshop.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.vocaloidshop.entity.OrderStatus;
+import mjyuu.vocaloidshop.entity.ProductSalesDailyRollup;
+import mjyuu.vocaloidshop.entity.SalesDailyRollup;
+import mjyuu.vocaloidshop.event.OrderPlacedEvent;
+import mjyuu.vocaloidshop.event.OrderStatusBatchChangedEvent;
+import mjyuu.vocaloidshop.event.OrderStatusChangedEvent;
+import mjyuu.vocaloidshop.repository.ProductSalesDailyRollupRepository;
+import mjyuu.vocaloidshop.repository.SalesDailyRollupRepository;
+import mjyuu.vocaloidshop.util.AfterCommit;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the admin dashboard rollups in step with orders.
+ * <p>
+ * Every order placed on a day lands on the same (day, PAYMENT_RECEIVED) row, so writing it from
+ * the order transaction would serialize checkout on one row lock. Instead each committed order or
+ * status change folds its deltas into an in-memory buffer, and a scheduled flusher writes the
+ * buffer with one upsert per touched row. A rolled-back order never reaches the buffer; deltas of
+ * a failed flush are kept for the next run, and those lost with a crashed node are repaired by
+ * {@link #backfill}. Dashboard reads only ever touch the rollup tables, so they lag by up to one
+ * flush interval.
+ */
+@Slf4j
+@Service
+public class SalesRollupService {
+
+    private static final LocalDate EARLIEST_ORDER_DAY = LocalDate.of(2000, 1, 1);
+
+    private final SalesDailyRollupRepository salesDailyRollupRepository;
+    private final ProductSalesDailyRollupRepository productSalesDailyRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // guarded by this buffer lock; swapped out whole by flush
+    private final Object bufferLock = new Object();
+    private Map<SalesDailyRollup.Key, long[]> pendingSales = new HashMap<>();
+    private Map<ProductSalesDailyRollup.Key, long[]> pendingProducts = new HashMap<>();
+    private List<Long> pendingCanceledOrderIds = new ArrayList<>();
+
+    public SalesRollupService(SalesDailyRollupRepository salesDailyRollupRepository,
+                              ProductSalesDailyRollupRepository productSalesDailyRollupRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.salesDailyRollupRepository = salesDailyRollupRepository;
+        this.productSalesDailyRollupRepository = productSalesDailyRollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        LocalDate day = event.orderedAt().toLocalDate();
+        Map<SalesDailyRollup.Key, long[]> sales = new HashMap<>();
+        addTo(sales, new SalesDailyRollup.Key(day, OrderStatus.PAYMENT_RECEIVED), 1, event.totalAmount());
+
+        // Several lines of one order can share a product; fold them before buffering
+        Map<ProductSalesDailyRollup.Key, long[]> products = new HashMap<>();
+        for (OrderPlacedEvent.Line line : event.items()) {
+            addTo(products, new ProductSalesDailyRollup.Key(day, line.productId()),
+                    line.quantity(), (long) line.quantity() * line.price());
+        }
+        AfterCommit.run(() -> buffer(sales, products, List.of()));
+    }
+
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        applyStatusChanges(List.of(event));
+    }
+
+    @EventListener
+    public void onOrderStatusBatchChanged(OrderStatusBatchChangedEvent event) {
+        applyStatusChanges(event.changes());
+    }
+
+    private void applyStatusChanges(List<OrderStatusChangedEvent> changes) {
+        // A bulk transition usually moves many orders of a few days between two statuses,
+        // so fold the changes into one delta per (day, status) before buffering
+        Map<SalesDailyRollup.Key, long[]> deltas = new HashMap<>();
+        List<Long> canceledOrderIds = new ArrayList<>();
+
+        for (OrderStatusChangedEvent change : changes) {
+            OrderStatus from = change.previousStatus() != null ? change.previousStatus() : OrderStatus.PAYMENT_RECEIVED;
+            OrderStatus to = change.newStatus();
+            if (from == to) {
+                continue;
+            }
+
+            LocalDate day = change.orderedAt().toLocalDate();
+            addTo(deltas, new SalesDailyRollup.Key(day, from), -1, -change.totalAmount());
+            addTo(deltas, new SalesDailyRollup.Key(day, to), 1, change.totalAmount());
+
+            if (to == OrderStatus.CANCELED) {
+                canceledOrderIds.add(change.orderId());
+            }
+        }
+
+        if (!deltas.isEmpty()) {
+            AfterCommit.run(() -> buffer(deltas, Map.of(), canceledOrderIds));
+        }
+    }
+
+    /**
+     * Writes everything buffered since the last flush in one transaction. Product lines of
+     * canceled orders are subtracted from the order tables, after the same flush has added
+     * any still-buffered lines of those orders.
+     */
+    @Scheduled(fixedDelayString = "${app.sales-rollups.flush-ms:5000}")
+    public synchronized void flush() {
+        Map<SalesDailyRollup.Key, long[]> sales;
+        Map<ProductSalesDailyRollup.Key, long[]> products;
+        List<Long> canceledOrderIds;
+        synchronized (bufferLock) {
+            if (pendingSales.isEmpty() && pendingProducts.isEmpty() && pendingCanceledOrderIds.isEmpty()) {
+                return;
+            }
+            sales = pendingSales;
+            products = pendingProducts;
+            canceledOrderIds = pendingCanceledOrderIds;
+            pendingSales = new HashMap<>();
+            pendingProducts = new HashMap<>();
+            pendingCanceledOrderIds = new ArrayList<>();
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                sales.forEach((key, delta) -> {
+                    if (delta[0] != 0 || delta[1] != 0) {
+                        salesDailyRollupRepository.addDelta(key.getSalesDate(), key.getStatus().name(), delta[0], delta[1]);
+                    }
+                });
+                products.forEach((key, delta) ->
+                        productSalesDailyRollupRepository.addDelta(key.getSalesDate(), key.getProductId(), delta[0], delta[1]));
+                if (!canceledOrderIds.isEmpty()) {
+                    productSalesDailyRollupRepository.subtractOrders(canceledOrderIds);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not flush sales rollups ({} sales rows, {} product rows); retrying next run",
+                    sales.size(), products.size(), e);
+            buffer(sales, products, canceledOrderIds);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void buffer(Map<SalesDailyRollup.Key, long[]> sales,
+                        Map<ProductSalesDailyRollup.Key, long[]> products,
+                        List<Long> canceledOrderIds) {
+        synchronized (bufferLock) {
+            sales.forEach((key, delta) -> addTo(pendingSales, key, delta[0], delta[1]));
+            products.forEach((key, delta) -> addTo(pendingProducts, key, delta[0], delta[1]));
+            pendingCanceledOrderIds.addAll(canceledOrderIds);
+        }
+    }
+
+    private static <K> void addTo(Map<K, long[]> deltas, K key, long count, long revenue) {
+        long[] delta = deltas.computeIfAbsent(key, k -> new long[2]);
+        delta[0] += count;
+        delta[1] += revenue;
+    }
+
+    @Transactional(readOnly = true)
+    public List<SalesDailyRollup> getSalesRollups(LocalDate from, LocalDate to) {
+        return salesDailyRollupRepository.findBySalesDateBetweenOrderBySalesDateAsc(from, to);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductSalesDailyRollup> getProductRollups(Long productId, LocalDate from, LocalDate to) {
+        if (productId != null) {
+            return productSalesDailyRollupRepository.findByProductIdAndSalesDateBetweenOrderBySalesDateAsc(productId, from, to);
+        }
+        return productSalesDailyRollupRepository.findBySalesDateBetweenOrderBySalesDateAsc(from, to);
+    }
+
+    /**
+     * Rebuilds both rollup tables for the given day range from the order tables.
+     * Each day range is replaced in one transaction, so it is safe to run in slices
+     * (for example a month at a time) against a live database. This node's buffer is flushed
+     * first so its deltas are not counted twice; deltas still buffered on other nodes can be,
+     * for up to one flush interval, and are cleared by running the slice again.
+     *
+     * @throws IllegalArgumentException if {@code to} is before {@code from}
+     */
+    public Map<String, Integer> backfill(LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : EARLIEST_ORDER_DAY;
+        LocalDate end = to != null ? to : LocalDate.now();
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("Backfill range end is before its start");
+        }
+
+        flush();
+        return transactionTemplate.execute(status -> {
+            salesDailyRollupRepository.deleteRange(start, end);
+            productSalesDailyRollupRepository.deleteRange(start, end);
+            int salesRows = salesDailyRollupRepository.rebuildRange(start, end.plusDays(1));
+            int productRows = productSalesDailyRollupRepository.rebuildRange(start, end.plusDays(1));
+            return Map.of("salesRows", salesRows, "productRows", productRows);
+        });
+    }
+}
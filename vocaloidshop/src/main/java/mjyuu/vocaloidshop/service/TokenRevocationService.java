@@ -0,0 +1,190 @@
+package mjyuu.vocaloidshop.service;
+
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.vocaloidshop.entity.RevocationReason;
+import mjyuu.vocaloidshop.entity.RevokedToken;
+import mjyuu.vocaloidshop.repository.RevokedTokenRepository;
+import mjyuu.vocaloidshop.util.AfterCommit;
+import mjyuu.vocaloidshop.util.BloomFilter;
+import mjyuu.vocaloidshop.util.JwtUtil;
+import mjyuu.vocaloidshop.util.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Revocation of issued JWTs (logout, password change, ban) without a query per request.
+ *
+ * Revocations are rows in {@code revoked_tokens}. Each node mirrors their keys in a Bloom filter,
+ * so a token that was never revoked is cleared in memory; only a filter hit pays an exact lookup,
+ * whose answer is then memoized. The filter is topped up every few seconds with the keys revoked
+ * since the previous refresh (re-reading an overlap window so rows committed late or stamped by
+ * a node with a skewed clock are not missed) and rebuilt periodically once expired rows are purged,
+ * since a Bloom filter cannot forget keys.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    private static final String USER_KEY_PREFIX = "user:";
+    private static final long NOT_REVOKED = Long.MIN_VALUE;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int expectedTokens;
+    private final double falsePositiveRate;
+    private final Duration overlap;
+    // tokenKey -> epoch millis of its latest revocation, or NOT_REVOKED
+    private final LruCache<String, Long> exact;
+
+    private volatile BloomFilter filter;
+    private volatile boolean loaded;
+    private LocalDateTime lastRefresh;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.security.revocation.expected-tokens:100000}") int expectedTokens,
+                                  @Value("${app.security.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                                  @Value("${app.security.revocation.overlap-seconds:60}") long overlapSeconds,
+                                  @Value("${app.security.revocation.exact-cache-size:10000}") int exactCacheSize) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expectedTokens = expectedTokens;
+        this.falsePositiveRate = falsePositiveRate;
+        this.overlap = Duration.ofSeconds(overlapSeconds);
+        this.exact = new LruCache<>(exactCacheSize, Duration.ofMinutes(10).toMillis());
+        this.filter = new BloomFilter(expectedTokens, falsePositiveRate);
+    }
+
+    /**
+     * @param tokenId  the token's {@code jti}, {@code null} for tokens issued without one
+     * @param issuedAt the token's {@code iat}
+     */
+    public boolean isRevoked(String tokenId, Long userId, Date issuedAt) {
+        BloomFilter current = filter;
+        // until the first load every token is checked exactly
+        boolean checkAll = !loaded;
+
+        if (tokenId != null && (checkAll || current.mightContain(tokenId))
+                && latestRevocation(tokenId) != NOT_REVOKED) {
+            return true;
+        }
+
+        String userKey = userKey(userId);
+        if (userId != null && (checkAll || current.mightContain(userKey))) {
+            long revokedAt = latestRevocation(userKey);
+            // iat has whole-second precision, so compare against the second of the revocation:
+            // a token issued right after a password change in the same second stays valid
+            return revokedAt != NOT_REVOKED
+                    && (issuedAt == null || issuedAt.getTime() < revokedAt / 1000 * 1000);
+        }
+        return false;
+    }
+
+    /**
+     * Revokes a single token until it expires.
+     */
+    @Transactional
+    public void revokeToken(String tokenId, Long userId, Date expiresAt) {
+        LocalDateTime expiry = expiresAt != null
+                ? LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault())
+                : LocalDateTime.now().plus(Duration.ofMillis(JwtUtil.EXPIRATION_MS));
+        record(tokenId, userId, RevocationReason.LOGOUT, expiry);
+    }
+
+    /**
+     * Revokes every token of {@code userId} issued up to now.
+     */
+    @Transactional
+    public void revokeUser(Long userId, RevocationReason reason) {
+        // every token issued before now has expired once a full token lifetime has passed
+        record(userKey(userId), userId, reason, LocalDateTime.now().plus(Duration.ofMillis(JwtUtil.EXPIRATION_MS)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.revocation.refresh-ms:5000}",
+            initialDelayString = "${app.security.revocation.refresh-ms:5000}")
+    public synchronized void refresh() {
+        if (!loaded) {
+            return;
+        }
+        LocalDateTime started = LocalDateTime.now();
+        addKeys(filter, revokedTokenRepository.findKeysRevokedSince(lastRefresh.minus(overlap)));
+        lastRefresh = started;
+    }
+
+    /**
+     * Purges expired revocations and replaces the filter with one holding only the live keys.
+     */
+    @Scheduled(cron = "${app.security.revocation.rebuild-cron:0 0 * * * *}")
+    public synchronized void rebuild() {
+        LocalDateTime started = LocalDateTime.now();
+        Integer purged = transactionTemplate.execute(status -> revokedTokenRepository.deleteExpired(started));
+
+        List<String> keys = revokedTokenRepository.findActiveKeys(started);
+        if (keys.size() > expectedTokens) {
+            log.warn("{} active token revocations exceed the {} the filter is sized for; raise "
+                    + "app.security.revocation.expected-tokens", keys.size(), expectedTokens);
+        }
+        BloomFilter next = new BloomFilter(Math.max(expectedTokens, keys.size()), falsePositiveRate);
+        addKeys(next, keys);
+        filter = next;
+
+        // revocations recorded locally while the new filter was filling went to the old one
+        addKeys(next, revokedTokenRepository.findKeysRevokedSince(started.minus(overlap)));
+        lastRefresh = started;
+        loaded = true;
+        if (purged != null && purged > 0) {
+            log.info("Purged {} expired token revocations, {} remain", purged, keys.size());
+        }
+    }
+
+    private void record(String tokenKey, Long userId, RevocationReason reason, LocalDateTime expiresAt) {
+        revokedTokenRepository.save(RevokedToken.builder()
+                .tokenKey(tokenKey)
+                .userId(userId)
+                .reason(reason)
+                .revokedAt(LocalDateTime.now())
+                .expiresAt(expiresAt)
+                .build());
+        AfterCommit.run(() -> addKeys(filter, List.of(tokenKey)));
+    }
+
+    private void addKeys(BloomFilter target, List<String> keys) {
+        for (String key : keys) {
+            target.add(key);
+            exact.invalidate(key);
+        }
+    }
+
+    private long latestRevocation(String tokenKey) {
+        Long cached = exact.get(tokenKey);
+        if (cached != null) {
+            return cached;
+        }
+        long revokedAt = revokedTokenRepository.findLatestRevocation(tokenKey, LocalDateTime.now())
+                .map(time -> time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+                .orElse(NOT_REVOKED);
+        exact.put(tokenKey, revokedAt);
+        return revokedAt;
+    }
+
+    private static String userKey(Long userId) {
+        return USER_KEY_PREFIX + userId;
+    }
+}
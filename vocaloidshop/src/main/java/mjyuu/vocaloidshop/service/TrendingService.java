@@ -0,0 +1,186 @@
+package mjyuu.vocaloidshop.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.vocaloidshop.entity.ProductTrendingScore;
+import mjyuu.vocaloidshop.event.OrderPlacedEvent;
+import mjyuu.vocaloidshop.repository.ProductTrendingScoreRepository;
+import mjyuu.vocaloidshop.util.AfterCommit;
+import mjyuu.vocaloidshop.util.DecayingScores;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * "Trending now": products ranked by exponentially decaying popularity.
+ *
+ * Views, cart adds and ordered units add weighted points to a lock-free {@link DecayingScores}
+ * table, so recording an event is a few compare-and-sets and activity fades with the configured
+ * half-life. A scheduled job ranks the table into a top-k list with a bounded min-heap, and reads
+ * only ever see that list. Scores are checkpointed to {@code product_trending_scores} and loaded
+ * back at startup, so a restart does not reset the shelf.
+ *
+ * Each instance scores only the traffic it serves, and all of them checkpoint to the same table.
+ * A checkpoint therefore merges per product, keeping the higher of the stored score (decayed to
+ * now) and this instance's, rather than replacing the table; since instances behind a balancer
+ * see similar shares of traffic, the higher share is a fair estimate for a restarted instance.
+ * Rows are removed once they have decayed below the checkpoint minimum.
+ */
+@Slf4j
+@Service
+public class TrendingService {
+
+    private static final double MIN_CHECKPOINT_SCORE = 0.01;
+
+    private final ProductTrendingScoreRepository productTrendingScoreRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long tauMillis;
+    private final int topSize;
+    private final double viewWeight;
+    private final double cartWeight;
+    private final double orderWeight;
+    private final DecayingScores scores;
+    private volatile List<Long> top = List.of();
+
+    public TrendingService(ProductTrendingScoreRepository productTrendingScoreRepository,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.trending.half-life-minutes:60}") long halfLifeMinutes,
+                           @Value("${app.trending.capacity:65536}") int capacity,
+                           @Value("${app.trending.top-size:100}") int topSize,
+                           @Value("${app.trending.weights.view:1}") double viewWeight,
+                           @Value("${app.trending.weights.cart-add:3}") double cartWeight,
+                           @Value("${app.trending.weights.order-unit:5}") double orderWeight) {
+        if (halfLifeMinutes < 1) {
+            throw new IllegalArgumentException("app.trending.half-life-minutes must be at least 1");
+        }
+        this.productTrendingScoreRepository = productTrendingScoreRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tauMillis = Math.round(Duration.ofMinutes(halfLifeMinutes).toMillis() / Math.log(2));
+        this.topSize = topSize;
+        this.viewWeight = viewWeight;
+        this.cartWeight = cartWeight;
+        this.orderWeight = orderWeight;
+        this.scores = new DecayingScores(capacity, tauMillis, System.currentTimeMillis());
+    }
+
+    public void recordView(Long productId) {
+        record(productId, viewWeight);
+    }
+
+    /**
+     * Counts once the surrounding transaction commits.
+     */
+    public void recordCartAdd(Long productId, int quantity) {
+        AfterCommit.run(() -> record(productId, cartWeight * Math.max(1, quantity)));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        for (OrderPlacedEvent.Line line : event.items()) {
+            record(line.productId(), orderWeight * line.quantity());
+        }
+    }
+
+    /**
+     * @return up to {@code limit} product ids, most trending first, as of the last refresh
+     */
+    public List<Long> getTrendingProductIds(int limit) {
+        List<Long> current = top;
+        return current.subList(0, Math.min(limit, current.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.trending.refresh-ms:30000}")
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        scores.rescaleIfNeeded(now);
+        PriorityQueue<Ranked> heap = new PriorityQueue<>(topSize + 1, Comparator.comparingDouble(Ranked::score));
+        scores.forEach(now, (productId, score) -> {
+            if (heap.size() < topSize) {
+                heap.add(new Ranked(productId, score));
+            } else if (score > heap.peek().score()) {
+                heap.poll();
+                heap.add(new Ranked(productId, score));
+            }
+        });
+        Long[] ranked = new Long[heap.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = heap.poll().productId();
+        }
+        top = List.of(ranked);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        long now = System.currentTimeMillis();
+        for (ProductTrendingScore row : productTrendingScoreRepository.findAll()) {
+            long age = now - row.getScoredAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            scores.add(row.getProductId(), row.getScore() * Math.exp(-Math.max(0, age) / (double) tauMillis), now);
+        }
+        refresh();
+    }
+
+    /**
+     * Merges the current scores into the stored ones and drops stored products that have faded out.
+     */
+    @Scheduled(fixedDelayString = "${app.trending.checkpoint-ms:300000}",
+            initialDelayString = "${app.trending.checkpoint-ms:300000}")
+    public void checkpoint() {
+        long now = System.currentTimeMillis();
+        Timestamp scoredAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        double tauMicros = tauMillis * 1000.0;
+        scores.forEach(now, (productId, score) -> {
+            if (score >= MIN_CHECKPOINT_SCORE) {
+                rows.add(new Object[]{productId, score, scoredAt, tauMicros});
+            }
+        });
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // score is assigned before scored_at, so it still decays from the stored time
+                jdbcTemplate.batchUpdate("""
+                        INSERT INTO product_trending_scores (product_id, score, scored_at) VALUES (?, ?, ?)
+                        ON DUPLICATE KEY UPDATE
+                            score = GREATEST(VALUES(score), score * EXP(
+                                -GREATEST(0, TIMESTAMPDIFF(MICROSECOND, scored_at, VALUES(scored_at))) / ?)),
+                            scored_at = VALUES(scored_at)
+                        """, rows);
+                jdbcTemplate.update("""
+                        DELETE FROM product_trending_scores
+                        WHERE score * EXP(-GREATEST(0, TIMESTAMPDIFF(MICROSECOND, scored_at, ?)) / ?) < ?
+                        """, scoredAt, tauMicros, MIN_CHECKPOINT_SCORE);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not checkpoint trending scores for {} products", rows.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        checkpoint();
+    }
+
+    private void record(Long productId, double weight) {
+        if (productId != null && productId > 0 && !scores.add(productId, weight, System.currentTimeMillis())) {
+            log.debug("Trending table is full; dropped product {}", productId);
+        }
+    }
+
+    private record Ranked(long productId, double score) {
+    }
+}
@@ -0,0 +1,86 @@
+package mjyuu.vocaloidshop.service;
+
+import lombok.RequiredArgsConstructor;
+import mjyuu.vocaloidshop.entity.RevocationReason;
+import mjyuu.vocaloidshop.entity.User;
+import mjyuu.vocaloidshop.exception.ResourceNotFoundException;
+import mjyuu.vocaloidshop.repository.*;
+import mjyuu.vocaloidshop.security.PrincipalCache;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class UserService {
+
+    private final UserRepository userRepository;
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final CartItemRepository cartItemRepository;
+    private final WishlistItemRepository wishlistItemRepository;
+    private final AddressRepository addressRepository;
+    private final AddressBookCache addressBookCache;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationService tokenRevocationService;
+    private final MembershipService membershipService;
+
+    /**
+     * Changes a user's role. Tokens carry the role they were issued with, so every token the
+     * user holds is revoked on all nodes and the new role takes effect at the next login.
+     */
+    @Transactional
+    public User updateRole(Long userId, User.Role role) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", userId));
+
+        if (user.getRole() != role) {
+            user.setRole(role);
+            tokenRevocationService.revokeUser(userId, RevocationReason.ROLE_CHANGE);
+            principalCache.invalidate(userId);
+        }
+        return user;
+    }
+
+    /**
+     * Bans or reinstates a user. A ban also revokes every token the user holds;
+     * reinstating does not bring those tokens back.
+     */
+    @Transactional
+    public User setBanned(Long userId, boolean banned) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", userId));
+
+        if (banned && user.isAdmin()) {
+            throw new RuntimeException("Administrators cannot be banned");
+        }
+        if (user.isBanned() != banned) {
+            user.setBanned(banned);
+            if (banned) {
+                tokenRevocationService.revokeUser(userId, RevocationReason.BAN);
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Deletes a user without order history, live or archived, and revokes their tokens.
+     */
+    @Transactional
+    public void deleteUser(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", userId));
+
+        if (orderRepository.countByUserId(userId) > 0 || archivedOrderRepository.existsByUserId(userId)) {
+            throw new RuntimeException("User has orders and cannot be deleted");
+        }
+
+        cartItemRepository.deleteByUserId(userId);
+        wishlistItemRepository.deleteByUserId(userId);
+        membershipService.invalidate(userId);
+        addressRepository.deleteAll(addressRepository.findByUserId(userId));
+        addressBookCache.invalidate(userId);
+        userRepository.delete(user);
+        tokenRevocationService.revokeUser(userId, RevocationReason.ACCOUNT_DELETED);
+        principalCache.invalidate(userId);
+    }
+}
@@ -0,0 +1,251 @@
+package mjyuu.vocaloidshop.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import mjyuu.vocaloidshop.entity.WishlistNotificationKind;
+import mjyuu.vocaloidshop.event.BackInStockEvent;
+import mjyuu.vocaloidshop.event.ProductChangedEvent;
+import mjyuu.vocaloidshop.repository.WishlistNotificationRepository;
+import mjyuu.vocaloidshop.repository.WishlistNotificationRepository.DueView;
+import mjyuu.vocaloidshop.repository.WishlistNotificationRepository.PendingView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.mail.MailException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Tells users when a wishlisted product is back in stock or cheaper.
+ *
+ * Price drops come from admin product edits and back-in-stock from InventoryService, so a
+ * restock by a canceled order counts too. Nothing runs in the caller's request: once the change
+ * commits, a background thread queues
+ * one pending notification per wishlisting user with a single INSERT ... SELECT, folding repeats
+ * into the row already pending. A second background thread periodically sends each user one
+ * digest covering all their pending notifications, paced to the configured mail rate, and
+ * re-checks every line against the current product so a price that went back up or stock that
+ * sold out again is not announced.
+ *
+ * Every instance runs the digest sender. Like the mail spool, each claims a batch of rows with
+ * {@code FOR UPDATE SKIP LOCKED} and leases them, so two instances never mail the same lines,
+ * and only the claimed rows are deleted once sent. A batch that fails to send is retried when
+ * its lease runs out.
+ */
+@Slf4j
+@Service
+public class WishlistNotificationService {
+
+    private final WishlistNotificationRepository wishlistNotificationRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long leaseMs;
+    private final long pauseBetweenEmailsMs;
+    private final String from;
+    private final ExecutorService fanOutExecutor = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "wishlist-fan-out"));
+    private final ExecutorService digestExecutor = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "wishlist-digest"));
+    private final AtomicBoolean digestRunning = new AtomicBoolean();
+
+    public WishlistNotificationService(WishlistNotificationRepository wishlistNotificationRepository,
+                                       JavaMailSender mailSender,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${app.wishlist.notifications.enabled:true}") boolean enabled,
+                                       @Value("${app.wishlist.notifications.batch-size:200}") int batchSize,
+                                       @Value("${app.wishlist.notifications.lease-ms:300000}") long leaseMs,
+                                       @Value("${app.wishlist.notifications.max-emails-per-minute:120}") int maxEmailsPerMinute,
+                                       @Value("${app.mail.from:no-reply@vocalocart.com}") String from) {
+        this.wishlistNotificationRepository = wishlistNotificationRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.leaseMs = leaseMs;
+        this.pauseBetweenEmailsMs = 60_000L / Math.max(1, maxEmailsPerMinute);
+        this.from = from;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (enabled && event.isPriceDrop()) {
+            queue(event.productId(), WishlistNotificationKind.PRICE_DROP, event.previousPrice());
+        }
+    }
+
+    /**
+     * Restocks of any kind arrive here from InventoryService, already committed.
+     */
+    @EventListener
+    public void onBackInStock(BackInStockEvent event) {
+        if (enabled) {
+            queue(event.productId(), WishlistNotificationKind.BACK_IN_STOCK, null);
+        }
+    }
+
+    /**
+     * Queues one notification of {@code kind} per wishlisting user; runs on the fan-out thread.
+     */
+    private void fanOut(Long productId, WishlistNotificationKind kind, Integer oldPrice) {
+        Integer queued = transactionTemplate.execute(status ->
+                wishlistNotificationRepository.fanOut(productId, kind.name(), oldPrice));
+        log.info("Queued {} {} notifications for product {}", queued, kind, productId);
+    }
+
+    private void queue(Long productId, WishlistNotificationKind kind, Integer oldPrice) {
+        fanOutExecutor.execute(() -> {
+            try {
+                fanOut(productId, kind, oldPrice);
+            } catch (RuntimeException e) {
+                log.error("Could not queue wishlist notifications for product {}", productId, e);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.wishlist.notifications.digest-interval-ms:600000}",
+            initialDelayString = "${app.wishlist.notifications.digest-interval-ms:600000}")
+    public void scheduleDigests() {
+        if (enabled && digestRunning.compareAndSet(false, true)) {
+            digestExecutor.execute(() -> {
+                try {
+                    sendPendingDigests();
+                } finally {
+                    digestRunning.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Sends digests until nothing is pending or the mail server fails; runs on the digest thread.
+     *
+     * @return number of digests sent
+     */
+    public int sendPendingDigests() {
+        int sent = 0;
+        while (true) {
+            Map<Long, List<Long>> claimed = claim();
+            if (claimed.isEmpty()) {
+                return sent;
+            }
+            List<Long> claimedIds = claimed.values().stream().flatMap(List::stream).toList();
+            Map<Long, List<PendingView>> byUser = wishlistNotificationRepository.findPendingByIdIn(claimedIds).stream()
+                    .collect(Collectors.groupingBy(PendingView::getUserId, LinkedHashMap::new, Collectors.toList()));
+
+            for (Map.Entry<Long, List<Long>> claim : claimed.entrySet()) {
+                List<PendingView> lines = byUser.getOrDefault(claim.getKey(), List.of()).stream()
+                        .filter(WishlistNotificationService::stillTrue)
+                        .toList();
+                boolean mailed = false;
+                if (!lines.isEmpty() && !Boolean.TRUE.equals(lines.get(0).getBanned())) {
+                    try {
+                        mailSender.send(digest(lines));
+                        mailed = true;
+                        sent++;
+                    } catch (MailException e) {
+                        log.warn("Sending wishlist digests failed after {} emails; retrying once the lease expires", sent, e);
+                        return sent;
+                    }
+                }
+                // rows whose product is gone never join; they were claimed, so clear them too
+                transactionTemplate.executeWithoutResult(status -> wishlistNotificationRepository.deleteByIdIn(claim.getValue()));
+                if (mailed && !pause()) {
+                    return sent;
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOutExecutor.shutdownNow();
+        digestExecutor.shutdownNow();
+    }
+
+    /**
+     * Claims up to one batch of unclaimed rows for this instance.
+     *
+     * @return claimed row ids by user, in user order
+     */
+    private Map<Long, List<Long>> claim() {
+        Map<Long, List<Long>> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<DueView> due = wishlistNotificationRepository.lockDue(now, batchSize);
+            Map<Long, List<Long>> byUser = new LinkedHashMap<>();
+            for (DueView row : due) {
+                byUser.computeIfAbsent(row.getUserId(), id -> new ArrayList<>()).add(row.getId());
+            }
+            // a full batch may have cut the last user's rows short; leave that user for the next claim
+            if (due.size() == batchSize && byUser.size() > 1) {
+                byUser.remove(due.get(due.size() - 1).getUserId());
+            }
+            if (!byUser.isEmpty()) {
+                wishlistNotificationRepository.lease(byUser.values().stream().flatMap(List::stream).toList(),
+                        now.plusNanos(leaseMs * 1_000_000));
+            }
+            return byUser;
+        });
+        return claimed != null ? claimed : Map.of();
+    }
+
+    private static boolean stillTrue(PendingView line) {
+        if (line.getKind() == WishlistNotificationKind.PRICE_DROP) {
+            return line.getOldPrice() != null && line.getPrice() < line.getOldPrice();
+        }
+        return line.getStock() != null && line.getStock() > 0;
+    }
+
+    private SimpleMailMessage digest(List<PendingView> lines) {
+        PendingView first = lines.get(0);
+        StringBuilder text = new StringBuilder(String.format(
+                "Dear %s,\n\nGood news about items on your wishlist:\n\n", first.getUserName()));
+        for (PendingView line : lines) {
+            if (line.getKind() == WishlistNotificationKind.PRICE_DROP) {
+                text.append(String.format("- %s is now %,d (was %,d)\n",
+                        line.getProductName(), line.getPrice(), line.getOldPrice()));
+            } else {
+                text.append(String.format("- %s is back in stock\n", line.getProductName()));
+            }
+        }
+        text.append("\nBest regards,\nVocaloCart Team");
+
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(from);
+        message.setTo(first.getEmail());
+        message.setSubject(lines.size() == 1
+                ? "An item on your wishlist has news - VocaloCart"
+                : lines.size() + " items on your wishlist have news - VocaloCart");
+        message.setText(text.toString());
+        return message;
+    }
+
+    /**
+     * @return {@code false} if the thread was interrupted (shutdown) and sending should stop
+     */
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseBetweenEmailsMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
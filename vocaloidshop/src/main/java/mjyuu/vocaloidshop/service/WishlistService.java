@@ -21,6 +21,7 @@ public class WishlistService {
     private final WishlistItemRepository wishlistItemRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
+    private final MembershipService membershipService;
 
     @Transactional
     public WishlistItem addToWishlist(Long userId, Long productId) {
@@ -42,7 +43,9 @@ public class WishlistService {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        return wishlistItemRepository.save(wishlistItem);
+        WishlistItem saved = wishlistItemRepository.save(wishlistItem);
+        membershipService.invalidate(userId);
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -56,10 +59,12 @@ public class WishlistService {
                 .orElseThrow(() -> new RuntimeException("Wishlist item not found"));
         
         wishlistItemRepository.delete(wishlistItem);
+        membershipService.invalidate(userId);
     }
 
     @Transactional
     public void clearWishlist(Long userId) {
         wishlistItemRepository.deleteByUserId(userId);
+        membershipService.invalidate(userId);
     }
 }
@@ -0,0 +1,118 @@
+package mjyuu.vocaloidshop.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sparse, symmetric product-by-product co-occurrence counts with each product's strongest
+ * neighbours kept ranked.
+ *
+ * Every product has a row: a {@link LongIntHashMap} of neighbour counts plus an immutable array
+ * of its top neighbours, most frequent first. Adding a basket increments each pair in both rows
+ * and moves the neighbour within the row's ranking, so reads never sort and never lock.
+ * Writers lock one row at a time.
+ */
+public class CoOccurrenceMatrix {
+
+    private final int topSize;
+    private final ConcurrentHashMap<Long, Row> rows = new ConcurrentHashMap<>();
+
+    /**
+     * @param topSize neighbours kept ranked per product
+     */
+    public CoOccurrenceMatrix(int topSize) {
+        this.topSize = topSize;
+    }
+
+    /**
+     * Counts every pair of distinct products in {@code productIds} once; duplicates are ignored.
+     */
+    public void addBasket(long[] productIds) {
+        long[] distinct = Arrays.stream(productIds).filter(id -> id > 0).distinct().toArray();
+        if (distinct.length < 2) {
+            return;
+        }
+        for (long product : distinct) {
+            Row row = rows.computeIfAbsent(product, id -> new Row());
+            synchronized (row) {
+                for (long other : distinct) {
+                    if (other != product) {
+                        row.increment(other, topSize);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return up to {@code limit} products most often bought with {@code productId}, most frequent first
+     */
+    public long[] topNeighbours(long productId, int limit) {
+        Row row = rows.get(productId);
+        if (row == null) {
+            return new long[0];
+        }
+        long[] top = row.top;
+        return Arrays.copyOf(top, Math.min(limit, top.length));
+    }
+
+    public int count(long productId, long otherId) {
+        Row row = rows.get(productId);
+        if (row == null) {
+            return 0;
+        }
+        synchronized (row) {
+            return row.counts.get(otherId);
+        }
+    }
+
+    public int productCount() {
+        return rows.size();
+    }
+
+    private static final class Row {
+        final LongIntHashMap counts = new LongIntHashMap();
+        volatile long[] top = new long[0];
+
+        // caller holds the row's lock
+        void increment(long other, int topSize) {
+            int count = counts.addTo(other, 1);
+            long[] current = top;
+            int position = indexOf(current, other);
+            if (position < 0 && current.length == topSize && count <= counts.get(current[current.length - 1])) {
+                return; // still not strong enough to rank
+            }
+            long[] ranked = new long[Math.min(topSize, current.length + (position < 0 ? 1 : 0))];
+            int target = 0;
+            // counts only go up, so the neighbour can only move towards the front
+            while (target < current.length && target != position && counts.get(current[target]) >= count) {
+                target++;
+            }
+            int out = 0;
+            for (int i = 0; i < current.length && out < ranked.length; i++) {
+                if (out == target) {
+                    ranked[out++] = other;
+                    if (out == ranked.length) {
+                        break;
+                    }
+                }
+                if (i != position) {
+                    ranked[out++] = current[i];
+                }
+            }
+            if (out == target && out < ranked.length) {
+                ranked[out] = other;
+            }
+            top = ranked;
+        }
+
+        private static int indexOf(long[] values, long value) {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
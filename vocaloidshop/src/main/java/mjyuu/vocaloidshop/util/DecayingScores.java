@@ -0,0 +1,150 @@
+package mjyuu.vocaloidshop.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Exponentially decaying scores per positive {@code long} key, updated without locks.
+ *
+ * Uses forward decay: an event at time {@code t} adds {@code weight * e^((t - landmark) / tau)},
+ * and a score is read back by multiplying with {@code e^(-(now - landmark) / tau)}. Older events
+ * therefore fade with time constant {@code tau} without ever touching the stored values. Keys
+ * live in a fixed-size open-addressing table whose slots are updated with compare-and-set, so
+ * writers only contend when they hit the same key. Once the table is full, new keys are dropped.
+ * Keys are never removed.
+ *
+ * The stored values grow by a factor of e per {@code tau}, so the owner must call
+ * {@link #rescaleIfNeeded} regularly (well within a few hundred {@code tau}) to move the landmark
+ * forward before they overflow. An add that races with a rescale may be counted at slightly the
+ * wrong weight.
+ */
+public class DecayingScores {
+
+    private static final int MAX_PROBES = 64;
+    // e^300 is about 1e130, leaving room below the double range (about e^709) for weights and sums
+    private static final double MAX_EXPONENT = 300;
+
+    private final AtomicLongArray keys;
+    private final AtomicLongArray values; // Double bits
+    private final int mask;
+    private final double tauMillis;
+    private volatile long landmark;
+
+    /**
+     * @param capacity  number of slots, rounded up to a power of two; keep it well above the key count
+     * @param tauMillis decay time constant; a score halves every {@code tau * ln 2}
+     */
+    public DecayingScores(int capacity, long tauMillis, long nowMillis) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.keys = new AtomicLongArray(size);
+        this.values = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.tauMillis = tauMillis;
+        this.landmark = nowMillis;
+    }
+
+    /**
+     * @return {@code false} if the key is new and the table has no room for it
+     */
+    public boolean add(long key, double weight, long nowMillis) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("keys must be positive");
+        }
+        double scaled = weight * Math.exp((nowMillis - landmark) / tauMillis);
+        int slot = slot(key);
+        for (int probe = 0; probe < MAX_PROBES; probe++, slot = (slot + 1) & mask) {
+            long current = keys.get(slot);
+            if (current == 0 && keys.compareAndSet(slot, 0, key)) {
+                current = key;
+            } else if (current == 0) {
+                current = keys.get(slot); // lost the race for an empty slot; see who won it
+            }
+            if (current == key) {
+                addTo(slot, scaled);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the decayed score of {@code key} at {@code nowMillis}, or 0 if it has none
+     */
+    public double get(long key, long nowMillis) {
+        int slot = slot(key);
+        for (int probe = 0; probe < MAX_PROBES; probe++, slot = (slot + 1) & mask) {
+            long current = keys.get(slot);
+            if (current == key) {
+                return Double.longBitsToDouble(values.get(slot)) * decay(nowMillis);
+            }
+            if (current == 0) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Visits every key with its decayed score at {@code nowMillis}.
+     */
+    public void forEach(long nowMillis, ScoreConsumer consumer) {
+        double decay = decay(nowMillis);
+        for (int slot = 0; slot <= mask; slot++) {
+            long key = keys.get(slot);
+            if (key != 0) {
+                consumer.accept(key, Double.longBitsToDouble(values.get(slot)) * decay);
+            }
+        }
+    }
+
+    /**
+     * Moves the landmark to {@code nowMillis}, shrinking the stored values to match.
+     */
+    public void rescale(long nowMillis) {
+        double factor = decay(nowMillis);
+        landmark = nowMillis;
+        for (int slot = 0; slot <= mask; slot++) {
+            long bits;
+            do {
+                bits = values.get(slot);
+            } while (!values.compareAndSet(slot, bits, Double.doubleToRawLongBits(Double.longBitsToDouble(bits) * factor)));
+        }
+    }
+
+    /**
+     * Rescales once the stored values have grown by more than e^300 since the landmark, which
+     * takes 300 time constants: days for an hour-long half-life, hours for a minute-long one.
+     *
+     * @return whether it rescaled
+     */
+    public boolean rescaleIfNeeded(long nowMillis) {
+        if ((nowMillis - landmark) / tauMillis <= MAX_EXPONENT) {
+            return false;
+        }
+        rescale(nowMillis);
+        return true;
+    }
+
+    public long landmark() {
+        return landmark;
+    }
+
+    private double decay(long nowMillis) {
+        return Math.exp(-(nowMillis - landmark) / tauMillis);
+    }
+
+    private void addTo(int slot, double delta) {
+        long bits;
+        do {
+            bits = values.get(slot);
+        } while (!values.compareAndSet(slot, bits, Double.doubleToRawLongBits(Double.longBitsToDouble(bits) + delta)));
+    }
+
+    private int slot(long key) {
+        return Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+    }
+
+    @FunctionalInterface
+    public interface ScoreConsumer {
+        void accept(long key, double score);
+    }
+}
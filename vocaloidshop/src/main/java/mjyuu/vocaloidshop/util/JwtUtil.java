@@ -2,24 +2,43 @@ package mjyuu.vocaloidshop.util;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import mjyuu.vocaloidshop.entity.User;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
     private static final String SECRET = "MySuperSecretKeyForJWTSigningVocaloCart2025!!";
-    private static final long EXPIRATION_MS = 86400000L; // 24 hours
+    public static final long EXPIRATION_MS = 86400000L; // 24 hours
+    private static final int VERIFIED_CACHE_SIZE = 10_000;
 
     private final Key key = Keys.hmacShaKeyFor(SECRET.getBytes());
 
-    public String generateToken(Long userId, String email) {
+    // JwtParser is immutable and thread-safe once built
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKey(key)
+            .build();
+
+    // claims of tokens that already passed signature verification, keyed by SHA-256 of the token
+    // and dropped when the token expires
+    private final LruCache<String, Claims> verified = new LruCache<>(VERIFIED_CACHE_SIZE, 0);
+
+    public String generateToken(Long userId, String email, User.Role role) {
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
                 .claim("userId", userId)
+                .claim("role", role.name())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_MS))
                 .signWith(key)
@@ -27,14 +46,32 @@ public class JwtUtil {
     }
 
     public Claims validateToken(String token) {
+        String digest = digest(token);
+        Claims cached = verified.get(digest);
+        if (cached != null) {
+            return cached;
+        }
+        
+        Claims claims;
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            claims = parser.parseClaimsJws(token).getBody();
         } catch (JwtException e) {
             throw new RuntimeException("Invalid or expired token");
         }
+        
+        long expiresAt = claims.getExpiration() != null
+                ? claims.getExpiration().getTime()
+                : System.currentTimeMillis() + EXPIRATION_MS;
+        verified.put(digest, claims, expiresAt);
+        return claims;
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
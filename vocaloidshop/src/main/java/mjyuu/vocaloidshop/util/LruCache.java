@@ -0,0 +1,98 @@
+package mjyuu.vocaloidshop.util;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Small thread-safe LRU map with an optional time-to-live per entry.
+ * Intended for hot lookups in front of a repository; anything evicted is simply reloaded.
+ */
+public class LruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    /**
+     * @param ttlMillis how long an entry stays valid, or {@code 0} to keep it until evicted
+     */
+    public LruCache(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, Clock.systemUTC());
+    }
+
+    public LruCache(int maxSize, long ttlMillis, Clock clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > LruCache.this.maxSize;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt != 0 && entry.expiresAt <= clock.millis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        long expiresAt = ttlMillis > 0 ? clock.millis() + ttlMillis : 0;
+        entries.put(key, new Entry<>(value, expiresAt));
+    }
+
+    /**
+     * Stores {@code value} until {@code expiresAtMillis}, or the cache's own TTL if that comes first.
+     */
+    public synchronized void put(K key, V value, long expiresAtMillis) {
+        long expiresAt = ttlMillis > 0 ? Math.min(expiresAtMillis, clock.millis() + ttlMillis) : expiresAtMillis;
+        entries.put(key, new Entry<>(value, expiresAt));
+    }
+
+    /**
+     * Stores {@code value} unless a live entry exists.
+     *
+     * @return the entry now cached: the existing one, or {@code value}
+     */
+    public synchronized V putIfAbsent(K key, V value) {
+        V existing = get(key);
+        if (existing != null) {
+            return existing;
+        }
+        put(key, value);
+        return value;
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateIf(Predicate<V> predicate) {
+        entries.values().removeIf(entry -> predicate.test(entry.value));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
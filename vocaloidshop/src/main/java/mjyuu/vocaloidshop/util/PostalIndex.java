@@ -0,0 +1,192 @@
+package mjyuu.vocaloidshop.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Read-only postal-code index, memory-mapped from a file written by {@link PostalIndexBuilder}.
+ *
+ * The file holds fixed-width records sorted by key (country code, then normalized postal code),
+ * followed by a table of distinct city and state names the records point into. Lookups binary
+ * search the mapped records and prefix searches scan forward from the first match, so the index
+ * costs no heap beyond the entries returned and opening it reads nothing up front. Only absolute
+ * reads are used, so one instance is safe to share between threads.
+ */
+public class PostalIndex {
+
+    static final int MAGIC = 0x504F5354; // "POST"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int COUNTRY_BYTES = 2;
+    static final int CODE_BYTES = 10;
+    static final int KEY_BYTES = COUNTRY_BYTES + CODE_BYTES;
+    static final int RECORD_BYTES = KEY_BYTES + 2 * Integer.BYTES;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int stringsOffset;
+
+    PostalIndex(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a postal index file");
+        }
+        this.buffer = buffer;
+        this.count = buffer.getInt(8);
+        this.stringsOffset = buffer.getInt(12);
+    }
+
+    public static PostalIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new PostalIndex(mapped);
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public Optional<Entry> find(String country, String postalCode) {
+        byte[] key = key(country, postalCode);
+        if (key == null) {
+            return Optional.empty();
+        }
+        int index = lowerBound(key, KEY_BYTES);
+        if (index < count && compare(index, key, KEY_BYTES) == 0) {
+            return Optional.of(entry(index));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return up to {@code limit} entries of {@code country} whose postal code starts with {@code prefix}, in code order
+     */
+    public List<Entry> complete(String country, String prefix, int limit) {
+        byte[] key = key(country, prefix);
+        if (key == null || limit <= 0) {
+            return List.of();
+        }
+        int prefixBytes = COUNTRY_BYTES + normalize(prefix).length();
+        List<Entry> entries = new ArrayList<>();
+        for (int index = lowerBound(key, prefixBytes); index < count && entries.size() < limit; index++) {
+            if (compare(index, key, prefixBytes) != 0) {
+                break;
+            }
+            entries.add(entry(index));
+        }
+        return entries;
+    }
+
+    /**
+     * @return whether the index has any entry for {@code country}
+     */
+    public boolean covers(String country) {
+        return !complete(country, "", 1).isEmpty();
+    }
+
+    /**
+     * Upper-cases and strips spaces and dashes, so "04524", "04 524" and "04-524" are the same code.
+     */
+    public static String normalize(String postalCode) {
+        StringBuilder normalized = new StringBuilder(postalCode.length());
+        for (int i = 0; i < postalCode.length(); i++) {
+            char c = postalCode.charAt(i);
+            if (c != ' ' && c != '-') {
+                normalized.append(Character.toUpperCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * @return the record key, or {@code null} if the country or code cannot be in the index
+     */
+    static byte[] key(String country, String postalCode) {
+        if (country == null || postalCode == null) {
+            return null;
+        }
+        String countryCode = country.trim().toUpperCase(Locale.ROOT);
+        String code = normalize(postalCode);
+        if (countryCode.length() != COUNTRY_BYTES || code.length() > CODE_BYTES) {
+            return null;
+        }
+        byte[] key = new byte[KEY_BYTES];
+        for (int i = 0; i < COUNTRY_BYTES; i++) {
+            key[i] = ascii(countryCode.charAt(i));
+        }
+        for (int i = 0; i < code.length(); i++) {
+            byte b = ascii(code.charAt(i));
+            if (b == 0) {
+                return null;
+            }
+            key[COUNTRY_BYTES + i] = b;
+        }
+        return key;
+    }
+
+    private static byte ascii(char c) {
+        return c > 0 && c < 128 ? (byte) c : 0;
+    }
+
+    // first record whose first keyBytes bytes are not less than key's
+    private int lowerBound(byte[] key, int keyBytes) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(mid, key, keyBytes) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compare(int index, byte[] key, int keyBytes) {
+        int base = HEADER_BYTES + index * RECORD_BYTES;
+        for (int i = 0; i < keyBytes; i++) {
+            int diff = Byte.compareUnsigned(buffer.get(base + i), key[i]);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private Entry entry(int index) {
+        int base = HEADER_BYTES + index * RECORD_BYTES;
+        byte[] key = new byte[KEY_BYTES];
+        buffer.get(base, key);
+        int codeLength = 0;
+        while (codeLength < CODE_BYTES && key[COUNTRY_BYTES + codeLength] != 0) {
+            codeLength++;
+        }
+        return new Entry(
+                new String(key, 0, COUNTRY_BYTES, StandardCharsets.US_ASCII),
+                new String(key, COUNTRY_BYTES, codeLength, StandardCharsets.US_ASCII),
+                string(buffer.getInt(base + KEY_BYTES)),
+                string(buffer.getInt(base + KEY_BYTES + Integer.BYTES)));
+    }
+
+    private String string(int offset) {
+        int position = stringsOffset + offset;
+        int length = Short.toUnsignedInt(buffer.getShort(position));
+        byte[] bytes = new byte[length];
+        buffer.get(position + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public record Entry(String country, String postalCode, String city, String state) {
+    }
+}
@@ -0,0 +1,110 @@
+package mjyuu.vocaloidshop.util;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Builds a {@link PostalIndex} file from a CSV of {@code country,postal_code,city,state} rows.
+ * Blank lines and lines starting with {@code #} are skipped, as is a header row starting with
+ * {@code country}. Run it offline whenever the dataset changes:
+ *
+ * <pre>
+ * java -cp target/classes mjyuu.vocaloidshop.util.PostalIndexBuilder \
+ *     src/main/resources/postal/postal-codes.csv data/postal-codes.idx
+ * </pre>
+ */
+public final class PostalIndexBuilder {
+
+    private PostalIndexBuilder() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: PostalIndexBuilder <postal-codes.csv> <output.idx>");
+            System.exit(2);
+        }
+        try (Reader csv = Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8)) {
+            int count = build(csv, Path.of(args[1]));
+            System.out.println("Wrote " + count + " postal codes to " + args[1]);
+        }
+    }
+
+    /**
+     * Writes the index to a temporary file next to {@code output} and moves it into place, so
+     * readers never map a half-written file.
+     *
+     * @return number of postal codes written
+     */
+    public static int build(Reader csv, Path output) throws IOException {
+        TreeMap<ByteBuffer, String[]> rows = new TreeMap<>(PostalIndexBuilder::compareUnsigned);
+        BufferedReader reader = new BufferedReader(csv);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#") || trimmed.toLowerCase(Locale.ROOT).startsWith("country,")) {
+                continue;
+            }
+            String[] fields = trimmed.split(",", -1);
+            if (fields.length != 4) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": expected 4 fields");
+            }
+            byte[] key = PostalIndex.key(fields[0], fields[1]);
+            if (key == null) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": invalid country or postal code");
+            }
+            // the first row for a code wins
+            rows.putIfAbsent(ByteBuffer.wrap(key), new String[]{fields[2].trim(), fields[3].trim()});
+        }
+
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        Map<String, Integer> stringOffsets = new HashMap<>();
+        ByteBuffer records = ByteBuffer.allocate(rows.size() * PostalIndex.RECORD_BYTES);
+        for (Map.Entry<ByteBuffer, String[]> row : rows.entrySet()) {
+            records.put(row.getKey().array());
+            records.putInt(intern(row.getValue()[0], strings, stringOffsets));
+            records.putInt(intern(row.getValue()[1], strings, stringOffsets));
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(PostalIndex.HEADER_BYTES);
+        header.putInt(PostalIndex.MAGIC);
+        header.putInt(PostalIndex.VERSION);
+        header.putInt(rows.size());
+        header.putInt(PostalIndex.HEADER_BYTES + records.capacity());
+
+        Path directory = output.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "postal", ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            out.write(header.array());
+            out.write(records.array());
+            strings.writeTo(out);
+        }
+        Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rows.size();
+    }
+
+    private static int intern(String value, ByteArrayOutputStream strings, Map<String, Integer> offsets) {
+        return offsets.computeIfAbsent(value, v -> {
+            byte[] bytes = v.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("Name too long: " + v);
+            }
+            int offset = strings.size();
+            strings.write(bytes.length >>> 8);
+            strings.write(bytes.length);
+            strings.writeBytes(bytes);
+            return offset;
+        });
+    }
+
+    private static int compareUnsigned(ByteBuffer a, ByteBuffer b) {
+        return Arrays.compareUnsigned(a.array(), b.array());
+    }
+}
@@ -0,0 +1,72 @@
+package mjyuu.vocaloidshop.util;
+
+/**
+ * Fixed-capacity ring of distinct product ids, most recent last in the ring.
+ * Viewing a product already in the ring moves it to the front instead of duplicating it;
+ * once full, each new product overwrites the oldest.
+ */
+public class RecentlyViewedBuffer {
+
+    private final long[] slots;
+    private int head; // next slot to write
+    private int size;
+
+    public RecentlyViewedBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.slots = new long[capacity];
+    }
+
+    /**
+     * @param newestFirst ids to start from, most recent first; extras beyond the capacity are dropped
+     */
+    public static RecentlyViewedBuffer of(int capacity, long[] newestFirst) {
+        RecentlyViewedBuffer buffer = new RecentlyViewedBuffer(capacity);
+        for (int i = Math.min(newestFirst.length, capacity) - 1; i >= 0; i--) {
+            buffer.add(newestFirst[i]);
+        }
+        return buffer;
+    }
+
+    /**
+     * @return {@code false} if {@code productId} already was the most recent entry
+     */
+    public synchronized boolean add(long productId) {
+        if (size > 0 && slots[slot(size - 1)] == productId) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (slots[slot(i)] == productId) {
+                // close the gap by shifting the newer entries one step back
+                for (int j = i; j < size - 1; j++) {
+                    slots[slot(j)] = slots[slot(j + 1)];
+                }
+                slots[slot(size - 1)] = productId;
+                return true;
+            }
+        }
+        slots[head] = productId;
+        head = (head + 1) % slots.length;
+        if (size < slots.length) {
+            size++;
+        }
+        return true;
+    }
+
+    /**
+     * @return the ids, most recent first
+     */
+    public synchronized long[] snapshot() {
+        long[] ids = new long[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = slots[slot(size - 1 - i)];
+        }
+        return ids;
+    }
+
+    // physical slot of the i-th oldest entry
+    private int slot(int i) {
+        return Math.floorMod(head - size + i, slots.length);
+    }
+}
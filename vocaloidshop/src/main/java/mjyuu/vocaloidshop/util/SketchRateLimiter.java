@@ -0,0 +1,145 @@
+package mjyuu.vocaloidshop.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate per-key token bucket in fixed memory.
+ *
+ * Buckets live in a count-min sketch: {@code depth} rows of {@code width} cells, each key hashing
+ * to one cell per row. A cell holds a leaky-bucket level that drains at the refill rate; a key's
+ * level is the minimum over its cells, so collisions can only make a key look busier, never let
+ * it through more often. Memory is {@code depth * width} longs no matter how many distinct keys
+ * are seen, so cycling through keys cannot grow the heap.
+ *
+ * Each cell packs the time of its last update (high 40 bits, milliseconds since construction)
+ * and its level (low 24 bits, in 1/4096 token). Updates are compare-and-set per cell, so callers
+ * never block; two racing callers may both be admitted at the limit, a small overshoot accepted
+ * in exchange for being lock-free.
+ */
+public class SketchRateLimiter {
+
+    private static final int LEVEL_BITS = 24;
+    private static final long LEVEL_MASK = (1L << LEVEL_BITS) - 1;
+    private static final long UNITS_PER_TOKEN = 1 << 12;
+    private static final long MAX_CAPACITY = LEVEL_MASK / UNITS_PER_TOKEN;
+
+    private final int depth;
+    private final int width;
+    private final AtomicLongArray cells;
+    private final long capacityUnits;
+    private final double drainUnitsPerMilli;
+    private final LongSupplier clock;
+    private final long origin;
+    private final long seed = ThreadLocalRandom.current().nextLong();
+
+    /**
+     * @param capacity        burst size in tokens
+     * @param refillPerMinute tokens returned to each bucket per minute
+     * @param width           cells per row, rounded up to a power of two
+     * @param depth           number of rows (independent hashes)
+     */
+    public SketchRateLimiter(int capacity, double refillPerMinute, int width, int depth) {
+        this(capacity, refillPerMinute, width, depth, System::currentTimeMillis);
+    }
+
+    public SketchRateLimiter(int capacity, double refillPerMinute, int width, int depth, LongSupplier clock) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be between 1 and " + MAX_CAPACITY);
+        }
+        if (refillPerMinute <= 0 || depth < 1 || width < 1) {
+            throw new IllegalArgumentException("refill rate, width and depth must be positive");
+        }
+        this.depth = depth;
+        int rounded = Integer.highestOneBit(width);
+        this.width = rounded < width ? rounded << 1 : rounded;
+        this.cells = new AtomicLongArray(this.depth * this.width);
+        this.capacityUnits = capacity * UNITS_PER_TOKEN;
+        this.drainUnitsPerMilli = refillPerMinute * UNITS_PER_TOKEN / 60_000.0;
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+    }
+
+    /**
+     * Takes one token from {@code key}'s bucket.
+     *
+     * @return {@code false} if the bucket is empty and the request should be rejected
+     */
+    public boolean tryAcquire(String key) {
+        long now = clock.getAsLong() - origin;
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, level(cells.get(index(row, h1, h2)), now));
+        }
+        long target = estimate + UNITS_PER_TOKEN;
+        if (target > capacityUnits) {
+            return false;
+        }
+
+        // conservative update: only raise cells that are below the key's new level
+        for (int row = 0; row < depth; row++) {
+            int index = index(row, h1, h2);
+            while (true) {
+                long cell = cells.get(index);
+                long current = level(cell, now);
+                if (current >= target) {
+                    break;
+                }
+                if (cells.compareAndSet(index, cell, pack(now, target))) {
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Seconds until a key that was just rejected has a token again.
+     */
+    public int retryAfterSeconds() {
+        return (int) Math.max(1, Math.ceil(UNITS_PER_TOKEN / drainUnitsPerMilli / 1000.0));
+    }
+
+    private int index(int row, int h1, int h2) {
+        return row * width + ((h1 + row * h2) & (width - 1));
+    }
+
+    private long level(long cell, long now) {
+        long stored = cell & LEVEL_MASK;
+        long elapsed = now - (cell >>> LEVEL_BITS);
+        if (stored == 0 || elapsed <= 0) {
+            return stored;
+        }
+        long drained = (long) (elapsed * drainUnitsPerMilli);
+        return Math.max(0, stored - drained);
+    }
+
+    private static long pack(long now, long level) {
+        return (now << LEVEL_BITS) | (level & LEVEL_MASK);
+    }
+
+    // seeded FNV-1a over the characters; the per-instance seed keeps collisions from being precomputed
+    private long hash(String key) {
+        long hash = seed ^ 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // 64-bit finalizer from MurmurHash3
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,111 @@
+package mjyuu.vocaloidshop.util;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * {@link LruCache} of values loaded by id for data that changes inside transactions.
+ *
+ * Invalidations take effect once the changing transaction commits. A load that overlaps an
+ * invalidation of its id is returned but not cached, so a reader that saw the old rows cannot
+ * put them back after the change: loads and invalidations share one of a fixed set of versioned
+ * stripes per id, and a load is only kept if its stripe did not move while it read the database.
+ */
+public class VersionedLruCache<V> {
+
+    private static final int STRIPES = 1024;
+
+    private final LruCache<Long, V> cache;
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+    // moved by invalidateIf, which may drop entries of any stripe
+    private final AtomicLong sweeps = new AtomicLong();
+
+    public VersionedLruCache(int maxSize, long ttlMillis) {
+        this.cache = new LruCache<>(maxSize, ttlMillis);
+    }
+
+    /**
+     * @return the cached value, or the one {@code loader} returns, which may be null for ids that do not exist
+     */
+    public V load(Long id, Function<Long, V> loader) {
+        V cached = cache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long sweep = sweeps.get();
+        long version = versions.get(stripe(id));
+        V loaded = loader.apply(id);
+        if (loaded != null && versions.get(stripe(id)) == version && sweeps.get() == sweep) {
+            cache.put(id, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Like {@link #load} for many ids, with a single call to {@code loader} for all the misses.
+     *
+     * @param loader returns the values it found, by id
+     * @return the values of the ids that exist, by id
+     */
+    public Map<Long, V> loadAll(Collection<Long> ids, Function<Set<Long>, Map<Long, V>> loader) {
+        Map<Long, V> found = new HashMap<>();
+        Map<Long, Long> misses = new HashMap<>();
+        for (Long id : ids) {
+            V cached = cache.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.put(id, versions.get(stripe(id)));
+            }
+        }
+        if (misses.isEmpty()) {
+            return found;
+        }
+
+        long sweep = sweeps.get();
+        loader.apply(new LinkedHashSet<>(misses.keySet())).forEach((id, loaded) -> {
+            found.put(id, loaded);
+            if (versions.get(stripe(id)) == misses.get(id) && sweeps.get() == sweep) {
+                cache.put(id, loaded);
+            }
+        });
+        return found;
+    }
+
+    /**
+     * Drops {@code id} once the surrounding transaction commits, or now outside a transaction.
+     */
+    public void invalidateAfterCommit(Long id) {
+        AfterCommit.run(() -> invalidate(id));
+    }
+
+    /**
+     * Drops every entry matching {@code predicate} once the surrounding transaction commits.
+     */
+    public void invalidateIfAfterCommit(Predicate<V> predicate) {
+        AfterCommit.run(() -> {
+            sweeps.incrementAndGet();
+            cache.invalidateIf(predicate);
+        });
+    }
+
+    /**
+     * Drops {@code id} now, for callers that already run after the commit, such as
+     * after-commit event listeners, where a further after-commit callback would never run.
+     */
+    public void invalidate(Long id) {
+        versions.incrementAndGet(stripe(id));
+        cache.invalidate(id);
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id * 0x9E3779B97F4A7C15L) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,70 @@
+package mjyuu.vocaloidshop.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import mjyuu.vocaloidshop.entity.User;
+import mjyuu.vocaloidshop.util.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token validation cost: a parser built per call (the previous JwtUtil),
+ * a shared parser without caching, and JwtUtil with its verified-token cache.
+ *
+ * Run with {@code mvn test-compile} and then
+ * {@code java -cp target/test-classes:$(cat cp.txt) mjyuu.vocaloidshop.benchmark.JwtValidationBenchmark},
+ * where cp.txt comes from {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = "MySuperSecretKeyForJWTSigningVocaloCart2025!!";
+
+    private final Key key = Keys.hmacShaKeyFor(SECRET.getBytes());
+    private final io.jsonwebtoken.JwtParser sharedParser = Jwts.parserBuilder().setSigningKey(key).build();
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        token = jwtUtil.generateToken(1L, "test@example.com", User.Role.USER);
+        jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public Claims parserPerCall() {
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public Claims sharedParser() {
+        return sharedParser.parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public Claims cachedValidation() {
+        return jwtUtil.validateToken(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtValidationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -84,7 +84,7 @@ class AuthControllerTest {
         when(userRepository.existsByEmail(anyString())).thenReturn(false);
         when(passwordEncoder.encode(anyString())).thenReturn("$2a$10$encodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(mockUser);
-        when(jwtUtil.generateToken(anyLong(), anyString())).thenReturn("mock.jwt.token");
+        when(jwtUtil.generateToken(anyLong(), anyString(), any())).thenReturn("mock.jwt.token");
 
         // When & Then
         mockMvc.perform(post("/api/auth/register")
@@ -99,7 +99,7 @@ class AuthControllerTest {
         // Verify
         verify(userRepository, times(1)).existsByEmail("test@example.com");
         verify(userRepository, times(1)).save(any(User.class));
-        verify(jwtUtil, times(1)).generateToken(anyLong(), anyString());
+        verify(jwtUtil, times(1)).generateToken(anyLong(), anyString(), any());
     }
 
     @Test
@@ -125,7 +125,7 @@ class AuthControllerTest {
         // Given
         when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(mockUser));
         when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
-        when(jwtUtil.generateToken(anyLong(), anyString())).thenReturn("mock.jwt.token");
+        when(jwtUtil.generateToken(anyLong(), anyString(), any())).thenReturn("mock.jwt.token");
 
         // When & Then
         mockMvc.perform(post("/api/auth/login")
@@ -139,7 +139,7 @@ class AuthControllerTest {
         // Verify
         verify(userRepository, times(1)).findByEmail("test@example.com");
         verify(passwordEncoder, times(1)).matches("password123", "$2a$10$encodedPassword");
-        verify(jwtUtil, times(1)).generateToken(1L, "test@example.com");
+        verify(jwtUtil, times(1)).generateToken(1L, "test@example.com", User.Role.USER);
     }
 
     @Test
@@ -175,7 +175,7 @@ class AuthControllerTest {
         // Verify
         verify(userRepository, times(1)).findByEmail("test@example.com");
         verify(passwordEncoder, times(1)).matches(anyString(), anyString());
-        verify(jwtUtil, never()).generateToken(anyLong(), anyString());
+        verify(jwtUtil, never()).generateToken(anyLong(), anyString(), any());
     }
 
     @Test
@@ -0,0 +1,85 @@
+package mjyuu.vocaloidshop.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("ClientAddressResolver Tests")
+class ClientAddressResolverTest {
+
+    private final ClientAddressResolver resolver = new ClientAddressResolver("10.0.0.0/8, 192.0.2.1");
+
+    @Test
+    @DisplayName("Should take the client from X-Forwarded-For behind a trusted proxy")
+    void testTrustedProxy() {
+        // Given
+        MockHttpServletRequest request = request("10.1.2.3");
+        request.addHeader(ClientAddressResolver.FORWARDED_FOR, "203.0.113.9, 192.0.2.1");
+
+        // When
+        String client = resolver.resolve(request);
+
+        // Then
+        assertThat(client).isEqualTo("203.0.113.9");
+    }
+
+    @Test
+    @DisplayName("Should ignore entries the client prepended itself")
+    void testSpoofedEntries() {
+        // Given
+        MockHttpServletRequest request = request("10.1.2.3");
+        request.addHeader(ClientAddressResolver.FORWARDED_FOR, "198.51.100.1, 203.0.113.9");
+
+        // When
+        String client = resolver.resolve(request);
+
+        // Then
+        assertThat(client).isEqualTo("203.0.113.9");
+    }
+
+    @Test
+    @DisplayName("Should ignore X-Forwarded-For on connections from untrusted peers")
+    void testUntrustedPeer() {
+        // Given
+        MockHttpServletRequest request = request("203.0.113.9");
+        request.addHeader(ClientAddressResolver.FORWARDED_FOR, "198.51.100.1");
+
+        // When
+        String client = resolver.resolve(request);
+
+        // Then
+        assertThat(client).isEqualTo("203.0.113.9");
+        assertThat(new ClientAddressResolver("").resolve(request("10.1.2.3"))).isEqualTo("10.1.2.3");
+    }
+
+    @Test
+    @DisplayName("Should limit clients behind the same proxy separately")
+    void testRateLimitPerForwardedClient() throws Exception {
+        // Given
+        AuthRateLimitFilter filter = new AuthRateLimitFilter(new AuthRateLimiter(1, 1, 10, 5), resolver,
+                new ObjectMapper().findAndRegisterModules());
+        int[] passed = new int[1];
+
+        // When
+        for (String client : new String[]{"203.0.113.9", "203.0.113.9", "198.51.100.1"}) {
+            MockHttpServletRequest request = request("10.1.2.3");
+            request.setMethod("POST");
+            request.setRequestURI("/api/auth/login");
+            request.addHeader(ClientAddressResolver.FORWARDED_FOR, client);
+            filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> passed[0]++);
+        }
+
+        // Then
+        assertThat(passed[0]).isEqualTo(2);
+    }
+
+    private MockHttpServletRequest request(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
@@ -0,0 +1,284 @@
+package mjyuu.vocaloidshop.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import mjyuu.vocaloidshop.entity.IdempotencyRecord;
+import mjyuu.vocaloidshop.repository.IdempotencyRecordRepository;
+import mjyuu.vocaloidshop.service.IdempotencyService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IdempotencyFilter Tests")
+class IdempotencyFilterTest {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private IdempotencyFilter idempotencyFilter;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        idempotencyFilter = filter(65536);
+        lenient().when(idempotencyRecordRepository.findById(anyString())).thenReturn(Optional.empty());
+        lenient().when(idempotencyRecordRepository.insertPending(anyString(), anyString(), any())).thenReturn(1);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("test@example.com", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should replay the stored response without executing the request again")
+    void testReplay() throws Exception {
+        // Given
+        FilterChain chain = countingChain(null);
+        idempotencyFilter.doFilter(request("key-1", "{\"productId\":1,\"quantity\":1}"), new MockHttpServletResponse(), chain);
+
+        // When
+        MockHttpServletResponse replayed = new MockHttpServletResponse();
+        idempotencyFilter.doFilter(request("key-1", "{\"productId\":1,\"quantity\":1}"), replayed, chain);
+
+        // Then
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(replayed.getStatus()).isEqualTo(200);
+        assertThat(replayed.getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(replayed.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        verify(idempotencyRecordRepository, times(1)).save(any());
+    }
+
+    @Test
+    @DisplayName("Should reject a reused key with a different body")
+    void testKeyReusedWithDifferentBody() throws Exception {
+        // Given
+        FilterChain chain = countingChain(null);
+        idempotencyFilter.doFilter(request("key-2", "{\"quantity\":1}"), new MockHttpServletResponse(), chain);
+
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        idempotencyFilter.doFilter(request("key-2", "{\"quantity\":2}"), response, chain);
+
+        // Then
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(response.getStatus()).isEqualTo(422);
+    }
+
+    @Test
+    @DisplayName("Should make a concurrent duplicate wait for the in-flight execution")
+    void testConcurrentDuplicateWaits() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain chain = countingChain(release);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // When
+            Future<MockHttpServletResponse> first = executor.submit(() -> run(chain, "key-3"));
+            while (executions.get() == 0) {
+                Thread.onSpinWait();
+            }
+            Future<MockHttpServletResponse> second = executor.submit(() -> run(chain, "key-3"));
+            Thread.sleep(100);
+            release.countDown();
+
+            // Then
+            assertThat(first.get(5, TimeUnit.SECONDS).getContentAsString()).isEqualTo("{\"id\":1}");
+            MockHttpServletResponse duplicate = second.get(5, TimeUnit.SECONDS);
+            assertThat(duplicate.getContentAsString()).isEqualTo("{\"id\":1}");
+            assertThat(duplicate.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+            assertThat(executions.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should execute again when the first attempt failed with a server error")
+    void testServerErrorNotStored() throws Exception {
+        // Given
+        FilterChain failing = (req, res) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(500);
+        };
+        idempotencyFilter.doFilter(request("key-4", "{}"), new MockHttpServletResponse(), failing);
+
+        // When
+        idempotencyFilter.doFilter(request("key-4", "{}"), new MockHttpServletResponse(), failing);
+
+        // Then
+        assertThat(executions.get()).isEqualTo(2);
+        verify(idempotencyRecordRepository, never()).save(any());
+        verify(idempotencyRecordRepository, times(2)).deletePending(anyString());
+    }
+
+    @Test
+    @DisplayName("Should wait for an execution claimed on another node and replay its response")
+    void testWaitsForOtherNode() throws Exception {
+        // Given: another node holds the pending row and stores its response a little later
+        FilterChain chain = countingChain(null);
+        when(idempotencyRecordRepository.insertPending(anyString(), anyString(), any())).thenReturn(0);
+        when(idempotencyRecordRepository.findById(anyString())).thenReturn(
+                Optional.empty(),
+                Optional.of(IdempotencyRecord.builder()
+                        .id("other")
+                        .requestHash(sha256OfEmptyBody())
+                        .status(201)
+                        .contentType("application/json")
+                        .body("{\"id\":7}".getBytes(StandardCharsets.UTF_8))
+                        .createdAt(LocalDateTime.now())
+                        .build()));
+
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        idempotencyFilter.doFilter(request("key-7", "{}"), response, chain);
+
+        // Then
+        assertThat(executions.get()).isZero();
+        assertThat(response.getStatus()).isEqualTo(201);
+        assertThat(response.getContentAsString()).isEqualTo("{\"id\":7}");
+    }
+
+    @Test
+    @DisplayName("Should refuse to execute again when the response was too large to keep")
+    void testOversizedResponseNotReExecuted() throws Exception {
+        // Given
+        idempotencyFilter = filter(4);
+        FilterChain chain = countingChain(null);
+        idempotencyFilter.doFilter(request("key-8", "{}"), new MockHttpServletResponse(), chain);
+
+        // When
+        MockHttpServletResponse replayed = new MockHttpServletResponse();
+        idempotencyFilter.doFilter(request("key-8", "{}"), replayed, chain);
+
+        // Then
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(replayed.getStatus()).isEqualTo(409);
+    }
+
+    @Test
+    @DisplayName("Should reject a body over the limit without executing the request")
+    void testBodyTooLarge() throws Exception {
+        // Given
+        FilterChain chain = countingChain(null);
+        MockHttpServletRequest request = request("key-5", "x".repeat(65));
+
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        idempotencyFilter.doFilter(request, response, chain);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(executions.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should hand the buffered body to a non-blocking reader")
+    void testReadListener() throws Exception {
+        // Given
+        StringBuilder read = new StringBuilder();
+        FilterChain chain = (req, res) -> {
+            ServletInputStream input = req.getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (input.isReady() && !input.isFinished()) {
+                        read.append((char) input.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    read.append('|');
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    read.append('!');
+                }
+            });
+        };
+
+        // When
+        idempotencyFilter.doFilter(request("key-6", "{}"), new MockHttpServletResponse(), chain);
+
+        // Then
+        assertThat(read.toString()).isEqualTo("{}|");
+    }
+
+    private IdempotencyFilter filter(int maxBodyBytes) {
+        IdempotencyService idempotencyService = new IdempotencyService(idempotencyRecordRepository, 100, 24, maxBodyBytes, 60);
+        return new IdempotencyFilter(idempotencyService, new ObjectMapper().findAndRegisterModules(), 64);
+    }
+
+    private static String sha256OfEmptyBody() throws Exception {
+        // the filter hashes the query string (none) and the body
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest("null\n{}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private MockHttpServletResponse run(FilterChain chain, String key) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("test@example.com", null, List.of()));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        idempotencyFilter.doFilter(request(key, "{}"), response, chain);
+        return response;
+    }
+
+    private FilterChain countingChain(CountDownLatch release) {
+        return (req, res) -> {
+            executions.incrementAndGet();
+            req.getInputStream().readAllBytes();
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            res.setContentType("application/json");
+            res.getOutputStream().write("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletRequest request(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/cart/1");
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,98 @@
+package mjyuu.vocaloidshop.security;
+
+import mjyuu.vocaloidshop.entity.User;
+import mjyuu.vocaloidshop.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PrincipalCache Tests")
+class PrincipalCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private PrincipalCache principalCache;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache(userRepository, 100, 300);
+    }
+
+    @Test
+    @DisplayName("Should trust the role claim without a database lookup")
+    void testResolveFromClaims() {
+        // When
+        AuthenticatedUser principal = principalCache.resolve(1L, "test@example.com", User.Role.ADMIN, new Date());
+
+        // Then
+        assertThat(principal.isAdmin()).isTrue();
+        assertThat(principal.getName()).isEqualTo("test@example.com");
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should load tokens without a role claim once and cache them")
+    void testResolveLegacyToken() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(User.Role.USER)));
+
+        // When
+        principalCache.resolve(1L, "test@example.com", null, new Date());
+        AuthenticatedUser principal = principalCache.resolve(1L, "test@example.com", null, new Date());
+
+        // Then
+        assertThat(principal.role()).isEqualTo(User.Role.USER);
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Should stop trusting tokens issued before a role change")
+    void testInvalidateAfterRoleChange() {
+        // Given
+        Date issuedAt = new Date(System.currentTimeMillis() - 60_000);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(User.Role.USER)));
+
+        // When
+        principalCache.invalidate(1L);
+        AuthenticatedUser principal = principalCache.resolve(1L, "test@example.com", User.Role.ADMIN, issuedAt);
+
+        // Then
+        assertThat(principal.isAdmin()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject tokens of a deleted user")
+    void testInvalidateAfterDeletion() {
+        // Given
+        Date issuedAt = new Date(System.currentTimeMillis() - 60_000);
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // When
+        principalCache.invalidate(1L);
+        AuthenticatedUser principal = principalCache.resolve(1L, "test@example.com", User.Role.USER, issuedAt);
+
+        // Then
+        assertThat(principal).isNull();
+    }
+
+    private User user(User.Role role) {
+        return User.builder()
+                .id(1L)
+                .email("test@example.com")
+                .name("Test User")
+                .role(role)
+                .build();
+    }
+}
@@ -0,0 +1,161 @@
+package mjyuu.vocaloidshop.service;
+
+import mjyuu.vocaloidshop.dto.AccountBootstrapDTO;
+import mjyuu.vocaloidshop.entity.Order;
+import mjyuu.vocaloidshop.entity.OrderStatus;
+import mjyuu.vocaloidshop.entity.User;
+import mjyuu.vocaloidshop.exception.ResourceNotFoundException;
+import mjyuu.vocaloidshop.repository.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AccountBootstrapService Tests")
+class AccountBootstrapServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private WishlistItemRepository wishlistItemRepository;
+
+    @Mock
+    private AddressRepository addressRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Mock
+    private RecentlyViewedService recentlyViewedService;
+
+    private AccountBootstrapService accountBootstrapService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        accountBootstrapService = new AccountBootstrapService(userRepository, cartItemRepository,
+                wishlistItemRepository, addressRepository, orderRepository, archivedOrderRepository, recentlyViewedService, 300);
+
+        testUser = User.builder()
+                .id(1L)
+                .email("test@example.com")
+                .password("$2a$10$hash")
+                .name("Test User")
+                .role(User.Role.USER)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        accountBootstrapService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should assemble every part of the bootstrap response")
+    void testBootstrapComplete() {
+        // Given
+        Order order = Order.builder()
+                .id(9L)
+                .status(OrderStatus.IN_DELIVERY)
+                .totalAmount(3000)
+                .orderedAt(LocalDateTime.now())
+                .build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(cartItemRepository.summarizeByUserId(1L)).thenReturn(cartSummary(2L, 3L, 4500L));
+        when(wishlistItemRepository.findProductIdsByUserId(1L)).thenReturn(List.of(5L, 4L));
+        when(addressRepository.findByUserIdAndIsDefaultTrue(1L)).thenReturn(Optional.empty());
+        when(orderRepository.findFirstByUserIdOrderByOrderedAtDescIdDesc(1L)).thenReturn(Optional.of(order));
+
+        // When
+        AccountBootstrapDTO result = accountBootstrapService.bootstrap(1L);
+
+        // Then
+        assertThat(result.getIncomplete()).isEmpty();
+        assertThat(result.getProfile().getEmail()).isEqualTo("test@example.com");
+        assertThat(result.getCart().getSubtotal()).isEqualTo(4500L);
+        assertThat(result.getWishlistProductIds()).containsExactly(5L, 4L);
+        assertThat(result.getDefaultAddress()).isNull();
+        assertThat(result.getLatestOrder().getStatus()).isEqualTo(OrderStatus.IN_DELIVERY);
+        verifyNoInteractions(archivedOrderRepository);
+    }
+
+    @Test
+    @DisplayName("Should return partial results when a part misses the deadline")
+    void testBootstrapDeadline() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(cartItemRepository.summarizeByUserId(1L)).thenReturn(cartSummary(0L, 0L, 0L));
+        when(wishlistItemRepository.findProductIdsByUserId(1L)).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return List.of();
+        });
+        when(addressRepository.findByUserIdAndIsDefaultTrue(1L)).thenReturn(Optional.empty());
+        when(orderRepository.findFirstByUserIdOrderByOrderedAtDescIdDesc(1L)).thenReturn(Optional.empty());
+        when(archivedOrderRepository.findUserHistory(1L, 0, 1)).thenReturn(List.of());
+
+        // When
+        long started = System.nanoTime();
+        AccountBootstrapDTO result = accountBootstrapService.bootstrap(1L);
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        // Then
+        assertThat(elapsedMs).isLessThan(2_000);
+        assertThat(result.getIncomplete()).containsExactly("wishlist");
+        assertThat(result.getWishlistProductIds()).isNull();
+        assertThat(result.getProfile()).isNotNull();
+        assertThat(result.getLatestOrder()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should report a failed part as incomplete and 404 a missing user")
+    void testBootstrapFailures() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(cartItemRepository.summarizeByUserId(1L)).thenThrow(new RuntimeException("Connection reset"));
+        when(wishlistItemRepository.findProductIdsByUserId(anyLong())).thenReturn(List.of());
+        when(addressRepository.findByUserIdAndIsDefaultTrue(anyLong())).thenReturn(Optional.empty());
+        when(orderRepository.findFirstByUserIdOrderByOrderedAtDescIdDesc(anyLong())).thenReturn(Optional.empty());
+        when(archivedOrderRepository.findUserHistory(anyLong(), eq(0L), eq(1))).thenReturn(List.of());
+
+        // When
+        AccountBootstrapDTO result = accountBootstrapService.bootstrap(1L);
+
+        // Then
+        assertThat(result.getIncomplete()).containsExactly("cart");
+        assertThat(result.getProfile()).isNotNull();
+
+        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+        when(cartItemRepository.summarizeByUserId(2L)).thenReturn(cartSummary(0L, 0L, 0L));
+        assertThatThrownBy(() -> accountBootstrapService.bootstrap(2L))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private static CartItemRepository.CartSummaryView cartSummary(Long items, Long quantity, Long subtotal) {
+        return new CartItemRepository.CartSummaryView() {
+            public Long getItemCount() { return items; }
+            public Long getTotalQuantity() { return quantity; }
+            public Long getSubtotal() { return subtotal; }
+        };
+    }
+}
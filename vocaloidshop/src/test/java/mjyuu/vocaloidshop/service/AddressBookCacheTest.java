@@ -0,0 +1,63 @@
+package mjyuu.vocaloidshop.service;
+
+import mjyuu.vocaloidshop.repository.AddressRepository;
+import mjyuu.vocaloidshop.repository.AddressRepository.AddressView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AddressBookCache Tests")
+class AddressBookCacheTest {
+
+    @Mock
+    private AddressRepository addressRepository;
+
+    private AddressBookCache addressBookCache;
+
+    @BeforeEach
+    void setUp() {
+        addressBookCache = new AddressBookCache(addressRepository, 100, 60);
+    }
+
+    @Test
+    @DisplayName("Should only find the user's own addresses")
+    void testFindAddress() {
+        // Given
+        AddressView home = mock(AddressView.class);
+        when(home.getId()).thenReturn(10L);
+        when(addressRepository.findViewsByUserId(1L)).thenReturn(List.of(home));
+
+        // When / Then
+        assertThat(addressBookCache.findAddress(1L, 10L)).contains(home);
+        assertThat(addressBookCache.findAddress(1L, 99L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should serve the address book from the cache until invalidated")
+    void testCacheAndInvalidate() {
+        // Given
+        AddressView home = mock(AddressView.class);
+        when(addressRepository.findViewsByUserId(1L)).thenReturn(List.of(), List.of(home));
+
+        // When
+        List<AddressView> first = addressBookCache.getAddressBook(1L);
+        List<AddressView> cached = addressBookCache.getAddressBook(1L);
+        addressBookCache.invalidate(1L);
+        List<AddressView> reloaded = addressBookCache.getAddressBook(1L);
+
+        // Then
+        assertThat(first).isEmpty();
+        assertThat(cached).isEmpty();
+        assertThat(reloaded).containsExactly(home);
+        verify(addressRepository, times(2)).findViewsByUserId(1L);
+    }
+}
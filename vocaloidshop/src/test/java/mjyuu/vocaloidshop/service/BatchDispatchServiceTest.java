@@ -0,0 +1,235 @@
+package mjyuu.vocaloidshop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import mjyuu.vocaloidshop.dto.BatchResponseDTO;
+import mjyuu.vocaloidshop.dto.BatchSubRequestDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletConfig;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.WebInvocationPrivilegeEvaluator;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BatchDispatchService Tests")
+class BatchDispatchServiceTest {
+
+    @Mock
+    private DispatcherServlet dispatcherServlet;
+
+    @Mock
+    private WebInvocationPrivilegeEvaluator privilegeEvaluator;
+
+    private BatchDispatchService batchDispatchService;
+
+    private MockHttpServletRequest request;
+
+    private Authentication authentication;
+
+    @BeforeEach
+    void setUp() {
+        batchDispatchService = new BatchDispatchService(dispatcherServlet, privilegeEvaluator, new ObjectMapper(), 10, 2, 2000);
+        request = new MockHttpServletRequest("POST", "/api/batch");
+        request.addHeader("Authorization", "Bearer token");
+        request.setContentType("application/json");
+        authentication = new UsernamePasswordAuthenticationToken("test@example.com", null, List.of());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        batchDispatchService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should dispatch GET sub-requests with their own path, parameters and security context")
+    void testDispatch() throws Exception {
+        // Given
+        when(privilegeEvaluator.isAllowed(anyString(), anyString(), eq("GET"), eq(authentication))).thenReturn(true);
+        doAnswer(invocation -> {
+            HttpServletRequest sub = invocation.getArgument(0);
+            HttpServletResponse response = invocation.getArgument(1);
+            assertThat(SecurityContextHolder.getContext().getAuthentication()).isSameAs(authentication);
+            response.setContentType("application/json");
+            response.getOutputStream().write(("{\"method\":\"" + sub.getMethod() + "\",\"uri\":\"" + sub.getRequestURI()
+                    + "\",\"page\":\"" + sub.getParameter("page") + "\",\"auth\":\"" + sub.getHeader("Authorization")
+                    + "\",\"type\":\"" + sub.getContentType() + "\"}").getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(dispatcherServlet).service(any(), any());
+
+        // When
+        BatchResponseDTO result = batchDispatchService.dispatch(request, List.of(
+                BatchSubRequestDTO.builder().id("cart").path("/api/cart/1").build(),
+                BatchSubRequestDTO.builder().path("/api/products?page=2").build()));
+
+        // Then
+        assertThat(result.getResponses()).hasSize(2);
+        assertThat(result.getResponses().get(0).getId()).isEqualTo("cart");
+        assertThat(result.getResponses().get(0).getStatus()).isEqualTo(200);
+        assertThat(result.getResponses().get(0).getBody().get("method").asText()).isEqualTo("GET");
+        assertThat(result.getResponses().get(0).getBody().get("uri").asText()).isEqualTo("/api/cart/1");
+        assertThat(result.getResponses().get(0).getBody().get("auth").asText()).isEqualTo("Bearer token");
+        assertThat(result.getResponses().get(0).getBody().get("type").asText()).isEqualTo("null");
+        assertThat(result.getResponses().get(1).getId()).isEqualTo("1");
+        assertThat(result.getResponses().get(1).getBody().get("page").asText()).isEqualTo("2");
+    }
+
+    @Test
+    @DisplayName("Should refuse sub-requests the caller may not access or that leave /api/")
+    void testRejectedSubRequests() throws Exception {
+        // Given
+        when(privilegeEvaluator.isAllowed(anyString(), eq("/api/admin/users/1"), eq("GET"), eq(authentication)))
+                .thenReturn(false);
+
+        // When
+        BatchResponseDTO result = batchDispatchService.dispatch(request, List.of(
+                BatchSubRequestDTO.builder().path("/api/admin/users/1").build(),
+                BatchSubRequestDTO.builder().path("/api/../actuator/env").build(),
+                BatchSubRequestDTO.builder().path("/api/batch").build(),
+                BatchSubRequestDTO.builder().path("http://example.com/api/cart/1").build()));
+
+        // Then
+        assertThat(result.getResponses()).extracting("status").containsExactly(403, 400, 400, 400);
+        verify(dispatcherServlet, never()).service(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should run no more sub-requests at once than the concurrency limit")
+    void testConcurrencyLimit() throws Exception {
+        // Given
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(privilegeEvaluator.isAllowed(anyString(), anyString(), eq("GET"), eq(authentication))).thenReturn(true);
+        doAnswer(invocation -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            running.decrementAndGet();
+            HttpServletResponse response = invocation.getArgument(1);
+            response.sendError(404);
+            return null;
+        }).when(dispatcherServlet).service(any(), any());
+
+        // When
+        BatchResponseDTO result = batchDispatchService.dispatch(request,
+                IntStream.range(0, 8)
+                        .mapToObj(i -> BatchSubRequestDTO.builder().path("/api/products/" + i).build())
+                        .toList());
+
+        // Then
+        assertThat(peak.get()).isBetween(1, 2);
+        assertThat(result.getResponses()).extracting("status").containsOnly(404);
+    }
+
+    @Test
+    @DisplayName("Should report sub-requests still running at the deadline as 504")
+    void testDeadline() throws Exception {
+        // Given
+        BatchDispatchService service = new BatchDispatchService(dispatcherServlet, privilegeEvaluator, new ObjectMapper(), 10, 2, 200);
+        when(privilegeEvaluator.isAllowed(anyString(), anyString(), eq("GET"), eq(authentication))).thenReturn(true);
+        doAnswer(invocation -> {
+            HttpServletRequest sub = invocation.getArgument(0);
+            if (sub.getRequestURI().endsWith("/slow")) {
+                Thread.sleep(5000);
+            }
+            return null;
+        }).when(dispatcherServlet).service(any(), any());
+
+        try {
+            // When
+            BatchResponseDTO result = service.dispatch(request, List.of(
+                    BatchSubRequestDTO.builder().id("fast").path("/api/products/1").build(),
+                    BatchSubRequestDTO.builder().id("slow").path("/api/products/slow").build()));
+
+            // Then
+            assertThat(result.getResponses()).extracting("id").containsExactly("fast", "slow");
+            assertThat(result.getResponses()).extracting("status").containsExactly(200, 504);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve sub-requests through a real DispatcherServlet without the container request")
+    void testRealDispatcher() throws Exception {
+        // Given
+        AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+        context.register(EchoConfig.class);
+        MockServletContext servletContext = new MockServletContext();
+        context.setServletContext(servletContext);
+        DispatcherServlet servlet = new DispatcherServlet(context);
+        servlet.init(new MockServletConfig(servletContext));
+        BatchDispatchService service = new BatchDispatchService(servlet, privilegeEvaluator, new ObjectMapper(), 10, 2, 2000);
+        when(privilegeEvaluator.isAllowed(anyString(), anyString(), eq("GET"), eq(authentication))).thenReturn(true);
+
+        try {
+            // When
+            BatchResponseDTO result = service.dispatch(request, List.of(
+                    BatchSubRequestDTO.builder().path("/api/echo/7?page=3").build(),
+                    BatchSubRequestDTO.builder().path("/api/missing").build()));
+
+            // Then
+            assertThat(result.getResponses().get(0).getStatus()).isEqualTo(200);
+            assertThat(result.getResponses().get(0).getBody().get("id").asLong()).isEqualTo(7);
+            assertThat(result.getResponses().get(0).getBody().get("page").asInt()).isEqualTo(3);
+            assertThat(result.getResponses().get(0).getBody().get("auth").asText()).isEqualTo("Bearer token");
+            assertThat(result.getResponses().get(1).getStatus()).isEqualTo(404);
+        } finally {
+            service.shutdown();
+            servlet.destroy();
+        }
+    }
+
+    @Configuration
+    @EnableWebMvc
+    static class EchoConfig {
+
+        @Bean
+        EchoController echoController() {
+            return new EchoController();
+        }
+    }
+
+    @RestController
+    static class EchoController {
+
+        @GetMapping("/api/echo/{id}")
+        Map<String, Object> echo(@PathVariable Long id,
+                                 @RequestParam int page,
+                                 @RequestHeader("Authorization") String auth) {
+            return Map.of("id", id, "page", page, "auth", auth);
+        }
+    }
+}
@@ -37,6 +37,12 @@ class CartServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private MembershipService membershipService;
+
+    @Mock
+    private TrendingService trendingService;
+
     @InjectMocks
     private CartService cartService;
 
@@ -0,0 +1,107 @@
+package mjyuu.vocaloidshop.service;
+
+import mjyuu.vocaloidshop.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+@DisplayName("EventStreamHub Tests")
+class EventStreamHubTest {
+
+    private EventStreamHub hub;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        hub = new EventStreamHub(4, 3, 60_000);
+        mockMvc = standaloneSetup(new StreamController(hub)).build();
+    }
+
+    @Test
+    @DisplayName("Should deliver events and heartbeats to the subscribers of a topic only")
+    void testFanOut() throws Exception {
+        // Given
+        MockHttpServletResponse first = open("a");
+        MockHttpServletResponse second = open("a");
+        MockHttpServletResponse other = open("b");
+
+        // When
+        hub.publish("a", "greeting", Map.of("text", "hello"));
+        hub.heartbeat();
+
+        // Then
+        for (MockHttpServletResponse response : new MockHttpServletResponse[]{first, second}) {
+            eventually(() -> assertThat(response.getContentAsString())
+                    .contains("event:greeting\ndata:{\"text\":\"hello\"}\n\n")
+                    .containsPattern("(?s)greeting.*:heartbeat"));
+        }
+        eventually(() -> assertThat(other.getContentAsString()).contains(":heartbeat").doesNotContain("greeting"));
+        assertThat(hub.connectionCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should refuse connections over the limit and free slots as streams close")
+    void testConnectionLimit() throws Exception {
+        // Given
+        open("a");
+        open("a");
+        open("b");
+
+        // When / Then
+        assertThatThrownBy(() -> hub.subscribe("c")).isInstanceOf(ServiceUnavailableException.class);
+        hub.shutdown();
+        eventually(() -> assertThat(hub.connectionCount()).isZero());
+        assertThat(hub.subscribe("c")).isNotNull();
+    }
+
+    private MockHttpServletResponse open(String topic) throws Exception {
+        return mockMvc.perform(get("/streams/" + topic)).andReturn().getResponse();
+    }
+
+    // writers run on their own threads
+    private static void eventually(ThrowingRunnable assertion) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            try {
+                assertion.run();
+                return;
+            } catch (AssertionError e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+    @RestController
+    static class StreamController {
+
+        private final EventStreamHub hub;
+
+        StreamController(EventStreamHub hub) {
+            this.hub = hub;
+        }
+
+        @GetMapping("/streams/{topic}")
+        SseEmitter stream(@PathVariable String topic) {
+            return hub.subscribe(topic);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package mjyuu.vocaloidshop.service;
+
+import mjyuu.vocaloidshop.event.OrderPlacedEvent;
+import mjyuu.vocaloidshop.repository.OrderItemRepository;
+import mjyuu.vocaloidshop.repository.OrderItemRepository.OrderProductView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FrequentlyBoughtTogetherService Tests")
+class FrequentlyBoughtTogetherServiceTest {
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    private FrequentlyBoughtTogetherService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new FrequentlyBoughtTogetherService(orderItemRepository, 3, 3, 2);
+    }
+
+    @Test
+    @DisplayName("Should rank products bought together in placed orders, skipping oversized baskets")
+    void testOrderPlaced() {
+        // When
+        service.onOrderPlaced(order(1L, 10L, 20L));
+        service.onOrderPlaced(order(2L, 10L, 20L, 30L));
+        service.onOrderPlaced(order(3L, 10L, 40L, 50L, 60L));
+
+        // Then
+        assertThat(service.getFrequentlyBoughtWith(10L, 5)).containsExactly(20L, 30L);
+        assertThat(service.getFrequentlyBoughtWith(30L, 5)).containsExactlyInAnyOrder(10L, 20L);
+        assertThat(service.getFrequentlyBoughtWith(40L, 5)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should rebuild from order history in id spans and replace the previous counts")
+    void testRebuild() {
+        // Given
+        service.onOrderPlaced(order(1L, 70L, 80L));
+        when(orderItemRepository.findMaxOrderId()).thenReturn(3L);
+        when(orderItemRepository.findOrderProducts(0, 2)).thenReturn(List.of(
+                line(1L, 10L), line(1L, 20L), line(2L, 10L), line(2L, 30L)));
+        when(orderItemRepository.findOrderProducts(2, 3)).thenReturn(List.of(
+                line(3L, 10L), line(3L, 30L)));
+
+        // When
+        var result = service.rebuild();
+
+        // Then
+        assertThat(result).containsEntry("orders", 3).containsEntry("products", 3);
+        assertThat(service.getFrequentlyBoughtWith(10L, 5)).containsExactly(30L, 20L);
+        assertThat(service.getFrequentlyBoughtWith(70L, 5)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should replay orders that committed during a rebuild below ids it already read")
+    void testRebuildReplaysLateCommits() {
+        // Given
+        when(orderItemRepository.findMaxOrderId()).thenReturn(3L);
+        // order 2 had its id but had not committed when its span was read
+        when(orderItemRepository.findOrderProducts(0, 2)).thenReturn(List.of(line(1L, 10L), line(1L, 20L)));
+        when(orderItemRepository.findOrderProducts(2, 3)).thenAnswer(invocation -> {
+            service.onOrderPlaced(order(2L, 10L, 30L));
+            service.onOrderPlaced(order(3L, 10L, 30L));
+            return List.of(line(3L, 10L), line(3L, 30L));
+        });
+
+        // When
+        var result = service.rebuild();
+
+        // Then
+        assertThat(result).containsEntry("orders", 3);
+        assertThat(service.getFrequentlyBoughtWith(10L, 5)).containsExactly(30L, 20L);
+        assertThat(service.getFrequentlyBoughtWith(20L, 5)).containsExactly(10L);
+    }
+
+    private static OrderPlacedEvent order(Long orderId, Long... productIds) {
+        return new OrderPlacedEvent(orderId, 7L, LocalDateTime.now(), 0,
+                Arrays.stream(productIds).map(id -> new OrderPlacedEvent.Line(id, 1, 0)).toList());
+    }
+
+    private static OrderProductView line(Long orderId, Long productId) {
+        return new OrderProductView() {
+            @Override
+            public Long getOrderId() {
+                return orderId;
+            }
+
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+        };
+    }
+}
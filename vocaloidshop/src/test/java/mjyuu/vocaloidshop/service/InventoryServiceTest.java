@@ -0,0 +1,205 @@
+package mjyuu.vocaloidshop.service;
+
+import mjyuu.vocaloidshop.entity.InventoryMovementReason;
+import mjyuu.vocaloidshop.event.BackInStockEvent;
+import mjyuu.vocaloidshop.exception.ResourceNotFoundException;
+import mjyuu.vocaloidshop.repository.InventoryMovementRepository;
+import mjyuu.vocaloidshop.repository.InventorySnapshotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InventoryService Tests")
+class InventoryServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private InventoryMovementRepository inventoryMovementRepository;
+
+    @Mock
+    private InventorySnapshotRepository inventorySnapshotRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private LowStockService lowStockService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private InventoryService inventoryService;
+
+    @BeforeEach
+    void setUp() {
+        inventoryService = new InventoryService(jdbcTemplate, inventoryMovementRepository,
+                inventorySnapshotRepository, transactionManager, lowStockService, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should derive a stock level once and then serve it from the projection")
+    void testGetStockLevelProjection() {
+        // Given
+        when(inventorySnapshotRepository.findDerivedStockLevel(1L)).thenReturn(Optional.of(level(1L, 8L, 5L)));
+
+        // When
+        int first = inventoryService.getStockLevel(1L);
+        int second = inventoryService.getStockLevel(1L);
+
+        // Then
+        assertThat(first).isEqualTo(8);
+        assertThat(second).isEqualTo(8);
+        verify(inventorySnapshotRepository, times(1)).findDerivedStockLevel(1L);
+    }
+
+    @Test
+    @DisplayName("Should move the projection by appended movements")
+    void testAppendUpdatesProjection() {
+        // Given
+        when(inventorySnapshotRepository.findDerivedStockLevel(1L)).thenReturn(Optional.of(level(1L, 8L, 5L)));
+        inventoryService.getStockLevel(1L);
+        stubMovementIds(6L, 7L);
+
+        // When
+        inventoryService.append(List.of(
+                new InventoryService.Movement(1L, -3, InventoryMovementReason.ORDER_PLACED, 10L),
+                new InventoryService.Movement(1L, -1, InventoryMovementReason.ORDER_PLACED, 10L)));
+
+        // Then
+        assertThat(inventoryService.getStockLevel(1L)).isEqualTo(4);
+        verify(jdbcTemplate, times(1)).batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class), any(KeyHolder.class));
+        verify(lowStockService).onStockChanged(1L, 8, 4);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    @DisplayName("Should announce a product that a restock brings back")
+    void testAppendBackInStock() {
+        // Given
+        when(inventorySnapshotRepository.findDerivedStockLevel(1L)).thenReturn(Optional.of(level(1L, 0L, 5L)));
+        inventoryService.getStockLevel(1L);
+        stubMovementIds(6L);
+
+        // When
+        inventoryService.append(List.of(new InventoryService.Movement(1L, 2, InventoryMovementReason.ORDER_CANCELED, 10L)));
+
+        // Then
+        verify(eventPublisher).publishEvent(new BackInStockEvent(1L, 2));
+    }
+
+    @Test
+    @DisplayName("Should keep a movement applied after a reload read the ledger")
+    void testReloadKeepsNewerMovement() {
+        // Given
+        when(inventorySnapshotRepository.findDerivedStockLevel(1L)).thenReturn(Optional.of(level(1L, 8L, 5L)));
+        inventoryService.getStockLevel(1L);
+        stubMovementIds(7L);
+        inventoryService.append(List.of(new InventoryService.Movement(1L, -3, InventoryMovementReason.ORDER_PLACED, 10L)));
+        // the reload read the ledger before movement 7 committed
+        when(inventorySnapshotRepository.findDerivedStockLevels()).thenReturn(List.of(level(1L, 8L, 5L)));
+
+        // When
+        inventoryService.snapshotAndReconcile();
+
+        // Then
+        assertThat(inventoryService.getStockLevel(1L)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should not count a movement twice when a reload already read it")
+    void testReloadAlreadyCountedMovement() {
+        // Given
+        when(inventorySnapshotRepository.findDerivedStockLevel(1L)).thenReturn(Optional.of(level(1L, 8L, 5L)));
+        inventoryService.getStockLevel(1L);
+        // movement 7 committed before the reload read the ledger, but its update arrives after it
+        when(inventorySnapshotRepository.findDerivedStockLevels()).thenReturn(List.of(level(1L, 5L, 7L)));
+        inventoryService.snapshotAndReconcile();
+        stubMovementIds(7L);
+
+        // When
+        inventoryService.append(List.of(new InventoryService.Movement(1L, -3, InventoryMovementReason.ORDER_PLACED, 10L)));
+
+        // Then
+        assertThat(inventoryService.getStockLevel(1L)).isEqualTo(5);
+        verify(lowStockService, never()).onStockChanged(anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should report failure when not enough stock is left to reserve")
+    void testTryReserveInsufficient() {
+        // Given
+        when(jdbcTemplate.update(anyString(), eq(5), eq(1L), eq(5))).thenReturn(0);
+
+        // When
+        boolean reserved = inventoryService.tryReserve(1L, 5);
+
+        // Then
+        assertThat(reserved).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should record only the difference when stock is set")
+    void testSetStockRecordsAdjustment() {
+        // Given
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), eq(1L))).thenReturn(List.of(10));
+        stubMovementIds(3L);
+
+        // When
+        inventoryService.setStock(1L, 12);
+
+        // Then
+        verify(jdbcTemplate).update(anyString(), eq(12), eq(1L));
+        verify(jdbcTemplate).batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class), any(KeyHolder.class));
+    }
+
+    @Test
+    @DisplayName("Should throw exception when reading stock of a missing product")
+    void testGetStockLevelNotFound() {
+        // Given
+        when(inventorySnapshotRepository.findDerivedStockLevel(99L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> inventoryService.getStockLevel(99L))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private void stubMovementIds(Long... ids) {
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class), any(KeyHolder.class)))
+                .thenAnswer(invocation -> {
+                    KeyHolder keys = invocation.getArgument(2);
+                    for (Long id : ids) {
+                        keys.getKeyList().add(Map.of("GENERATED_KEY", id));
+                    }
+                    return new int[ids.length];
+                });
+    }
+
+    private InventorySnapshotRepository.StockLevelView level(Long productId, Long quantity, Long lastMovementId) {
+        return new InventorySnapshotRepository.StockLevelView() {
+            public Long getProductId() { return productId; }
+            public Long getQuantity() { return quantity; }
+            public Long getLastMovementId() { return lastMovementId; }
+            public Integer getStoredQuantity() { return quantity.intValue(); }
+        };
+    }
+}
@@ -0,0 +1,129 @@
+package mjyuu.vocaloidshop.service;
+
+import mjyuu.vocaloidshop.dto.LowStockAlertDTO;
+import mjyuu.vocaloidshop.event.LowStockEvent;
+import mjyuu.vocaloidshop.exception.ResourceNotFoundException;
+import mjyuu.vocaloidshop.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LowStockService Tests")
+class LowStockServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private EventStreamHub eventStreamHub;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private LowStockService lowStockService;
+
+    @BeforeEach
+    void setUp() {
+        lowStockService = new LowStockService(productRepository, eventStreamHub, eventPublisher, 5);
+    }
+
+    @Test
+    @DisplayName("Should raise an event only when stock crosses below the product's threshold")
+    void testCrossing() {
+        // Given
+        when(productRepository.findLowStockThresholds()).thenReturn(List.of(threshold(3L, 20)));
+        lowStockService.initialize();
+
+        // When
+        lowStockService.onStockChanged(1L, 6, 5);
+        lowStockService.onStockChanged(1L, 5, 4);
+        lowStockService.onStockChanged(1L, 4, 2);
+        lowStockService.onStockChanged(3L, 25, 19);
+        lowStockService.onStockChanged(2L, 2, 8);
+
+        // Then
+        ArgumentCaptor<LowStockEvent> events = ArgumentCaptor.forClass(LowStockEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertThat(events.getAllValues())
+                .extracting(LowStockEvent::productId, LowStockEvent::stock, LowStockEvent::threshold)
+                .containsExactly(tuple(1L, 4, 5), tuple(3L, 19, 20));
+    }
+
+    @Test
+    @DisplayName("Should apply and clear a product's own threshold")
+    void testSetThreshold() {
+        // Given
+        when(productRepository.updateLowStockThreshold(7L, 12)).thenReturn(1);
+        when(productRepository.updateLowStockThreshold(7L, null)).thenReturn(1);
+        when(productRepository.updateLowStockThreshold(8L, 1)).thenReturn(0);
+
+        // When
+        lowStockService.setThreshold(7L, 12);
+        int overridden = lowStockService.thresholdOf(7L);
+        lowStockService.setThreshold(7L, null);
+
+        // Then
+        assertThat(overridden).isEqualTo(12);
+        assertThat(lowStockService.thresholdOf(7L)).isEqualTo(5);
+        assertThat(lowStockService.thresholdOf(1_000L)).isEqualTo(5);
+        assertThatThrownBy(() -> lowStockService.setThreshold(8L, 1))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Should keep overrides for product ids beyond the int range and pick up reloaded ones")
+    void testLargeIdsAndReload() {
+        // Given
+        long large = Integer.MAX_VALUE + 10L;
+        when(productRepository.findLowStockThresholds())
+                .thenReturn(List.of(threshold(large, 30), threshold(2L, 8)))
+                // changed on another instance
+                .thenReturn(List.of(threshold(large, 40)));
+        lowStockService.initialize();
+        int before = lowStockService.thresholdOf(large);
+
+        // When
+        lowStockService.initialize();
+
+        // Then
+        assertThat(before).isEqualTo(30);
+        assertThat(lowStockService.thresholdOf(large)).isEqualTo(40);
+        assertThat(lowStockService.thresholdOf(2L)).isEqualTo(5);
+        assertThat(lowStockService.thresholdOf(large + 1)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should stream low-stock events to admin subscribers")
+    void testStream() {
+        // When
+        lowStockService.onLowStock(new LowStockEvent(1L, 6, 4, 5, LocalDateTime.now()));
+
+        // Then
+        ArgumentCaptor<Object> alert = ArgumentCaptor.forClass(Object.class);
+        verify(eventStreamHub).publish(eq(LowStockService.TOPIC), eq(LowStockService.EVENT_NAME), alert.capture());
+        assertThat(alert.getValue()).isInstanceOfSatisfying(LowStockAlertDTO.class, dto -> {
+            assertThat(dto.getProductId()).isEqualTo(1L);
+            assertThat(dto.getStock()).isEqualTo(4);
+        });
+    }
+
+    private static ProductRepository.ThresholdView threshold(Long productId, Integer threshold) {
+        return new ProductRepository.ThresholdView() {
+            public Long getProductId() { return productId; }
+            public Integer getThreshold() { return threshold; }
+        };
+    }
+}
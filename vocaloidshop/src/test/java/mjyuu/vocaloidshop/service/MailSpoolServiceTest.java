@@ -0,0 +1,128 @@
+package mjyuu.vocaloidshop.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import mjyuu.vocaloidshop.entity.SpooledMail;
+import mjyuu.vocaloidshop.entity.SpooledMailStatus;
+import mjyuu.vocaloidshop.repository.SpooledMailRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MailSpoolService Tests")
+class MailSpoolServiceTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Mock
+    private SpooledMailRepository spooledMailRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MailSpoolService mailSpoolService;
+
+    @AfterEach
+    void tearDown() {
+        if (mailSpoolService != null) {
+            mailSpoolService.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should send a claimed batch over SMTP and delete the sent rows")
+    void testSendBatch() throws Exception {
+        // Given
+        mailSpoolService = spool(greenMail.getSmtp().getPort(), 3);
+        SpooledMail first = pending(1L, "miku@example.com", 0);
+        SpooledMail second = pending(2L, "rin@example.com", 0);
+        when(spooledMailRepository.lockDueIds(any(), eq(10))).thenReturn(List.of(1L, 2L));
+        when(spooledMailRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(first, second));
+
+        // When
+        int sent = mailSpoolService.sendBatch();
+
+        // Then
+        assertThat(sent).isEqualTo(2);
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(2);
+        assertThat(received[0].getSubject()).isEqualTo("Subject 1");
+        verify(spooledMailRepository).lease(eq(List.of(1L, 2L)), any());
+        verify(spooledMailRepository).deleteByIdIn(List.of(1L, 2L));
+        verify(spooledMailRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Should back off exponentially while the mail server is down, then give up")
+    void testRetryWithBackoff() throws Exception {
+        // Given
+        mailSpoolService = spool(closedPort(), 3);
+        SpooledMail fresh = pending(1L, "miku@example.com", 0);
+        SpooledMail lastTry = pending(2L, "rin@example.com", 2);
+        when(spooledMailRepository.lockDueIds(any(), eq(10))).thenReturn(List.of(1L, 2L));
+        when(spooledMailRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(fresh, lastTry));
+
+        // When
+        LocalDateTime before = LocalDateTime.now();
+        int sent = mailSpoolService.sendBatch();
+
+        // Then
+        assertThat(sent).isZero();
+        assertThat(fresh.getAttempts()).isEqualTo(1);
+        assertThat(fresh.getStatus()).isEqualTo(SpooledMailStatus.PENDING);
+        assertThat(fresh.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(1));
+        assertThat(fresh.getLastError()).isNotBlank();
+        assertThat(lastTry.getAttempts()).isEqualTo(3);
+        assertThat(lastTry.getStatus()).isEqualTo(SpooledMailStatus.FAILED);
+        verify(spooledMailRepository, never()).deleteByIdIn(any());
+        verify(spooledMailRepository).saveAll(argThat(rows -> rows.spliterator().getExactSizeIfKnown() == 2));
+    }
+
+    private MailSpoolService spool(int port, int maxAttempts) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        mailSender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "2000");
+        mailSender.getJavaMailProperties().put("mail.smtp.timeout", "2000");
+        return new MailSpoolService(spooledMailRepository, mailSender, transactionManager,
+                true, 1, 10, maxAttempts, 1000, 60_000, 60_000);
+    }
+
+    private static SpooledMail pending(Long id, String to, int attempts) {
+        return SpooledMail.builder()
+                .id(id)
+                .fromAddress("no-reply@vocalocart.com")
+                .toAddress(to)
+                .subject("Subject " + id)
+                .body("Body " + id)
+                .status(SpooledMailStatus.PENDING)
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static int closedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
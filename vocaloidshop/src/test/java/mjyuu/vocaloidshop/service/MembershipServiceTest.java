@@ -0,0 +1,70 @@
+package mjyuu.vocaloidshop.service;
+
+import mjyuu.vocaloidshop.repository.CartItemRepository;
+import mjyuu.vocaloidshop.repository.WishlistItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MembershipService Tests")
+class MembershipServiceTest {
+
+    @Mock
+    private WishlistItemRepository wishlistItemRepository;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    private MembershipService membershipService;
+
+    @BeforeEach
+    void setUp() {
+        membershipService = new MembershipService(wishlistItemRepository, cartItemRepository, 100, 60);
+    }
+
+    @Test
+    @DisplayName("Should flag wishlist and cart membership in request order")
+    void testGetFlags() {
+        // Given
+        when(wishlistItemRepository.findProductIdsByUserId(1L)).thenReturn(List.of(30L, 10L));
+        when(cartItemRepository.findProductIdsByUserId(1L)).thenReturn(List.of(10L, 20L));
+
+        // When
+        int[] flags = membershipService.getFlags(1L, List.of(10L, 20L, 30L, 40L));
+
+        // Then
+        assertThat(flags).containsExactly(
+                MembershipService.IN_WISHLIST | MembershipService.IN_CART,
+                MembershipService.IN_CART,
+                MembershipService.IN_WISHLIST,
+                0);
+    }
+
+    @Test
+    @DisplayName("Should serve repeated checks from the cache until invalidated")
+    void testCacheAndInvalidate() {
+        // Given
+        when(wishlistItemRepository.findProductIdsByUserId(1L)).thenReturn(List.of(), List.of(5L));
+        when(cartItemRepository.findProductIdsByUserId(1L)).thenReturn(List.of());
+
+        // When
+        int[] before = membershipService.getFlags(1L, List.of(5L));
+        membershipService.getFlags(1L, List.of(5L));
+        membershipService.invalidate(1L);
+        int[] after = membershipService.getFlags(1L, List.of(5L));
+
+        // Then
+        assertThat(before).containsExactly(0);
+        assertThat(after).containsExactly(MembershipService.IN_WISHLIST);
+        verify(wishlistItemRepository, times(2)).findProductIdsByUserId(1L);
+    }
+}
@@ -0,0 +1,289 @@
+package mjyuu.vocaloidshop.service;
+
+import mjyuu.vocaloidshop.dto.OrderResponseDTO;
+import mjyuu.vocaloidshop.entity.ArchivedOrder;
+import mjyuu.vocaloidshop.entity.Order;
+import mjyuu.vocaloidshop.entity.OrderStatus;
+import mjyuu.vocaloidshop.entity.User;
+import mjyuu.vocaloidshop.event.OrderStatusBatchChangedEvent;
+import mjyuu.vocaloidshop.exception.ResourceNotFoundException;
+import mjyuu.vocaloidshop.repository.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderService Tests")
+class OrderServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private AddressRepository addressRepository;
+
+    @Mock
+    private AddressBookCache addressBookCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Mock
+    private ArchivedOrderItemRepository archivedOrderItemRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private MembershipService membershipService;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    @Test
+    @DisplayName("Should only lock orders whose status may move forward to the target")
+    @SuppressWarnings("unchecked")
+    void testBulkUpdateOrderStatusAllowedStatuses() {
+        // Given
+        when(orderRepository.lockByIdInAndStatusIn(anyCollection(), anyCollection(), anyBoolean())).thenReturn(List.of());
+
+        // When
+        orderService.bulkUpdateOrderStatus(List.of(1L), OrderStatus.READY_FOR_DELIVERY);
+
+        // Then
+        ArgumentCaptor<Collection<OrderStatus>> statuses = ArgumentCaptor.forClass(Collection.class);
+        verify(orderRepository).lockByIdInAndStatusIn(eq(List.of(1L)), statuses.capture(), eq(true));
+        assertThat(statuses.getValue()).containsExactlyInAnyOrder(
+                OrderStatus.PAYMENT_RECEIVED,
+                OrderStatus.PROCESSING,
+                OrderStatus.PREPARING,
+                OrderStatus.READY_FOR_DELIVERY);
+    }
+
+    @Test
+    @DisplayName("Should update allowed orders and report the rest as unchanged or rejected")
+    void testBulkUpdateOrderStatus() {
+        // Given
+        when(orderRepository.lockByIdInAndStatusIn(anyCollection(), anyCollection(), anyBoolean())).thenReturn(List.of(
+                statusView(1L, OrderStatus.PREPARING),
+                statusView(2L, OrderStatus.READY_FOR_DELIVERY)));
+
+        // When
+        OrderService.BulkStatusResult result =
+                orderService.bulkUpdateOrderStatus(List.of(1L, 2L, 3L, 1L), OrderStatus.READY_FOR_DELIVERY);
+
+        // Then
+        assertThat(result.updatedIds()).containsExactly(1L);
+        assertThat(result.unchangedIds()).containsExactly(2L);
+        assertThat(result.rejectedIds()).containsExactly(3L);
+
+        verify(orderRepository, times(1)).updateStatus(eq(List.of(1L)), anyCollection(), eq(true), eq(OrderStatus.READY_FOR_DELIVERY));
+        ArgumentCaptor<OrderStatusBatchChangedEvent> event = ArgumentCaptor.forClass(OrderStatusBatchChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertThat(event.getValue().changes()).hasSize(1);
+        assertThat(event.getValue().changes().get(0).previousStatus()).isEqualTo(OrderStatus.PREPARING);
+    }
+
+    @Test
+    @DisplayName("Should move orders without a status like PAYMENT_RECEIVED ones")
+    void testBulkUpdateOrderStatusNullStatus() {
+        // Given
+        when(orderRepository.lockByIdInAndStatusIn(anyCollection(), anyCollection(), eq(true))).thenReturn(List.of(
+                statusView(4L, null)));
+
+        // When
+        OrderService.BulkStatusResult result =
+                orderService.bulkUpdateOrderStatus(List.of(4L), OrderStatus.PROCESSING);
+
+        // Then
+        assertThat(result.updatedIds()).containsExactly(4L);
+        verify(orderRepository).updateStatus(eq(List.of(4L)), anyCollection(), eq(true), eq(OrderStatus.PROCESSING));
+        ArgumentCaptor<OrderStatusBatchChangedEvent> event = ArgumentCaptor.forClass(OrderStatusBatchChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().changes().get(0).previousStatus()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should restock only the orders that were actually canceled")
+    void testBulkCancelRestocks() {
+        // Given
+        when(orderRepository.lockByIdInAndStatusIn(anyCollection(), anyCollection(), anyBoolean())).thenReturn(List.of(
+                statusView(1L, OrderStatus.PROCESSING),
+                statusView(2L, OrderStatus.CANCELED)));
+
+        // When
+        orderService.bulkUpdateOrderStatus(List.of(1L, 2L), OrderStatus.CANCELED);
+
+        // Then
+        verify(inventoryService, times(1)).restockCanceledOrders(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("Should not write or publish when no order can transition")
+    void testBulkUpdateOrderStatusNothingAllowed() {
+        // Given
+        when(orderRepository.lockByIdInAndStatusIn(anyCollection(), anyCollection(), anyBoolean())).thenReturn(List.of());
+
+        // When
+        OrderService.BulkStatusResult result =
+                orderService.bulkUpdateOrderStatus(List.of(5L, 6L), OrderStatus.PROCESSING);
+
+        // Then
+        assertThat(result.updatedIds()).isEmpty();
+        assertThat(result.rejectedIds()).containsExactly(5L, 6L);
+        verify(orderRepository, never()).updateStatus(anyCollection(), anyCollection(), anyBoolean(), any());
+        verify(eventPublisher, never()).publishEvent(any());
+        verify(inventoryService, never()).restockCanceledOrders(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should merge live and archived orders by order date")
+    void testListUserOrderHistoryMerged() {
+        // Given
+        Order stuck = liveOrder(4L);
+        stuck.setOrderedAt(LocalDateTime.of(2022, 1, 1, 12, 0));
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(orderRepository.findByUserIdOrderByOrderedAtDescIdDesc(1L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(liveOrder(11L), stuck));
+        when(orderItemRepository.findWithProductByOrderIdIn(anyCollection())).thenReturn(List.of());
+        when(archivedOrderRepository.findUserHistory(1L, 0L, 3)).thenReturn(List.of(archivedOrder(3L)));
+        when(archivedOrderItemRepository.findByOrderIdIn(anyCollection())).thenReturn(List.of());
+
+        // When
+        List<OrderResponseDTO> history = orderService.listUserOrderHistory(1L, 0, 3);
+
+        // Then
+        assertThat(history).extracting(OrderResponseDTO::getId).containsExactly(11L, 3L, 4L);
+    }
+
+    @Test
+    @DisplayName("Should page through the merged orders and load items only for the page")
+    void testListUserOrderHistoryLaterPage() {
+        // Given
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(orderRepository.findByUserIdOrderByOrderedAtDescIdDesc(1L, PageRequest.of(0, 4)))
+                .thenReturn(List.of(liveOrder(11L), liveOrder(10L)));
+        when(archivedOrderRepository.findUserHistory(1L, 0L, 4)).thenReturn(List.of(archivedOrder(3L), archivedOrder(2L)));
+        when(archivedOrderItemRepository.findByOrderIdIn(anyCollection())).thenReturn(List.of());
+
+        // When
+        List<OrderResponseDTO> history = orderService.listUserOrderHistory(1L, 1, 2);
+
+        // Then
+        assertThat(history).extracting(OrderResponseDTO::getId).containsExactly(3L, 2L);
+        assertThat(history.get(0).getStatus()).isEqualTo(OrderStatus.DELIVERED);
+        verify(orderItemRepository, never()).findWithProductByOrderIdIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should list recent live orders without reading the archive")
+    void testListUserOrdersLiveWindow() {
+        // Given
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(orderRepository.findByUserIdOrderByOrderedAtDescIdDesc(1L, PageRequest.of(0, OrderService.LIVE_WINDOW)))
+                .thenReturn(List.of(liveOrder(7L)));
+        when(orderItemRepository.findWithProductByOrderIdIn(anyCollection())).thenReturn(List.of());
+
+        // When
+        List<OrderResponseDTO> orders = orderService.listUserOrders(1L);
+
+        // Then
+        assertThat(orders).extracting(OrderResponseDTO::getId).containsExactly(7L);
+        verifyNoInteractions(archivedOrderRepository);
+    }
+
+    @Test
+    @DisplayName("Should not read the archive for a page the live orders fill")
+    void testListUserOrderHistoryWithinLiveWindow() {
+        // Given
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(orderRepository.findByUserIdOrderByOrderedAtDescIdDesc(1L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(liveOrder(11L), liveOrder(10L)));
+        when(orderItemRepository.findWithProductByOrderIdIn(anyCollection())).thenReturn(List.of());
+        when(archivedOrderRepository.findUserHistory(1L, 0L, 1)).thenReturn(List.of(archivedOrder(3L)));
+
+        // When
+        List<OrderResponseDTO> history = orderService.listUserOrderHistory(1L, 0, 2);
+
+        // Then
+        assertThat(history).extracting(OrderResponseDTO::getId).containsExactly(11L, 10L);
+        verify(archivedOrderRepository, never()).findUserHistory(1L, 0L, 2);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when listing history of an unknown user")
+    void testListUserOrderHistoryUserNotFound() {
+        // Given
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        // When & Then
+        assertThatThrownBy(() -> orderService.listUserOrderHistory(99L, 0, 20))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("User not found");
+        verify(archivedOrderRepository, never()).findUserHistory(anyLong(), anyLong(), anyInt());
+    }
+
+    private Order liveOrder(Long id) {
+        return Order.builder()
+                .id(id)
+                .user(User.builder().id(1L).build())
+                .totalAmount(15000)
+                .status(OrderStatus.PROCESSING)
+                .orderedAt(LocalDateTime.of(2025, 11, 1, 12, 0))
+                .build();
+    }
+
+    private ArchivedOrder archivedOrder(Long id) {
+        return ArchivedOrder.builder()
+                .id(id)
+                .userId(1L)
+                .totalAmount(15000)
+                .status(OrderStatus.DELIVERED)
+                .orderedAt(LocalDateTime.of(2023, 5, 1, 12, 0))
+                .archivedAt(LocalDateTime.of(2024, 5, 2, 3, 30))
+                .build();
+    }
+
+    private OrderRepository.StatusView statusView(Long id, OrderStatus status) {
+        return new OrderRepository.StatusView() {
+            public Long getId() { return id; }
+            public Long getUserId() { return 1L; }
+            public LocalDateTime getOrderedAt() { return LocalDateTime.of(2025, 11, 1, 12, 0); }
+            public Integer getTotalAmount() { return 15000; }
+            public OrderStatus getStatus() { return status; }
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package mjyuu.vocaloidshop.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mjyuu.vocaloidshop.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("PasswordHashingService Tests")
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHashingService passwordHashingService;
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should hash and verify passwords and record timings")
+    void testEncodeAndMatches() {
+        // Given
+        passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(4), meterRegistry, 1, 4, 5000);
+
+        // When
+        String hash = passwordHashingService.encode("password123");
+
+        // Then
+        assertThat(passwordHashingService.matches("password123", hash)).isTrue();
+        assertThat(passwordHashingService.matches("wrong", hash)).isFalse();
+        assertThat(meterRegistry.get("auth.password.hash").tag("operation", "matches").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("auth.password.queue.wait").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should flag hashes made with a lower cost for rehashing")
+    void testNeedsRehash() {
+        // Given
+        String weakHash = new BCryptPasswordEncoder(4).encode("password123");
+        passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(5), meterRegistry, 1, 4, 5000);
+
+        // When & Then
+        assertThat(passwordHashingService.needsRehash(weakHash)).isTrue();
+        assertThat(passwordHashingService.needsRehash(new BCryptPasswordEncoder(5).encode("password123"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject with 503 when the hashing queue is full")
+    void testRejectWhenSaturated() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        passwordHashingService = new PasswordHashingService(blocking, meterRegistry, 1, 1, 5000);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordHashingService.encode("a"));
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordHashingService.encode("b"));
+        while (meterRegistry.get("auth.password.queue.size").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // When & Then
+        assertThatThrownBy(() -> passwordHashingService.encode("c"))
+                .isInstanceOf(ServiceUnavailableException.class);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isNotBlank();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isNotBlank();
+    }
+}
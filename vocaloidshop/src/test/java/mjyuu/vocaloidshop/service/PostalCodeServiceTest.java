@@ -0,0 +1,106 @@
+package mjyuu.vocaloidshop.service;
+
+import mjyuu.vocaloidshop.dto.AddressRequestDTO;
+import mjyuu.vocaloidshop.exception.InvalidAddressException;
+import mjyuu.vocaloidshop.util.PostalIndexBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("PostalCodeService Tests")
+class PostalCodeServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should build the index from the bundled dataset and reject a mismatched state")
+    void testValidate() {
+        // Given
+        PostalCodeService postalCodeService = open(false);
+
+        // When / Then
+        assertThatCode(() -> postalCodeService.validate(address("KR", "04524", "Seoul"))).doesNotThrowAnyException();
+        assertThatCode(() -> postalCodeService.validate(address("KR", "00001", "Seoul"))).doesNotThrowAnyException();
+        assertThatCode(() -> postalCodeService.validate(address("US", "04524", "MA"))).doesNotThrowAnyException();
+        assertThatThrownBy(() -> postalCodeService.validate(address("KR", "04524", "Busan")))
+                .isInstanceOf(InvalidAddressException.class)
+                .hasMessageContaining("Jung-gu, Seoul");
+    }
+
+    @Test
+    @DisplayName("Should reject unknown codes of a covered country in strict mode")
+    void testStrict() {
+        // Given
+        PostalCodeService postalCodeService = open(true);
+
+        // When / Then
+        assertThatThrownBy(() -> postalCodeService.validate(address("KR", "00001", "Seoul")))
+                .isInstanceOf(InvalidAddressException.class)
+                .hasMessageContaining("Unknown postal code");
+        assertThatCode(() -> postalCodeService.validate(address("US", "02134", "MA"))).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Should accept other spellings of the indexed state")
+    void testStateVariants() {
+        // Given
+        PostalCodeService postalCodeService = open(false);
+
+        // When / Then
+        assertThatCode(() -> postalCodeService.validate(address("KR", "04524", "Seoul-si"))).doesNotThrowAnyException();
+        assertThatCode(() -> postalCodeService.validate(address("KR", "04524", "seoul special city"))).doesNotThrowAnyException();
+        assertThatCode(() -> postalCodeService.validate(address("KR", "04524", "서울특별시"))).doesNotThrowAnyException();
+        assertThatCode(() -> postalCodeService.validate(address("KR", "13494", "경기도"))).doesNotThrowAnyException();
+        assertThatThrownBy(() -> postalCodeService.validate(address("KR", "04524", "부산광역시")))
+                .isInstanceOf(InvalidAddressException.class);
+    }
+
+    @Test
+    @DisplayName("Should rebuild an index built from an older bundled dataset, but keep one built offline")
+    void testRebuildStaleIndex() throws IOException {
+        // Given: both indexes place 04524 in Busan
+        Path stale = tempDir.resolve("stale.idx");
+        PostalIndexBuilder.build(new StringReader("KR,04524,Jung-gu,Busan\n"), stale);
+        Files.writeString(Path.of(stale + PostalCodeService.STAMP_SUFFIX), "0000");
+        Path offline = tempDir.resolve("offline.idx");
+        PostalIndexBuilder.build(new StringReader("KR,04524,Jung-gu,Busan\n"), offline);
+
+        // When
+        PostalCodeService rebuilt = new PostalCodeService(stale.toString(), true, false);
+        rebuilt.open();
+        PostalCodeService kept = new PostalCodeService(offline.toString(), true, false);
+        kept.open();
+
+        // Then
+        assertThatCode(() -> rebuilt.validate(address("KR", "04524", "Seoul"))).doesNotThrowAnyException();
+        assertThat(rebuilt.lookup("KR", "06035")).isPresent();
+        assertThatCode(() -> kept.validate(address("KR", "04524", "Busan"))).doesNotThrowAnyException();
+        assertThat(Path.of(offline + PostalCodeService.STAMP_SUFFIX)).doesNotExist();
+    }
+
+    private PostalCodeService open(boolean strict) {
+        PostalCodeService postalCodeService = new PostalCodeService(
+                tempDir.resolve("postal-codes.idx").toString(), true, strict);
+        postalCodeService.open();
+        return postalCodeService;
+    }
+
+    private static AddressRequestDTO address(String country, String postalCode, String state) {
+        return AddressRequestDTO.builder()
+                .recipientName("Hatsune Miku")
+                .line1("1 Test-ro")
+                .city("Somewhere")
+                .state(state)
+                .postalCode(postalCode)
+                .country(country)
+                .build();
+    }
+}
@@ -0,0 +1,81 @@
+package mjyuu.vocaloidshop.service;
+
+import mjyuu.vocaloidshop.dto.ProductField;
+import mjyuu.vocaloidshop.dto.ProductResponseDTO;
+import mjyuu.vocaloidshop.event.ProductChangedEvent;
+import mjyuu.vocaloidshop.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductCache Tests")
+class ProductCacheTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductCache productCache;
+
+    @BeforeEach
+    void setUp() {
+        productCache = new ProductCache(productRepository, 100, 60);
+    }
+
+    @Test
+    @DisplayName("Should load only the misses, with one query, and cache them")
+    void testLoadMisses() {
+        // Given
+        when(productRepository.findFields(anySet(), eq(Set.of(1L, 2L, 3L)))).thenReturn(List.of(product(1L), product(3L)));
+        when(productRepository.findFields(anySet(), eq(Set.of(2L, 4L)))).thenReturn(List.of(product(4L)));
+
+        // When
+        Map<Long, ProductCache.CachedProduct> first = productCache.getAll(List.of(1L, 2L, 3L));
+        Map<Long, ProductCache.CachedProduct> second = productCache.getAll(List.of(3L, 2L, 1L, 4L));
+
+        // Then
+        assertThat(first).containsOnlyKeys(1L, 3L);
+        assertThat(second).containsOnlyKeys(1L, 3L, 4L);
+        assertThat(second.get(3L).categoryName()).isEqualTo("Vocaloid");
+        verify(productRepository, times(2)).findFields(argThat(fields -> !fields.contains(ProductField.DESCRIPTION)), anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should reload a product after it changes")
+    void testInvalidate() {
+        // Given
+        when(productRepository.findFields(anySet(), eq(Set.of(1L)))).thenReturn(List.of(product(1L)));
+        productCache.getAll(List.of(1L));
+
+        // When
+        productCache.onProductChanged(new ProductChangedEvent(1L, 100, 90, 5, 5));
+        productCache.getAll(List.of(1L));
+        productCache.invalidateCategory(1L);
+        productCache.getAll(List.of(1L));
+        productCache.getAll(List.of(1L));
+
+        // Then
+        verify(productRepository, times(3)).findFields(anySet(), eq(Set.of(1L)));
+    }
+
+    private static ProductResponseDTO product(Long id) {
+        return ProductResponseDTO.builder()
+                .id(id)
+                .name("Product " + id)
+                .price(1000)
+                .categoryId(1L)
+                .categoryName("Vocaloid")
+                .build();
+    }
+}
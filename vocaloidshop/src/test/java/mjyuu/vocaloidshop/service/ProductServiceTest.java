@@ -1,8 +1,11 @@
 package mjyuu.vocaloidshop.service;
 
+import mjyuu.vocaloidshop.dto.ProductField;
+import mjyuu.vocaloidshop.dto.ProductLookupDTO;
 import mjyuu.vocaloidshop.dto.ProductRequestDTO;
 import mjyuu.vocaloidshop.entity.Category;
 import mjyuu.vocaloidshop.entity.Product;
+import mjyuu.vocaloidshop.event.ProductChangedEvent;
 import mjyuu.vocaloidshop.repository.CategoryRepository;
 import mjyuu.vocaloidshop.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,13 +15,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -32,6 +39,15 @@ class ProductServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProductService productService;
 
@@ -184,6 +200,8 @@ class ProductServiceTest {
         verify(productRepository, times(1)).findById(1L);
         verify(categoryRepository, times(1)).findById(1L);
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(inventoryService, times(1)).setStock(1L, 15);
+        verify(eventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
     }
 
     @Test
@@ -262,4 +280,56 @@ class ProductServiceTest {
         assertThat(result.get(0).getName()).contains("Miku");
         verify(productRepository, times(1)).findByNameContaining("Miku");
     }
+
+    @Test
+    @DisplayName("Should look up products in request order, marking missing ids")
+    void testLookupProducts() {
+        // Given
+        ProductCache.CachedProduct cached = new ProductCache.CachedProduct(
+                1L, "Hatsune Miku V4X", 15000, null, 1L, "Vocaloid");
+        ProductRepository.DescriptionView description = mock(ProductRepository.DescriptionView.class);
+        when(description.getProductId()).thenReturn(1L);
+        when(description.getDescription()).thenReturn("Vocaloid software");
+        when(productCache.getAll(Set.of(1L, 9L))).thenReturn(Map.of(1L, cached));
+        when(productRepository.findDescriptionsByIdIn(Set.of(1L))).thenReturn(List.of(description));
+        when(inventoryService.getStockLevel(1L)).thenReturn(7);
+
+        // When
+        List<ProductLookupDTO> result = productService.lookupProducts(List.of(9L, 1L, 9L), ProductField.parse(null));
+
+        // Then
+        assertThat(result).extracting(ProductLookupDTO::getId, ProductLookupDTO::isFound)
+                .containsExactly(tuple(9L, false), tuple(1L, true), tuple(9L, false));
+        assertThat(result.get(0).getProduct()).isNull();
+        assertThat(result.get(1).getProduct().getStockQuantity()).isEqualTo(7);
+        assertThat(result.get(1).getProduct().getDescription()).isEqualTo("Vocaloid software");
+        assertThat(result.get(1).getProduct().getCategoryName()).isEqualTo("Vocaloid");
+    }
+
+    @Test
+    @DisplayName("Should not read descriptions or stock unless those fields are requested")
+    void testLookupProductsSparse() {
+        // Given
+        ProductCache.CachedProduct cached = new ProductCache.CachedProduct(
+                1L, "Hatsune Miku V4X", 15000, null, 1L, "Vocaloid");
+        when(productCache.getAll(Set.of(1L))).thenReturn(Map.of(1L, cached));
+
+        // When
+        List<ProductLookupDTO> result = productService.lookupProducts(List.of(1L), ProductField.parse("name,price"));
+
+        // Then
+        assertThat(result.get(0).getProduct().getName()).isEqualTo("Hatsune Miku V4X");
+        verify(productRepository, never()).findDescriptionsByIdIn(anyCollection());
+        verify(inventoryService, never()).getStockLevel(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should parse requested product fields, always including the id")
+    void testParseFields() {
+        assertThat(ProductField.parse("name, price,imageUrl"))
+                .containsExactlyInAnyOrder(ProductField.ID, ProductField.NAME, ProductField.PRICE, ProductField.IMAGE_URL);
+        assertThat(ProductField.parse(null)).containsExactlyInAnyOrder(ProductField.values());
+        assertThatThrownBy(() -> ProductField.parse("name,secret"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
 }
@@ -0,0 +1,112 @@
+package mjyuu.vocaloidshop.service;
+
+import mjyuu.vocaloidshop.exception.TooManyRequestsException;
+import mjyuu.vocaloidshop.repository.ProductRepository;
+import mjyuu.vocaloidshop.repository.ProductStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductStatsService Tests")
+class ProductStatsServiceTest {
+
+    @Mock
+    private ProductStatsRepository productStatsRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ProductStatsService productStatsService;
+
+    @BeforeEach
+    void setUp() {
+        productStatsService = new ProductStatsService(productStatsRepository, productRepository, jdbcTemplate, 2, 1);
+    }
+
+    @Test
+    @DisplayName("Should flush only the deltas since the last flush in one upsert")
+    void testFlushDeltas() {
+        // Given
+        productStatsService.recordView(1L);
+        productStatsService.recordView(1L);
+        productStatsService.recordClick(1L, "10.0.0.1");
+        productStatsService.recordView(2L);
+
+        // When
+        productStatsService.flush();
+        productStatsService.recordView(2L);
+        productStatsService.flush();
+        productStatsService.flush();
+
+        // Then
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(2)).update(contains("ON DUPLICATE KEY UPDATE"), args.capture());
+        Object[] first = args.getAllValues().get(0);
+        assertThat(first).hasSize(8);
+        assertThat(args.getAllValues().get(1)).hasSize(4).startsWith(2L, 1L, 0L);
+        verify(productRepository, never()).existsById(any());
+    }
+
+    @Test
+    @DisplayName("Should keep deltas of a failed flush for the next run")
+    void testRetryAfterFailure() {
+        // Given
+        productStatsService.recordView(1L);
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(1);
+
+        // When
+        productStatsService.flush();
+        productStatsService.recordView(1L);
+        productStatsService.flush();
+
+        // Then
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(2)).update(anyString(), args.capture());
+        assertThat(args.getAllValues().get(1)).startsWith(1L, 2L, 0L);
+    }
+
+    @Test
+    @DisplayName("Should not count clicks on products that do not exist")
+    void testClickOnUnknownProduct() {
+        // Given
+        when(productRepository.existsById(99L)).thenReturn(false);
+
+        // When
+        boolean recorded = productStatsService.recordClick(99L, "10.0.0.1");
+        productStatsService.flush();
+
+        // Then
+        assertThat(recorded).isFalse();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should refuse clicks beyond a client's bucket for a product")
+    void testClickRateLimit() {
+        // Given
+        when(productRepository.existsById(1L)).thenReturn(true);
+        productStatsService.recordClick(1L, "10.0.0.1");
+        productStatsService.recordClick(1L, "10.0.0.1");
+
+        // When / Then
+        assertThatThrownBy(() -> productStatsService.recordClick(1L, "10.0.0.1"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(productStatsService.recordClick(1L, "10.0.0.2")).isTrue();
+    }
+}
@@ -0,0 +1,97 @@
+package mjyuu.vocaloidshop.service;
+
+import mjyuu.vocaloidshop.entity.RecentlyViewed;
+import mjyuu.vocaloidshop.repository.RecentlyViewedRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RecentlyViewedService Tests")
+class RecentlyViewedServiceTest {
+
+    @Mock
+    private RecentlyViewedRepository recentlyViewedRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private RecentlyViewedService recentlyViewedService;
+
+    @BeforeEach
+    void setUp() {
+        recentlyViewedService = new RecentlyViewedService(recentlyViewedRepository, jdbcTemplate, 3, 100);
+    }
+
+    @Test
+    @DisplayName("Should keep the most recent distinct products, newest first")
+    void testRecordView() {
+        // Given
+        when(recentlyViewedRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // When
+        for (long productId : new long[]{10, 20, 30, 20, 40}) {
+            recentlyViewedService.recordView(1L, productId);
+        }
+
+        // Then
+        assertThat(recentlyViewedService.getRecentlyViewed(1L)).containsExactly(40L, 20L, 30L);
+        verify(recentlyViewedRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Should flush dirty buffers in one batch and only once")
+    @SuppressWarnings("unchecked")
+    void testFlush() {
+        // Given
+        when(recentlyViewedRepository.findById(anyLong())).thenReturn(Optional.empty());
+        recentlyViewedService.recordView(1L, 10L);
+        recentlyViewedService.recordView(2L, 20L);
+        recentlyViewedService.recordView(2L, 21L);
+
+        // When
+        recentlyViewedService.flush();
+        recentlyViewedService.flush();
+
+        // Then
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture());
+        assertThat(rows.getValue()).hasSize(2);
+        Object[] second = rows.getValue().stream().filter(row -> row[0].equals(2L)).findFirst().orElseThrow();
+        assertThat(RecentlyViewedService.unpack((byte[]) second[1])).containsExactly(21L, 20L);
+    }
+
+    @Test
+    @DisplayName("Should read users that are not in memory with one query")
+    void testMultiGet() {
+        // Given
+        when(recentlyViewedRepository.findById(1L)).thenReturn(Optional.empty());
+        recentlyViewedService.recordView(1L, 10L);
+        RecentlyViewed stored = RecentlyViewed.builder()
+                .userId(2L)
+                .productIds(RecentlyViewedService.pack(new long[]{7L, 8L}))
+                .build();
+        when(recentlyViewedRepository.findAllById(List.of(2L, 3L))).thenReturn(List.of(stored));
+
+        // When
+        Map<Long, List<Long>> result = recentlyViewedService.getRecentlyViewed(List.of(1L, 2L, 3L));
+
+        // Then
+        assertThat(result).containsEntry(1L, List.of(10L)).containsEntry(2L, List.of(7L, 8L));
+        assertThat(result).doesNotContainKey(3L);
+        verify(recentlyViewedRepository, times(1)).findAllById(List.of(2L, 3L));
+    }
+}
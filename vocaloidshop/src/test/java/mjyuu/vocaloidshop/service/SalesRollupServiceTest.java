@@ -0,0 +1,172 @@
+package mjyuu.vocaloidshop.service;
+
+import mjyuu.vocaloidshop.entity.OrderStatus;
+import mjyuu.vocaloidshop.event.OrderPlacedEvent;
+import mjyuu.vocaloidshop.event.OrderStatusBatchChangedEvent;
+import mjyuu.vocaloidshop.event.OrderStatusChangedEvent;
+import mjyuu.vocaloidshop.repository.ProductSalesDailyRollupRepository;
+import mjyuu.vocaloidshop.repository.SalesDailyRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SalesRollupService Tests")
+class SalesRollupServiceTest {
+
+    private static final LocalDateTime ORDERED_AT = LocalDateTime.of(2025, 11, 1, 12, 0);
+    private static final LocalDate DAY = ORDERED_AT.toLocalDate();
+
+    @Mock
+    private SalesDailyRollupRepository salesDailyRollupRepository;
+
+    @Mock
+    private ProductSalesDailyRollupRepository productSalesDailyRollupRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SalesRollupService salesRollupService;
+
+    @BeforeEach
+    void setUp() {
+        salesRollupService = new SalesRollupService(salesDailyRollupRepository, productSalesDailyRollupRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should buffer placed orders and write one delta per row on flush")
+    void testOrdersPlacedFoldedOnFlush() {
+        // Given
+        salesRollupService.onOrderPlaced(placed(1L, 3000, new OrderPlacedEvent.Line(10L, 1, 1000),
+                new OrderPlacedEvent.Line(10L, 2, 1000)));
+        salesRollupService.onOrderPlaced(placed(2L, 500, new OrderPlacedEvent.Line(11L, 1, 500)));
+        verifyNoInteractions(salesDailyRollupRepository, productSalesDailyRollupRepository);
+
+        // When
+        salesRollupService.flush();
+        salesRollupService.flush();
+
+        // Then
+        verify(salesDailyRollupRepository).addDelta(DAY, "PAYMENT_RECEIVED", 2, 3500);
+        verify(productSalesDailyRollupRepository).addDelta(DAY, 10L, 3, 3000);
+        verify(productSalesDailyRollupRepository).addDelta(DAY, 11L, 1, 500);
+        verify(productSalesDailyRollupRepository, never()).subtractOrders(any());
+    }
+
+    @Test
+    @DisplayName("Should move a canceled order between statuses and subtract its product lines")
+    void testCancel() {
+        // Given
+        salesRollupService.onOrderStatusChanged(changed(5L, 1200, OrderStatus.PROCESSING, OrderStatus.CANCELED));
+
+        // When
+        salesRollupService.flush();
+
+        // Then
+        verify(salesDailyRollupRepository).addDelta(DAY, "PROCESSING", -1, -1200);
+        verify(salesDailyRollupRepository).addDelta(DAY, "CANCELED", 1, 1200);
+        verify(productSalesDailyRollupRepository).subtractOrders(List.of(5L));
+    }
+
+    @Test
+    @DisplayName("Should count an order without a previous status as PAYMENT_RECEIVED")
+    void testNullPreviousStatus() {
+        // Given
+        salesRollupService.onOrderStatusChanged(changed(6L, 800, null, OrderStatus.PROCESSING));
+        salesRollupService.onOrderStatusChanged(changed(7L, 800, null, OrderStatus.PAYMENT_RECEIVED));
+
+        // When
+        salesRollupService.flush();
+
+        // Then
+        verify(salesDailyRollupRepository).addDelta(DAY, "PAYMENT_RECEIVED", -1, -800);
+        verify(salesDailyRollupRepository).addDelta(DAY, "PROCESSING", 1, 800);
+        verifyNoMoreInteractions(salesDailyRollupRepository);
+        verifyNoInteractions(productSalesDailyRollupRepository);
+    }
+
+    @Test
+    @DisplayName("Should fold a bulk batch into one delta per day and status")
+    void testBulkBatchFolded() {
+        // Given
+        salesRollupService.onOrderStatusBatchChanged(new OrderStatusBatchChangedEvent(List.of(
+                changed(1L, 100, OrderStatus.IN_DELIVERY, OrderStatus.DELIVERED),
+                changed(2L, 200, OrderStatus.IN_DELIVERY, OrderStatus.DELIVERED),
+                changed(3L, 300, OrderStatus.IN_DELIVERY, OrderStatus.DELIVERED))));
+
+        // When
+        salesRollupService.flush();
+
+        // Then
+        verify(salesDailyRollupRepository).addDelta(DAY, "IN_DELIVERY", -3, -600);
+        verify(salesDailyRollupRepository).addDelta(DAY, "DELIVERED", 3, 600);
+        verifyNoMoreInteractions(salesDailyRollupRepository);
+    }
+
+    @Test
+    @DisplayName("Should keep the deltas of a failed flush for the next run")
+    void testRetryAfterFailure() {
+        // Given
+        salesRollupService.onOrderPlaced(placed(1L, 1000));
+        doThrow(new DataAccessResourceFailureException("down"))
+                .doNothing()
+                .when(salesDailyRollupRepository).addDelta(any(), anyString(), anyLong(), anyLong());
+
+        // When
+        salesRollupService.flush();
+        salesRollupService.onOrderPlaced(placed(2L, 500));
+        salesRollupService.flush();
+
+        // Then
+        verify(salesDailyRollupRepository).addDelta(DAY, "PAYMENT_RECEIVED", 1, 1000);
+        verify(salesDailyRollupRepository).addDelta(DAY, "PAYMENT_RECEIVED", 2, 1500);
+    }
+
+    @Test
+    @DisplayName("Should reject a backfill range that ends before it starts")
+    void testBackfillRangeCheck() {
+        // When / Then
+        assertThatThrownBy(() -> salesRollupService.backfill(DAY, DAY.minusDays(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(salesDailyRollupRepository, productSalesDailyRollupRepository);
+    }
+
+    @Test
+    @DisplayName("Should flush buffered deltas before rebuilding a range")
+    void testBackfillFlushesFirst() {
+        // Given
+        salesRollupService.onOrderPlaced(placed(1L, 1000));
+        when(salesDailyRollupRepository.rebuildRange(DAY, DAY.plusDays(1))).thenReturn(2);
+        when(productSalesDailyRollupRepository.rebuildRange(DAY, DAY.plusDays(1))).thenReturn(5);
+
+        // When
+        var result = salesRollupService.backfill(DAY, DAY);
+
+        // Then
+        assertThat(result).containsEntry("salesRows", 2).containsEntry("productRows", 5);
+        var order = inOrder(salesDailyRollupRepository);
+        order.verify(salesDailyRollupRepository).addDelta(DAY, "PAYMENT_RECEIVED", 1, 1000);
+        order.verify(salesDailyRollupRepository).deleteRange(DAY, DAY);
+    }
+
+    private static OrderPlacedEvent placed(Long orderId, int total, OrderPlacedEvent.Line... lines) {
+        return new OrderPlacedEvent(orderId, 1L, ORDERED_AT, total, List.of(lines));
+    }
+
+    private static OrderStatusChangedEvent changed(Long orderId, int total, OrderStatus from, OrderStatus to) {
+        return new OrderStatusChangedEvent(orderId, 1L, ORDERED_AT, total, from, to);
+    }
+}
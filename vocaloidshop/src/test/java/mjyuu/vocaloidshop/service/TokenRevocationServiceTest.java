@@ -0,0 +1,129 @@
+package mjyuu.vocaloidshop.service;
+
+import mjyuu.vocaloidshop.entity.RevocationReason;
+import mjyuu.vocaloidshop.entity.RevokedToken;
+import mjyuu.vocaloidshop.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TokenRevocationService Tests")
+class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationService = new TokenRevocationService(revokedTokenRepository, transactionManager, 1000, 0.01, 60, 100);
+    }
+
+    @Test
+    @DisplayName("Should clear unrevoked tokens without an exact lookup")
+    void testUnrevokedTokenSkipsLookup() {
+        // Given
+        when(revokedTokenRepository.findActiveKeys(any())).thenReturn(List.of("revoked-jti"));
+        when(revokedTokenRepository.findKeysRevokedSince(any())).thenReturn(List.of());
+        tokenRevocationService.rebuild();
+
+        // When
+        boolean revoked = tokenRevocationService.isRevoked("fresh-jti", 1L, new Date());
+
+        // Then
+        assertThat(revoked).isFalse();
+        verify(revokedTokenRepository, never()).findLatestRevocation(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject a logged-out token and remember the answer")
+    void testRevokedTokenIdRejected() {
+        // Given
+        when(revokedTokenRepository.findActiveKeys(any())).thenReturn(List.of("revoked-jti"));
+        when(revokedTokenRepository.findKeysRevokedSince(any())).thenReturn(List.of());
+        when(revokedTokenRepository.findLatestRevocation(eq("revoked-jti"), any()))
+                .thenReturn(Optional.of(LocalDateTime.now()));
+        tokenRevocationService.rebuild();
+
+        // When
+        boolean first = tokenRevocationService.isRevoked("revoked-jti", 1L, new Date());
+        boolean second = tokenRevocationService.isRevoked("revoked-jti", 1L, new Date());
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        verify(revokedTokenRepository, times(1)).findLatestRevocation(eq("revoked-jti"), any());
+    }
+
+    @Test
+    @DisplayName("Should revoke a user's tokens issued before a password change only")
+    void testUserRevocationByIssueTime() {
+        // Given
+        LocalDateTime revokedAt = LocalDateTime.now().withNano(0);
+        long revokedMillis = revokedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        when(revokedTokenRepository.findActiveKeys(any())).thenReturn(List.of("user:1"));
+        when(revokedTokenRepository.findKeysRevokedSince(any())).thenReturn(List.of());
+        when(revokedTokenRepository.findLatestRevocation(eq("user:1"), any())).thenReturn(Optional.of(revokedAt));
+        tokenRevocationService.rebuild();
+
+        // When
+        boolean before = tokenRevocationService.isRevoked("a", 1L, new Date(revokedMillis - 60_000));
+        boolean sameSecond = tokenRevocationService.isRevoked("b", 1L, new Date(revokedMillis));
+
+        // Then
+        assertThat(before).isTrue();
+        assertThat(sameSecond).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should pick up revocations made on other nodes when refreshing")
+    void testRefreshAddsNewKeys() {
+        // Given
+        when(revokedTokenRepository.findActiveKeys(any())).thenReturn(List.of());
+        when(revokedTokenRepository.findKeysRevokedSince(any())).thenReturn(List.of(), List.of("remote-jti"));
+        when(revokedTokenRepository.findLatestRevocation(eq("remote-jti"), any()))
+                .thenReturn(Optional.of(LocalDateTime.now()));
+        tokenRevocationService.rebuild();
+        assertThat(tokenRevocationService.isRevoked("remote-jti", 1L, new Date())).isFalse();
+
+        // When
+        tokenRevocationService.refresh();
+
+        // Then
+        assertThat(tokenRevocationService.isRevoked("remote-jti", 1L, new Date())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should store a ban as a user-wide revocation")
+    void testRevokeUser() {
+        // When
+        tokenRevocationService.revokeUser(7L, RevocationReason.BAN);
+
+        // Then
+        verify(revokedTokenRepository).save(argThat((RevokedToken token) ->
+                token.getTokenKey().equals("user:7")
+                        && token.getReason() == RevocationReason.BAN
+                        && token.getExpiresAt().isAfter(LocalDateTime.now().plusHours(23))));
+    }
+}
@@ -0,0 +1,86 @@
+package mjyuu.vocaloidshop.service;
+
+import mjyuu.vocaloidshop.entity.ProductTrendingScore;
+import mjyuu.vocaloidshop.event.OrderPlacedEvent;
+import mjyuu.vocaloidshop.repository.ProductTrendingScoreRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TrendingService Tests")
+class TrendingServiceTest {
+
+    @Mock
+    private ProductTrendingScoreRepository productTrendingScoreRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TrendingService trendingService;
+
+    @BeforeEach
+    void setUp() {
+        trendingService = new TrendingService(productTrendingScoreRepository, jdbcTemplate, transactionManager,
+                60, 1024, 3, 1, 3, 5);
+    }
+
+    @Test
+    @DisplayName("Should rank products by weighted activity and keep only the top entries")
+    void testRanking() {
+        // Given
+        trendingService.recordView(1L);
+        trendingService.recordView(1L);
+        trendingService.recordCartAdd(2L, 1);
+        trendingService.onOrderPlaced(new OrderPlacedEvent(10L, 7L, LocalDateTime.now(), 3000,
+                List.of(new OrderPlacedEvent.Line(3L, 2, 1500))));
+        trendingService.recordView(4L);
+
+        // When
+        trendingService.refresh();
+
+        // Then
+        assertThat(trendingService.getTrendingProductIds(10)).containsExactly(3L, 2L, 1L);
+        assertThat(trendingService.getTrendingProductIds(1)).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Should restore checkpointed scores, decayed by their age")
+    @SuppressWarnings("unchecked")
+    void testRestoreAndCheckpoint() {
+        // Given: product 1 was far ahead an hour (one half-life) ago
+        when(productTrendingScoreRepository.findAll()).thenReturn(List.of(
+                ProductTrendingScore.builder().productId(1L).score(8).scoredAt(LocalDateTime.now().minusHours(1)).build(),
+                ProductTrendingScore.builder().productId(2L).score(5).scoredAt(LocalDateTime.now()).build()));
+
+        // When
+        trendingService.restore();
+        trendingService.checkpoint();
+
+        // Then
+        assertThat(trendingService.getTrendingProductIds(10)).containsExactly(2L, 1L);
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("GREATEST"), rows.capture());
+        // other instances' rows are merged into, not wiped
+        verify(jdbcTemplate, never()).update("DELETE FROM product_trending_scores");
+        verify(jdbcTemplate).update(startsWith("DELETE FROM product_trending_scores\n"), any(), any(), eq(0.01));
+        Object[] first = rows.getValue().stream().filter(row -> row[0].equals(1L)).findFirst().orElseThrow();
+        assertThat((double) first[1]).isCloseTo(4.0, within(0.01));
+    }
+}
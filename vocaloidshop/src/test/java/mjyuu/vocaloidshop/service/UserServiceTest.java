@@ -0,0 +1,117 @@
+package mjyuu.vocaloidshop.service;
+
+import mjyuu.vocaloidshop.entity.RevocationReason;
+import mjyuu.vocaloidshop.entity.User;
+import mjyuu.vocaloidshop.repository.*;
+import mjyuu.vocaloidshop.security.PrincipalCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserService Tests")
+class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private WishlistItemRepository wishlistItemRepository;
+
+    @Mock
+    private AddressRepository addressRepository;
+
+    @Mock
+    private AddressBookCache addressBookCache;
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private MembershipService membershipService;
+
+    @InjectMocks
+    private UserService userService;
+
+    private User admin;
+
+    @BeforeEach
+    void setUp() {
+        admin = User.builder()
+                .id(1L)
+                .email("admin@example.com")
+                .name("Admin")
+                .role(User.Role.ADMIN)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should revoke the user's tokens on every node when the role changes")
+    void testUpdateRoleRevokes() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(admin));
+
+        // When
+        User updated = userService.updateRole(1L, User.Role.USER);
+
+        // Then
+        assertThat(updated.getRole()).isEqualTo(User.Role.USER);
+        verify(tokenRevocationService).revokeUser(1L, RevocationReason.ROLE_CHANGE);
+        verify(principalCache).invalidate(1L);
+    }
+
+    @Test
+    @DisplayName("Should revoke the tokens of a deleted user")
+    void testDeleteUserRevokes() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(admin));
+        when(orderRepository.countByUserId(1L)).thenReturn(0L);
+        when(archivedOrderRepository.existsByUserId(1L)).thenReturn(false);
+        when(addressRepository.findByUserId(1L)).thenReturn(List.of());
+
+        // When
+        userService.deleteUser(1L);
+
+        // Then
+        verify(userRepository).delete(admin);
+        verify(tokenRevocationService).revokeUser(1L, RevocationReason.ACCOUNT_DELETED);
+    }
+
+    @Test
+    @DisplayName("Should not delete a user whose only orders are archived")
+    void testDeleteUserWithArchivedOrders() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(admin));
+        when(orderRepository.countByUserId(1L)).thenReturn(0L);
+        when(archivedOrderRepository.existsByUserId(1L)).thenReturn(true);
+
+        // When / Then
+        assertThatThrownBy(() -> userService.deleteUser(1L))
+                .hasMessageContaining("has orders");
+        verify(userRepository, never()).delete(any());
+        verifyNoInteractions(tokenRevocationService);
+    }
+}
@@ -0,0 +1,168 @@
+package mjyuu.vocaloidshop.service;
+
+import mjyuu.vocaloidshop.entity.WishlistNotificationKind;
+import mjyuu.vocaloidshop.event.BackInStockEvent;
+import mjyuu.vocaloidshop.event.ProductChangedEvent;
+import mjyuu.vocaloidshop.repository.WishlistNotificationRepository;
+import mjyuu.vocaloidshop.repository.WishlistNotificationRepository.DueView;
+import mjyuu.vocaloidshop.repository.WishlistNotificationRepository.PendingView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WishlistNotificationService Tests")
+class WishlistNotificationServiceTest {
+
+    @Mock
+    private WishlistNotificationRepository wishlistNotificationRepository;
+
+    @Mock
+    private JavaMailSender mailSender;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WishlistNotificationService wishlistNotificationService;
+
+    @BeforeEach
+    void setUp() {
+        wishlistNotificationService = new WishlistNotificationService(wishlistNotificationRepository, mailSender,
+                transactionManager, true, 4, 300_000, 60_000, "no-reply@vocalocart.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        wishlistNotificationService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should queue price-drop and back-in-stock notifications in one statement each")
+    void testFanOut() {
+        // When
+        wishlistNotificationService.onProductChanged(new ProductChangedEvent(1L, 15000, 12000, 0, 5));
+        wishlistNotificationService.onProductChanged(new ProductChangedEvent(2L, 15000, 18000, 3, 5));
+        // restocks of any cause, edits included, come from InventoryService
+        wishlistNotificationService.onBackInStock(new BackInStockEvent(3L, 2));
+
+        // Then
+        verify(wishlistNotificationRepository, timeout(1000)).fanOut(1L, WishlistNotificationKind.PRICE_DROP.name(), 15000);
+        verify(wishlistNotificationRepository, timeout(1000)).fanOut(eq(3L), eq(WishlistNotificationKind.BACK_IN_STOCK.name()), isNull());
+        verify(wishlistNotificationRepository, never()).fanOut(eq(1L), eq(WishlistNotificationKind.BACK_IN_STOCK.name()), any());
+        verify(wishlistNotificationRepository, never()).fanOut(eq(2L), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should send one digest per user and drop lines that are no longer true")
+    void testSendDigests() {
+        // Given
+        when(wishlistNotificationRepository.lockDue(any(), eq(4))).thenReturn(
+                List.of(due(10L, 1L), due(11L, 1L), due(12L, 2L)), List.of());
+        when(wishlistNotificationRepository.findPendingByIdIn(List.of(10L, 11L, 12L))).thenReturn(List.of(
+                new Line(10L, 1L, "miku@example.com", "Miku", false, 7L, "Miku V4X", WishlistNotificationKind.PRICE_DROP, 15000, 12000, 3),
+                new Line(11L, 1L, "miku@example.com", "Miku", false, 8L, "Luka V4X", WishlistNotificationKind.BACK_IN_STOCK, null, 9000, 2),
+                // price went back up before the digest went out
+                new Line(12L, 2L, "rin@example.com", "Rin", false, 7L, "Miku V4X", WishlistNotificationKind.PRICE_DROP, 15000, 16000, 3)));
+
+        // When
+        int sent = wishlistNotificationService.sendPendingDigests();
+
+        // Then
+        ArgumentCaptor<SimpleMailMessage> message = ArgumentCaptor.forClass(SimpleMailMessage.class);
+        verify(mailSender, times(1)).send(message.capture());
+        assertThat(sent).isEqualTo(1);
+        assertThat(message.getValue().getTo()).containsExactly("miku@example.com");
+        assertThat(message.getValue().getText()).contains("Miku V4X is now 12,000 (was 15,000)", "Luka V4X is back in stock");
+        verify(wishlistNotificationRepository).lease(eq(List.of(10L, 11L, 12L)), any());
+        verify(wishlistNotificationRepository).deleteByIdIn(List.of(10L, 11L));
+        verify(wishlistNotificationRepository).deleteByIdIn(List.of(12L));
+    }
+
+    @Test
+    @DisplayName("Should stop and keep pending notifications when the mail server fails")
+    void testSendDigestsMailFailure() {
+        // Given
+        when(wishlistNotificationRepository.lockDue(any(), anyInt())).thenReturn(List.of(due(10L, 1L)));
+        when(wishlistNotificationRepository.findPendingByIdIn(List.of(10L))).thenReturn(List.of(
+                new Line(10L, 1L, "miku@example.com", "Miku", false, 7L, "Miku V4X", WishlistNotificationKind.BACK_IN_STOCK, null, 12000, 3)));
+        doThrow(new MailSendException("Connection refused")).when(mailSender).send(any(SimpleMailMessage.class));
+
+        // When
+        int sent = wishlistNotificationService.sendPendingDigests();
+
+        // Then
+        assertThat(sent).isZero();
+        verify(wishlistNotificationRepository, never()).deleteByIdIn(any());
+    }
+
+    @Test
+    @DisplayName("Should leave a user cut short by a full batch for the next claim")
+    void testClaimTrimsLastUser() {
+        // Given: the batch is full, so user 2 may have more rows than were read
+        when(wishlistNotificationRepository.lockDue(any(), eq(4))).thenReturn(
+                List.of(due(10L, 1L), due(11L, 1L), due(12L, 2L), due(13L, 2L)), List.of());
+        when(wishlistNotificationRepository.findPendingByIdIn(List.of(10L, 11L))).thenReturn(List.of(
+                new Line(10L, 1L, "miku@example.com", "Miku", false, 7L, "Miku V4X", WishlistNotificationKind.BACK_IN_STOCK, null, 12000, 3)));
+
+        // When
+        wishlistNotificationService.sendPendingDigests();
+
+        // Then
+        verify(wishlistNotificationRepository).lease(eq(List.of(10L, 11L)), any());
+        verify(wishlistNotificationRepository).deleteByIdIn(List.of(10L, 11L));
+        verify(mailSender, times(1)).send(any(SimpleMailMessage.class));
+    }
+
+    @Test
+    @DisplayName("Should clear only the claimed rows of a user with nothing left to announce")
+    void testNothingToAnnounce() {
+        // Given: the product of the only claimed row was deleted, so it does not join
+        when(wishlistNotificationRepository.lockDue(any(), anyInt())).thenReturn(List.of(due(13L, 4L)), List.of());
+        when(wishlistNotificationRepository.findPendingByIdIn(List.of(13L))).thenReturn(List.of());
+
+        // When
+        int sent = wishlistNotificationService.sendPendingDigests();
+
+        // Then
+        assertThat(sent).isZero();
+        verify(mailSender, never()).send(any(SimpleMailMessage.class));
+        verify(wishlistNotificationRepository).deleteByIdIn(List.of(13L));
+    }
+
+    private static DueView due(Long id, Long userId) {
+        return new DueView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+        };
+    }
+
+    private record Line(Long getId, Long getUserId, String getEmail, String getUserName, Boolean getBanned,
+                        Long getProductId, String getProductName, WishlistNotificationKind getKind,
+                        Integer getOldPrice, Integer getPrice, Integer getStock) implements PendingView {
+    }
+}
@@ -0,0 +1,62 @@
+package mjyuu.vocaloidshop.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("CoOccurrenceMatrix Tests")
+class CoOccurrenceMatrixTest {
+
+    @Test
+    @DisplayName("Should count pairs symmetrically and ignore duplicates within a basket")
+    void testCounts() {
+        // Given
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(5);
+
+        // When
+        matrix.addBasket(new long[]{1, 2, 2, 3});
+        matrix.addBasket(new long[]{2, 1});
+        matrix.addBasket(new long[]{4});
+
+        // Then
+        assertThat(matrix.count(1, 2)).isEqualTo(2);
+        assertThat(matrix.count(2, 1)).isEqualTo(2);
+        assertThat(matrix.count(1, 3)).isEqualTo(1);
+        assertThat(matrix.count(3, 2)).isEqualTo(1);
+        assertThat(matrix.count(2, 2)).isZero();
+        assertThat(matrix.topNeighbours(1, 10)).containsExactly(2, 3);
+        assertThat(matrix.topNeighbours(4, 10)).isEmpty();
+        assertThat(matrix.productCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should keep the ranked neighbours equal to a full sort of the counts")
+    void testRanking() {
+        // Given
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // When
+        for (int i = 0; i < 2000; i++) {
+            long other = 2 + (long) Math.abs(random.nextGaussian() * 8);
+            matrix.addBasket(new long[]{1, other});
+            expected.merge(other, 1, Integer::sum);
+        }
+
+        // Then
+        long[] top = matrix.topNeighbours(1, 4);
+        assertThat(top).hasSize(4);
+        int[] topCounts = Arrays.stream(top).mapToInt(id -> matrix.count(1, id)).toArray();
+        int[] bestCounts = expected.values().stream().sorted(Comparator.reverseOrder()).limit(4)
+                .mapToInt(Integer::intValue).toArray();
+        assertThat(topCounts).containsExactly(bestCounts);
+    }
+}
@@ -0,0 +1,102 @@
+package mjyuu.vocaloidshop.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("DecayingScores Tests")
+class DecayingScoresTest {
+
+    private static final long TAU = 60_000;
+
+    @Test
+    @DisplayName("Should decay scores by e per time constant, across a rescale")
+    void testDecay() {
+        // Given
+        DecayingScores scores = new DecayingScores(64, TAU, 0);
+
+        // When
+        scores.add(1, 10, 0);
+        scores.add(2, 10, TAU);
+        scores.rescale(2 * TAU);
+
+        // Then
+        assertThat(scores.get(1, TAU)).isCloseTo(10 / Math.E, within(1e-9));
+        assertThat(scores.get(1, 2 * TAU)).isCloseTo(10 / Math.E / Math.E, within(1e-9));
+        assertThat(scores.get(2, 2 * TAU)).isCloseTo(10 / Math.E, within(1e-9));
+        assertThat(scores.get(3, 2 * TAU)).isZero();
+        Map<Long, Double> all = new HashMap<>();
+        scores.forEach(2 * TAU, all::put);
+        assertThat(all).containsOnlyKeys(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Should rescale a short time constant often enough that scores stay finite")
+    void testRescaleIfNeeded() {
+        // Given: a one-minute half-life refreshed every 30 seconds for two days
+        long tau = Math.round(60_000 / Math.log(2));
+        DecayingScores scores = new DecayingScores(64, tau, 0);
+        long twoDays = 2 * 24 * 3_600_000L;
+        int rescales = 0;
+
+        // When
+        for (long now = 0; now <= twoDays; now += 30_000) {
+            if (scores.rescaleIfNeeded(now)) {
+                rescales++;
+            }
+            scores.add(1, 1, now);
+        }
+
+        // Then
+        assertThat(rescales).isPositive();
+        assertThat(scores.get(1, twoDays)).isFinite().isGreaterThan(1);
+        assertThat(scores.rescaleIfNeeded(twoDays)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should not lose concurrent increments")
+    void testConcurrentAdds() throws Exception {
+        // Given
+        DecayingScores scores = new DecayingScores(1024, TAU, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    scores.add(1 + (i % 100), 1, 0);
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        for (long key = 1; key <= 100; key++) {
+            assertThat(scores.get(key, 0)).isEqualTo(800.0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse new keys once the table is full")
+    void testFull() {
+        // Given
+        DecayingScores scores = new DecayingScores(4, TAU, 0);
+
+        // When
+        for (long key = 1; key <= 4; key++) {
+            assertThat(scores.add(key, 1, 0)).isTrue();
+        }
+
+        // Then
+        assertThat(scores.add(5, 1, 0)).isFalse();
+        assertThat(scores.add(4, 1, 0)).isTrue();
+    }
+}
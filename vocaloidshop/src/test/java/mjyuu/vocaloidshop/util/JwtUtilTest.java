@@ -0,0 +1,44 @@
+package mjyuu.vocaloidshop.util;
+
+import io.jsonwebtoken.Claims;
+import mjyuu.vocaloidshop.entity.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("JwtUtil Tests")
+class JwtUtilTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+
+    @Test
+    @DisplayName("Should return the same verified claims for repeated validations")
+    void testValidateTokenCached() {
+        // Given
+        String token = jwtUtil.generateToken(1L, "test@example.com", User.Role.ADMIN);
+
+        // When
+        Claims first = jwtUtil.validateToken(token);
+        Claims second = jwtUtil.validateToken(token);
+
+        // Then
+        assertThat(first.getSubject()).isEqualTo("test@example.com");
+        assertThat(first.get("role", String.class)).isEqualTo("ADMIN");
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    @DisplayName("Should reject a tampered token even after the original was cached")
+    void testValidateTamperedToken() {
+        // Given
+        String token = jwtUtil.generateToken(1L, "test@example.com", User.Role.USER);
+        jwtUtil.validateToken(token);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        // When & Then
+        assertThatThrownBy(() -> jwtUtil.validateToken(tampered))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Invalid or expired token");
+    }
+}
@@ -0,0 +1,76 @@
+package mjyuu.vocaloidshop.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("PostalIndex Tests")
+class PostalIndexTest {
+
+    private static final String CSV = """
+            country,postal_code,city,state
+            KR,06236,Gangnam-gu,Seoul
+            KR,04524,Jung-gu,Seoul
+            KR,06035,Gangnam-gu,Seoul
+            KR,48094,Haeundae-gu,Busan
+            JP,100-0005,Chiyoda,Tokyo
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should find codes regardless of case, spaces and dashes")
+    void testFind() throws Exception {
+        // Given
+        PostalIndex index = build();
+
+        // When / Then
+        assertThat(index.size()).isEqualTo(5);
+        assertThat(index.find("kr", "04524")).contains(new PostalIndex.Entry("KR", "04524", "Jung-gu", "Seoul"));
+        assertThat(index.find("JP", "1000005")).map(PostalIndex.Entry::city).contains("Chiyoda");
+        assertThat(index.find("KR", "04-524")).isPresent();
+        assertThat(index.find("KR", "99999")).isEmpty();
+        assertThat(index.find("US", "04524")).isEmpty();
+        assertThat(index.find("Korea", "04524")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should complete a prefix in code order within the country")
+    void testComplete() throws Exception {
+        // Given
+        PostalIndex index = build();
+
+        // When / Then
+        assertThat(index.complete("KR", "06", 10)).extracting(PostalIndex.Entry::postalCode)
+                .containsExactly("06035", "06236");
+        assertThat(index.complete("KR", "0", 2)).extracting(PostalIndex.Entry::postalCode)
+                .containsExactly("04524", "06035");
+        assertThat(index.complete("KR", "7", 10)).isEmpty();
+        assertThat(index.covers("JP")).isTrue();
+        assertThat(index.covers("US")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject rows with an invalid postal code")
+    void testInvalidRow() {
+        // Given
+        String csv = "KR,0452412345678,Jung-gu,Seoul\n";
+
+        // When / Then
+        assertThatThrownBy(() -> PostalIndexBuilder.build(new StringReader(csv), tempDir.resolve("bad.idx")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Line 1");
+    }
+
+    private PostalIndex build() throws Exception {
+        Path file = tempDir.resolve("postal.idx");
+        PostalIndexBuilder.build(new StringReader(CSV), file);
+        return PostalIndex.open(file);
+    }
+}
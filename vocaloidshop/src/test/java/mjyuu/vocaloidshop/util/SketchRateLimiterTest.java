@@ -0,0 +1,88 @@
+package mjyuu.vocaloidshop.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("SketchRateLimiter Tests")
+class SketchRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @Test
+    @DisplayName("Should admit a burst up to capacity and then reject")
+    void testBurstCapacity() {
+        // Given
+        SketchRateLimiter limiter = new SketchRateLimiter(5, 60, 1024, 4, now::get);
+
+        // When
+        int admitted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (limiter.tryAcquire("198.51.100.7")) {
+                admitted++;
+            }
+        }
+
+        // Then
+        assertThat(admitted).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should refill tokens over time")
+    void testRefill() {
+        // Given
+        SketchRateLimiter limiter = new SketchRateLimiter(2, 60, 1024, 4, now::get);
+        limiter.tryAcquire("user@example.com");
+        limiter.tryAcquire("user@example.com");
+        assertThat(limiter.tryAcquire("user@example.com")).isFalse();
+
+        // When
+        now.addAndGet(1_000);
+
+        // Then
+        assertThat(limiter.tryAcquire("user@example.com")).isTrue();
+        assertThat(limiter.tryAcquire("user@example.com")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should keep separate buckets for different keys")
+    void testIndependentKeys() {
+        // Given
+        SketchRateLimiter limiter = new SketchRateLimiter(1, 1, 1 << 14, 4, now::get);
+        limiter.tryAcquire("attacker@example.com");
+
+        // When & Then
+        assertThat(limiter.tryAcquire("attacker@example.com")).isFalse();
+        assertThat(limiter.tryAcquire("victim@example.com")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should not admit far more than capacity under contention")
+    void testConcurrentAcquire() throws Exception {
+        // Given
+        SketchRateLimiter limiter = new SketchRateLimiter(100, 0.001, 1024, 4, now::get);
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> {
+                if (limiter.tryAcquire("203.0.113.9")) {
+                    admitted.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(admitted.get()).isBetween(100, 108);
+    }
+}
@@ -0,0 +1,76 @@
+package mjyuu.vocaloidshop.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("VersionedLruCache Tests")
+class VersionedLruCacheTest {
+
+    private final VersionedLruCache<String> cache = new VersionedLruCache<>(100, 60_000);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    @DisplayName("Should load once and serve later reads from the cache")
+    void testLoadCaches() {
+        // When
+        cache.load(1L, this::loadValue);
+        String second = cache.load(1L, this::loadValue);
+
+        // Then
+        assertThat(second).isEqualTo("value-1");
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not cache a load that overlapped an invalidation")
+    void testLoadOverlappingInvalidation() {
+        // Given
+        cache.load(1L, id -> {
+            cache.invalidate(id);
+            return loadValue(id);
+        });
+
+        // When
+        cache.load(1L, this::loadValue);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should load only the misses of a batch and drop entries matching a predicate")
+    void testLoadAllAndInvalidateIf() {
+        // Given
+        cache.loadAll(List.of(1L, 2L), this::loadValues);
+
+        // When
+        Map<Long, String> found = cache.loadAll(List.of(1L, 2L, 3L), ids -> {
+            assertThat(ids).containsExactly(3L);
+            return loadValues(ids);
+        });
+        cache.invalidateIfAfterCommit(value -> value.endsWith("-2"));
+        cache.load(2L, this::loadValue);
+        cache.load(1L, this::loadValue);
+
+        // Then
+        assertThat(found).containsOnlyKeys(1L, 2L, 3L);
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    private String loadValue(Long id) {
+        loads.incrementAndGet();
+        return "value-" + id;
+    }
+
+    private Map<Long, String> loadValues(Set<Long> ids) {
+        return ids.stream().collect(Collectors.toMap(id -> id, this::loadValue));
+    }
+}